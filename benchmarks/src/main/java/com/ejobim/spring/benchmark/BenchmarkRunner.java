@@ -0,0 +1,40 @@
+package com.ejobim.spring.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 基准运行入口
+ * 接受JMH的命令行参数，默认把结果以JSON格式写入jmh-result.json，便于比较不同版本
+ * 用法：java -jar target/benchmarks.jar [JMH参数] [基准名称正则]
+ * @author zch
+ */
+public class BenchmarkRunner {
+
+    /**
+     * 默认结果文件
+     */
+    private static final String RESULT_FILE = "jmh-result.json";
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        OptionsBuilder builder = new OptionsBuilder();
+        if (!commandLine.getResultFormat().hasValue()) {
+            builder.resultFormat(ResultFormatType.JSON);
+        }
+        if (!commandLine.getResult().hasValue()) {
+            builder.result(RESULT_FILE);
+        }
+        if (commandLine.getIncludes().isEmpty()) {
+            builder.include(BenchmarkRunner.class.getPackage().getName() + ".*");
+        }
+        Options options = builder.parent(commandLine).build();
+        new Runner(options).run();
+    }
+
+}
@@ -0,0 +1,94 @@
+package com.ejobim.spring.benchmark;
+
+import com.ejobim.spring.BusinessException;
+import com.ejobim.spring.ErrorType;
+import com.ejobim.spring.ParameterException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 异常基准
+ * 测量业务异常、参数异常的创建，以及参数异常的合并
+ * @author zch
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ExceptionBenchmark {
+
+    /**
+     * 合并的参数异常中的参数个数
+     */
+    @Param({"1", "10", "100"})
+    public int parameters;
+
+    private String[] names;
+
+    private ParameterException source;
+
+    @Setup
+    public void setup() {
+        this.names = new String[this.parameters];
+        for (int i = 0; i < this.parameters; i++) {
+            this.names[i] = "p" + i;
+        }
+        this.source = new ParameterException(this.names[0], "不能为空");
+        for (int i = 0; i < this.parameters; i++) {
+            this.source.add(this.names[i], "长度超出范围");
+        }
+    }
+
+    @Benchmark
+    public Object businessException() {
+        return new BusinessException(ErrorType.RecordNotExists, "记录不存在");
+    }
+
+    @Benchmark
+    public Object businessExceptionConstant() {
+        return BusinessException.constant(ErrorType.RecordNotExists, "记录不存在");
+    }
+
+    @Benchmark
+    public Object parameterException() {
+        return new ParameterException("p", "不能为空");
+    }
+
+    @Benchmark
+    public Object parameterExceptionNames() {
+        return new ParameterException(this.names, "不能为空");
+    }
+
+    @Benchmark
+    public Object parameterExceptionAdd() {
+        ParameterException ex = new ParameterException(this.names[0], "不能为空");
+        for (String name : this.names) {
+            ex.add(name, "不是有效值");
+        }
+        return ex;
+    }
+
+    @Benchmark
+    public Object parameterExceptionMerge() {
+        ParameterException ex = new ParameterException(this.names[0], "不能为空");
+        return ex.add(this.source);
+    }
+
+    @Benchmark
+    public Object parameterExceptionMessages() {
+        return this.source.getErrorMessages();
+    }
+
+}
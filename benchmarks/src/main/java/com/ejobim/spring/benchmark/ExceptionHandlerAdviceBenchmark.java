@@ -0,0 +1,98 @@
+package com.ejobim.spring.benchmark;
+
+import com.ejobim.spring.BusinessException;
+import com.ejobim.spring.ErrorMetrics;
+import com.ejobim.spring.ErrorType;
+import com.ejobim.spring.ExceptionHandlerAdvice;
+import com.ejobim.spring.ParameterException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.validation.BindException;
+
+/**
+ * 异常处理基准
+ * 测量ExceptionHandlerAdvice处理业务异常、参数异常、参数绑定异常和系统异常的耗时
+ * 系统异常的日志经过限流，测量的主要是限流后的路径
+ * @author zch
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ExceptionHandlerAdviceBenchmark {
+
+    @Param({"false", "true"})
+    public boolean metrics;
+
+    private ExceptionHandlerAdvice advice;
+
+    private MockHttpServletRequest request;
+
+    private BusinessException businessException;
+
+    private ParameterException parameterException;
+
+    private BindException bindException;
+
+    private RuntimeException systemException;
+
+    @Setup
+    public void setup() {
+        this.advice = new ExceptionHandlerAdvice(5, 60, 1024, 8192, false, 1024, 64, new ErrorMetrics(this.metrics));
+        this.request = new MockHttpServletRequest("POST", "/api/orders");
+        this.request.addParameter("id", "12345");
+        this.request.addParameter("name", "value");
+        this.request.addHeader("User-Agent", "benchmark");
+        this.request.addHeader("X-Forwarded-For", "203.0.113.7");
+        this.businessException = new BusinessException(ErrorType.RecordNotExists, "记录不存在");
+        this.parameterException = new ParameterException("id", "不能为空").add("name", "长度超出范围");
+        this.bindException = new BindException(new Object(), "target");
+        this.systemException = new IllegalStateException("系统错误");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.advice.destroy();
+    }
+
+    @Benchmark
+    public Object businessError() {
+        return this.advice.handleBusinessError(this.request, new MockHttpServletResponse(), this.businessException);
+    }
+
+    @Benchmark
+    public Object parameterError() {
+        return this.advice.handleParameterError(this.request, new MockHttpServletResponse(), this.parameterException);
+    }
+
+    @Benchmark
+    public Object bindError() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        this.advice.handleError(this.request, response, this.bindException);
+        return response;
+    }
+
+    @Benchmark
+    public Object systemError() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        this.advice.handleError(this.request, response, this.systemException);
+        return response;
+    }
+
+}
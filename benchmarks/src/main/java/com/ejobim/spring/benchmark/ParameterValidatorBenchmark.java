@@ -0,0 +1,530 @@
+package com.ejobim.spring.benchmark;
+
+import com.ejobim.spring.FormatScanner;
+import com.ejobim.spring.ParameterException;
+import com.ejobim.spring.ParameterValidator;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 参数验证基准
+ * 每个验证方法分别在有效值、无效值、对抗性输入（超长或易引起回溯的值）下测量
+ * 验证失败时返回异常，验证通过时返回null或解析结果
+ * 每种格式另有xxxRegexBaseline与xxxScanner一对，比较ParameterValidator中的正则与FormatScanner
+ * @author zch
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParameterValidatorBenchmark {
+
+    /**
+     * 回溯型正则，不在线性时间子集内
+     */
+    private static final Pattern BACKTRACKING_PATTERN = Pattern.compile("(a|aa)+b");
+
+    @Param({"valid", "invalid", "adversarial"})
+    public String input;
+
+    private ParameterValidator validator;
+
+    private Object object;
+
+    private String text;
+
+    private String blank;
+
+    private List<String> list;
+
+    private String length;
+
+    private String linear;
+
+    private String backtracking;
+
+    private String email;
+
+    private String ipv4;
+
+    private String domain;
+
+    private String host;
+
+    private String mobile;
+
+    private String htmlColor;
+
+    private Integer rangeStart;
+
+    private Integer rangeEnd;
+
+    private Integer inRange;
+
+    private String sort;
+
+    private String integer;
+
+    private String decimal;
+
+    private String dateTime;
+
+    @Setup
+    public void setup() {
+        this.validator = new ParameterValidator();
+        switch (this.input) {
+            case "valid":
+                this.object = "value";
+                this.text = "value";
+                this.blank = " value ";
+                this.list = Collections.singletonList("value");
+                this.length = "abcdef";
+                this.linear = "abc123";
+                this.backtracking = "aaaaab";
+                this.email = "user.name@example.com";
+                this.ipv4 = "192.168.1.1";
+                this.domain = "www.example.com";
+                this.host = "api.example.com";
+                this.mobile = "13812345678";
+                this.htmlColor = "#a1B2c3";
+                this.rangeStart = 1;
+                this.rangeEnd = 2;
+                this.inRange = 5;
+                this.sort = "name asc,id desc";
+                this.integer = "123456";
+                this.decimal = "1234.5678";
+                this.dateTime = "2020-01-02 03:04:05";
+                break;
+            case "invalid":
+                this.object = null;
+                this.text = "";
+                this.blank = "   ";
+                this.list = Collections.emptyList();
+                this.length = repeat("a", 33);
+                this.linear = "ABC";
+                this.backtracking = "aaaaac";
+                this.email = "user@@example";
+                this.ipv4 = "256.1.1.1";
+                this.domain = "-bad.example";
+                this.host = "bad_host!";
+                this.mobile = "12345678901";
+                this.htmlColor = "#zzzzzz";
+                this.rangeStart = 2;
+                this.rangeEnd = 1;
+                this.inRange = 11;
+                this.sort = "name up";
+                this.integer = "12a456";
+                this.decimal = "12.34.56";
+                this.dateTime = "2020-13-02 03:04:05";
+                break;
+            case "adversarial":
+                String large = repeat("a", 100000);
+                this.object = large;
+                this.text = large;
+                this.blank = repeat(" ", 100000) + "a";
+                this.list = new ArrayList<>(Collections.nCopies(100000, "value"));
+                this.length = large;
+                this.linear = large + "!";
+                this.backtracking = repeat("a", 40) + "c";
+                this.email = repeat("a.", 5000) + "@";
+                this.ipv4 = repeat("1.", 10000) + "1";
+                this.domain = repeat(repeat("a", 63) + ".", 1000) + "-";
+                this.host = repeat("9", 10000);
+                this.mobile = repeat("1", 10000);
+                this.htmlColor = "#" + repeat("a", 10000);
+                this.rangeStart = Integer.MAX_VALUE;
+                this.rangeEnd = Integer.MAX_VALUE;
+                this.inRange = 10;
+                this.sort = repeat("name asc,", 1000) + "id desc";
+                this.integer = "99999999999999999999";
+                this.decimal = "1." + repeat("0", 1000) + "1e-300";
+                this.dateTime = repeat("2020-01-02 ", 1000);
+                break;
+            default:
+                throw new IllegalArgumentException(this.input);
+        }
+    }
+
+    @Benchmark
+    public Object required() {
+        try {
+            this.validator.required("p", this.object, "参数");
+            return null;
+        } catch (ParameterException ex) {
+            return ex;
+        }
+    }
+
+    @Benchmark
+    public Object notEmpty() {
+        try {
+            this.validator.notEmpty("p", this.text, "参数");
+            return null;
+        } catch (ParameterException ex) {
+            return ex;
+        }
+    }
+
+    @Benchmark
+    public Object notBlank() {
+        try {
+            this.validator.notBlank("p", this.blank, "参数");
+            return null;
+        } catch (ParameterException ex) {
+            return ex;
+        }
+    }
+
+    @Benchmark
+    public Object notEmptyCollection() {
+        try {
+            this.validator.notEmpty("p", this.list, "参数");
+            return null;
+        } catch (ParameterException ex) {
+            return ex;
+        }
+    }
+
+    @Benchmark
+    public Object emptyToNull() {
+        return this.validator.emptyToNull(this.text);
+    }
+
+    @Benchmark
+    public Object blankToNull() {
+        return this.validator.blankToNull(this.blank);
+    }
+
+    @Benchmark
+    public Object blankToEmpty() {
+        return this.validator.blankToEmpty(this.blank);
+    }
+
+    @Benchmark
+    public Object lengthInRange() {
+        try {
+            this.validator.lengthInRange("p", this.length, 1, 32, "参数");
+            return null;
+        } catch (ParameterException ex) {
+            return ex;
+        }
+    }
+
+    @Benchmark
+    public Object matchedLinear() {
+        try {
+            this.validator.matched("p", this.linear, "[a-z]+\\d*", "参数");
+            return null;
+        } catch (ParameterException ex) {
+            return ex;
+        }
+    }
+
+    @Benchmark
+    public Object matchedBacktracking() {
+        try {
+            this.validator.matched("p", this.backtracking, BACKTRACKING_PATTERN, "参数");
+            return null;
+        } catch (ParameterException ex) {
+            return ex;
+        }
+    }
+
+    @Benchmark
+    public Object isEmail() {
+        try {
+            this.validator.isEmail("p", this.email, "参数");
+            return null;
+        } catch (ParameterException ex) {
+            return ex;
+        }
+    }
+
+    /**
+     * 正则实现的基线，与扫描器实现对比；其他格式同样成对测量，加-prof gc比较每次判断分配的字节数
+     */
+    @Benchmark
+    public boolean isEmailRegexBaseline() {
+        return ParameterValidator.EMAIL_PATTERN.matcher(this.email).matches();
+    }
+
+    @Benchmark
+    public boolean isEmailScanner() {
+        return FormatScanner.isEmail(this.email);
+    }
+
+    @Benchmark
+    public Object isIPv4() {
+        try {
+            this.validator.isIPv4("p", this.ipv4, "参数");
+            return null;
+        } catch (ParameterException ex) {
+            return ex;
+        }
+    }
+
+    @Benchmark
+    public boolean isIPv4RegexBaseline() {
+        return ParameterValidator.IPV4_PATTERN.matcher(this.ipv4).matches();
+    }
+
+    @Benchmark
+    public boolean isIPv4Scanner() {
+        return FormatScanner.isIPv4(this.ipv4);
+    }
+
+    @Benchmark
+    public Object isDomain() {
+        try {
+            this.validator.isDomain("p", this.domain, "参数");
+            return null;
+        } catch (ParameterException ex) {
+            return ex;
+        }
+    }
+
+    @Benchmark
+    public boolean isDomainRegexBaseline() {
+        return ParameterValidator.DOMAIN_PATTERN.matcher(this.domain).matches();
+    }
+
+    @Benchmark
+    public boolean isDomainScanner() {
+        return FormatScanner.isDomain(this.domain);
+    }
+
+    @Benchmark
+    public Object isHost() {
+        try {
+            this.validator.isHost("p", this.host, "参数");
+            return null;
+        } catch (ParameterException ex) {
+            return ex;
+        }
+    }
+
+    @Benchmark
+    public boolean isHostRegexBaseline() {
+        return ParameterValidator.IPV4_PATTERN.matcher(this.host).matches() || ParameterValidator.DOMAIN_PATTERN.matcher(this.host).matches();
+    }
+
+    @Benchmark
+    public boolean isHostScanner() {
+        return FormatScanner.isHost(this.host);
+    }
+
+    @Benchmark
+    public Object isMobile() {
+        try {
+            this.validator.isMobile("p", this.mobile, "参数");
+            return null;
+        } catch (ParameterException ex) {
+            return ex;
+        }
+    }
+
+    @Benchmark
+    public boolean isMobileRegexBaseline() {
+        return ParameterValidator.MOBILE_PATTERN.matcher(this.mobile).matches();
+    }
+
+    @Benchmark
+    public boolean isMobileScanner() {
+        return FormatScanner.isMobile(this.mobile);
+    }
+
+    @Benchmark
+    public Object isHtmlColor() {
+        try {
+            this.validator.isHtmlColor("p", this.htmlColor, "参数");
+            return null;
+        } catch (ParameterException ex) {
+            return ex;
+        }
+    }
+
+    @Benchmark
+    public boolean isHtmlColorRegexBaseline() {
+        return ParameterValidator.HTML_COLOR_PATTERN.matcher(this.htmlColor).matches();
+    }
+
+    @Benchmark
+    public boolean isHtmlColorScanner() {
+        return FormatScanner.isHtmlColor(this.htmlColor);
+    }
+
+    @Benchmark
+    public Object isRange() {
+        try {
+            this.validator.isRange("start", this.rangeStart, "开始", "end", this.rangeEnd, "结束");
+            return null;
+        } catch (ParameterException ex) {
+            return ex;
+        }
+    }
+
+    @Benchmark
+    public Object inRange() {
+        try {
+            this.validator.inRange("p", this.inRange, 1, 10, "参数");
+            return null;
+        } catch (ParameterException ex) {
+            return ex;
+        }
+    }
+
+    @Benchmark
+    public Object isSort() {
+        try {
+            this.validator.isSort("p", this.sort, "name", "id");
+            return null;
+        } catch (ParameterException ex) {
+            return ex;
+        }
+    }
+
+    @Benchmark
+    public Object parseInt() {
+        try {
+            return this.validator.parseInt("p", this.integer);
+        } catch (ParameterException ex) {
+            return ex;
+        }
+    }
+
+    @Benchmark
+    public Object parseIntPrimitive() {
+        try {
+            return this.validator.parseInt("p", this.integer, 0);
+        } catch (ParameterException ex) {
+            return ex;
+        }
+    }
+
+    @Benchmark
+    public Object parseLong() {
+        try {
+            return this.validator.parseLong("p", this.integer);
+        } catch (ParameterException ex) {
+            return ex;
+        }
+    }
+
+    @Benchmark
+    public Object parseLongPrimitive() {
+        try {
+            return this.validator.parseLong("p", this.integer, 0L);
+        } catch (ParameterException ex) {
+            return ex;
+        }
+    }
+
+    @Benchmark
+    public Object parseFloat() {
+        try {
+            return this.validator.parseFloat("p", this.decimal);
+        } catch (ParameterException ex) {
+            return ex;
+        }
+    }
+
+    @Benchmark
+    public Object parseFloatPrimitive() {
+        try {
+            return this.validator.parseFloat("p", this.decimal, 0f);
+        } catch (ParameterException ex) {
+            return ex;
+        }
+    }
+
+    @Benchmark
+    public Object parseDouble() {
+        try {
+            return this.validator.parseDouble("p", this.decimal);
+        } catch (ParameterException ex) {
+            return ex;
+        }
+    }
+
+    @Benchmark
+    public Object parseDoublePrimitive() {
+        try {
+            return this.validator.parseDouble("p", this.decimal, 0d);
+        } catch (ParameterException ex) {
+            return ex;
+        }
+    }
+
+    @Benchmark
+    public Object parseDate() {
+        try {
+            return this.validator.parseDate("p", this.dateTime, "yyyy-MM-dd HH:mm:ss");
+        } catch (ParameterException ex) {
+            return ex;
+        }
+    }
+
+    @Benchmark
+    public Object parseLocalDate() {
+        try {
+            return this.validator.parseLocalDate("p", this.dateTime.substring(0, 10), "yyyy-MM-dd");
+        } catch (ParameterException ex) {
+            return ex;
+        }
+    }
+
+    @Benchmark
+    public Object parseLocalDateTime() {
+        try {
+            return this.validator.parseLocalDateTime("p", this.dateTime, "yyyy-MM-dd HH:mm:ss");
+        } catch (ParameterException ex) {
+            return ex;
+        }
+    }
+
+    @Benchmark
+    public Object parseInstant() {
+        try {
+            return this.validator.parseInstant("p", this.dateTime, "yyyy-MM-dd HH:mm:ss");
+        } catch (ParameterException ex) {
+            return ex;
+        }
+    }
+
+    /**
+     * 收集式验证，多个参数中有一个失败
+     */
+    @Benchmark
+    public Object collector() {
+        return this.validator.begin()
+                .required("a", this.object, "参数A")
+                .lengthInRange("b", this.length, 1, 32, "参数B")
+                .isEmail("c", this.email, "参数C")
+                .toException();
+    }
+
+    static String repeat(String text, int count) {
+        StringBuilder buffer = new StringBuilder(text.length() * count);
+        for (int i = 0; i < count; i++) {
+            buffer.append(text);
+        }
+        return buffer.toString();
+    }
+
+}
@@ -0,0 +1,111 @@
+package com.ejobim.spring.benchmark;
+
+import com.alibaba.fastjson.JSON;
+import com.ejobim.spring.ErrorResponses;
+import com.ejobim.spring.ErrorType;
+import com.ejobim.spring.ResponseResult;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 响应结果序列化基准
+ * 测量不同大小返回对象的ResponseResult序列化，以及常量错误响应
+ * @author zch
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResponseResultBenchmark {
+
+    /**
+     * 返回对象列表的元素个数，0表示不带返回对象
+     */
+    @Param({"0", "1", "100", "10000"})
+    public int size;
+
+    private ResponseResult<List<Item>> result;
+
+    private ResponseResult<Map<String, String>> error;
+
+    @Setup
+    public void setup() {
+        List<Item> items = null;
+        if (this.size > 0) {
+            items = new ArrayList<>(this.size);
+            for (int i = 0; i < this.size; i++) {
+                items.add(new Item(i, "名称" + i, i * 1.5));
+            }
+        }
+        this.result = new ResponseResult<>(items);
+        Map<String, String> messages = new LinkedHashMap<>();
+        messages.put("id", "不能为空");
+        messages.put("name", "长度超出范围");
+        this.error = ResponseResult.error(ErrorType.ParameterError, "参数错误");
+        this.error.root = messages;
+    }
+
+    @Benchmark
+    public Object toJSONString() {
+        return JSON.toJSONString(this.result);
+    }
+
+    @Benchmark
+    public Object toJSONBytes() {
+        return JSON.toJSONBytes(this.result);
+    }
+
+    @Benchmark
+    public Object writeJSONString() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+        JSON.writeJSONString(out, this.result);
+        return out;
+    }
+
+    @Benchmark
+    public Object parameterError() {
+        return JSON.toJSONBytes(this.error);
+    }
+
+    @Benchmark
+    public Object constantError() {
+        return ErrorResponses.body(ErrorType.SystemError);
+    }
+
+    /**
+     * 返回对象元素
+     */
+    public static class Item {
+
+        public int id;
+
+        public String name;
+
+        public double price;
+
+        public Item(int id, String name, double price) {
+            this.id = id;
+            this.name = name;
+            this.price = price;
+        }
+
+    }
+
+}
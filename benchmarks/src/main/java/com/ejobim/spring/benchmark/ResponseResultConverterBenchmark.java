@@ -0,0 +1,130 @@
+package com.ejobim.spring.benchmark;
+
+import com.alibaba.fastjson.support.spring.FastJsonHttpMessageConverter;
+import com.ejobim.spring.ErrorType;
+import com.ejobim.spring.ResponseResult;
+import com.ejobim.spring.ResponseResultMessageConverter;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+
+/**
+ * 响应结果转换器基准
+ * 比较ResponseResultMessageConverter与fastjson通用转换器写出同一个ResponseResult，
+ * 输出写入丢弃内容的输出流；加-prof gc运行，gc.alloc.rate.norm为每次写出分配的字节数
+ * @author zch
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ResponseResultConverterBenchmark {
+
+    /**
+     * 返回对象列表的元素个数，0表示不带返回对象
+     */
+    @Param({"0", "1", "100"})
+    public int size;
+
+    private final ResponseResultMessageConverter converter = new ResponseResultMessageConverter();
+
+    private final FastJsonHttpMessageConverter fastJsonConverter = new FastJsonHttpMessageConverter();
+
+    private final DiscardingOutputMessage message = new DiscardingOutputMessage();
+
+    private ResponseResult<List<ResponseResultBenchmark.Item>> result;
+
+    private ResponseResult<?> error;
+
+    @Setup
+    public void setup() {
+        List<ResponseResultBenchmark.Item> items = null;
+        if (this.size > 0) {
+            items = new ArrayList<>(this.size);
+            for (int i = 0; i < this.size; i++) {
+                items.add(new ResponseResultBenchmark.Item(i, "名称" + i, i * 1.5));
+            }
+        }
+        this.result = new ResponseResult<>(items);
+        this.error = ResponseResult.error(ErrorType.RecordNotExists, "记录不存在");
+    }
+
+    @Benchmark
+    public long envelopeConverter() throws Exception {
+        this.converter.write(this.result, MediaType.APPLICATION_JSON, this.message.reset());
+        return this.message.count;
+    }
+
+    @Benchmark
+    public long fastJsonConverter() throws Exception {
+        this.fastJsonConverter.write(this.result, MediaType.APPLICATION_JSON, this.message.reset());
+        return this.message.count;
+    }
+
+    @Benchmark
+    public long envelopeConverterError() throws Exception {
+        this.converter.write(this.error, MediaType.APPLICATION_JSON, this.message.reset());
+        return this.message.count;
+    }
+
+    @Benchmark
+    public long fastJsonConverterError() throws Exception {
+        this.fastJsonConverter.write(this.error, MediaType.APPLICATION_JSON, this.message.reset());
+        return this.message.count;
+    }
+
+    /**
+     * 只统计字节数的输出消息，响应头在每次写出前清空
+     */
+    private static final class DiscardingOutputMessage extends OutputStream implements HttpOutputMessage {
+
+        private final HttpHeaders headers = new HttpHeaders();
+
+        private long count;
+
+        DiscardingOutputMessage reset() {
+            this.headers.clear();
+            this.count = 0;
+            return this;
+        }
+
+        @Override
+        public void write(int b) {
+            this.count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            this.count += len;
+        }
+
+        @Override
+        public OutputStream getBody() {
+            return this;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return this.headers;
+        }
+
+    }
+
+}
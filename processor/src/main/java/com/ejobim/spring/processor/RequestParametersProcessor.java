@@ -0,0 +1,489 @@
+package com.ejobim.spring.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+
+/**
+ * 请求参数绑定生成器
+ * 为标注@RequestParameters的类生成“类名_Binder”，一次读取每个请求参数，解析并按ParameterRules注解验证后赋值，
+ * 错误记录到ParameterCollector，最后汇总为一个参数异常；生成的代码不使用反射
+ * @author zch
+ */
+@SupportedAnnotationTypes(RequestParametersProcessor.REQUEST_PARAMETERS)
+public class RequestParametersProcessor extends AbstractProcessor {
+
+    static final String REQUEST_PARAMETERS = "com.ejobim.spring.RequestParameters";
+
+    private static final String NAME = REQUEST_PARAMETERS + ".Name";
+
+    private static final String DATE_FORMAT = REQUEST_PARAMETERS + ".DateFormat";
+
+    private static final String RULES_PREFIX = "com.ejobim.spring.ParameterRules.";
+
+    private static final String COLLECTOR = "com.ejobim.spring.ParameterCollector";
+
+    /**
+     * 支持的字段类型
+     */
+    private enum Kind {
+        STRING("java.lang.String"),
+        STRING_ARRAY("java.lang.String[]"),
+        INTEGER("java.lang.Integer"),
+        LONG("java.lang.Long"),
+        FLOAT("java.lang.Float"),
+        DOUBLE("java.lang.Double"),
+        BOOLEAN("java.lang.Boolean"),
+        LOCAL_DATE("java.time.LocalDate"),
+        LOCAL_DATE_TIME("java.time.LocalDateTime"),
+        INSTANT("java.time.Instant"),
+        DATE("java.util.Date");
+
+        private final String typeName;
+
+        Kind(String typeName) {
+            this.typeName = typeName;
+        }
+
+        boolean isNumber() {
+            return this == INTEGER || this == LONG || this == FLOAT || this == DOUBLE;
+        }
+
+        boolean isDateTime() {
+            return this == LOCAL_DATE || this == LOCAL_DATE_TIME || this == INSTANT || this == DATE;
+        }
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        TypeElement annotation = this.processingEnv.getElementUtils().getTypeElement(REQUEST_PARAMETERS);
+        if (annotation == null) {
+            return false;
+        }
+        for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+            try {
+                this.generate(this.checkType(element));
+            } catch (InvalidElementException ex) {
+                this.processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, ex.getMessage(), ex.element);
+            } catch (IOException ex) {
+                this.processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Cannot write binder: " + ex.getMessage(), element);
+            }
+        }
+        return false;
+    }
+
+    private TypeElement checkType(Element element) {
+        if (element.getKind() != ElementKind.CLASS || element.getModifiers().contains(Modifier.ABSTRACT)) {
+            throw new InvalidElementException(element, "@RequestParameters requires a concrete class");
+        }
+        TypeElement type = (TypeElement) element;
+        if (type.getNestingKind() == NestingKind.MEMBER && !type.getModifiers().contains(Modifier.STATIC)) {
+            throw new InvalidElementException(element, "@RequestParameters requires a top-level or static nested class");
+        }
+        if (type.getModifiers().contains(Modifier.PRIVATE)) {
+            throw new InvalidElementException(element, "@RequestParameters class must not be private");
+        }
+        boolean constructor = false;
+        for (ExecutableElement method : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            if (method.getParameters().isEmpty() && !method.getModifiers().contains(Modifier.PRIVATE)) {
+                constructor = true;
+            }
+        }
+        if (!constructor) {
+            throw new InvalidElementException(element, "@RequestParameters class needs a non-private no-argument constructor");
+        }
+        return type;
+    }
+
+    private void generate(TypeElement type) throws IOException {
+        PackageElement packageElement = this.processingEnv.getElementUtils().getPackageOf(type);
+        String packageName = packageElement.isUnnamed() ? "" : packageElement.getQualifiedName().toString();
+        String targetName = type.getQualifiedName().toString();
+        String simpleName = packageName.isEmpty() ? targetName : targetName.substring(packageName.length() + 1);
+        String binderName = simpleName.replace('.', '_') + "_Binder";
+        StringBuilder body = new StringBuilder();
+        int index = 0;
+        for (VariableElement field : this.fields(type)) {
+            this.generateField(body, field, index++);
+        }
+        StringBuilder source = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+        String visibility = type.getModifiers().contains(Modifier.PUBLIC) ? "public " : "";
+        source.append("/**\n")
+                .append(" * 请求参数绑定，由RequestParametersProcessor根据").append(simpleName).append("生成，不要修改\n")
+                .append(" */\n")
+                .append(visibility).append("final class ").append(binderName).append(" {\n\n")
+                .append("    private ").append(binderName).append("() {}\n\n")
+                .append("    /**\n")
+                .append("     * 绑定并验证请求参数\n")
+                .append("     * @param request servlet请求\n")
+                .append("     * @param validator 参数验证器\n")
+                .append("     * @return 请求参数对象\n")
+                .append("     * @throws com.ejobim.spring.ParameterException 包含所有错误的参数异常\n")
+                .append("     */\n")
+                .append("    public static ").append(targetName).append(" bind(javax.servlet.http.HttpServletRequest request, com.ejobim.spring.ParameterValidator validator) throws com.ejobim.spring.ParameterException {\n")
+                .append("        ").append(COLLECTOR).append(" collector = validator.begin();\n")
+                .append("        ").append(targetName).append(" target = bind(request, collector);\n")
+                .append("        collector.end();\n")
+                .append("        return target;\n")
+                .append("    }\n\n")
+                .append("    /**\n")
+                .append("     * 绑定并验证请求参数，错误记录到收集器\n")
+                .append("     * @param request servlet请求\n")
+                .append("     * @param collector 参数验证收集器\n")
+                .append("     * @return 请求参数对象，验证失败的字段保持初始值\n")
+                .append("     */\n")
+                .append("    public static ").append(targetName).append(" bind(javax.servlet.http.HttpServletRequest request, ").append(COLLECTOR).append(" collector) {\n")
+                .append("        ").append(targetName).append(" target = new ").append(targetName).append("();\n")
+                .append(body)
+                .append("        return target;\n")
+                .append("    }\n\n")
+                .append("}\n");
+        String qualifiedBinderName = packageName.isEmpty() ? binderName : packageName + "." + binderName;
+        try (Writer writer = this.processingEnv.getFiler().createSourceFile(qualifiedBinderName, type).openWriter()) {
+            writer.write(source.toString());
+        }
+    }
+
+    /**
+     * 类及其父类的实例字段，父类字段在前
+     */
+    private List<VariableElement> fields(TypeElement type) {
+        List<VariableElement> result = new ArrayList<>();
+        TypeMirror superclass = type.getSuperclass();
+        if (superclass.getKind() == TypeKind.DECLARED) {
+            TypeElement parent = (TypeElement) ((DeclaredType) superclass).asElement();
+            if (!parent.getQualifiedName().contentEquals("java.lang.Object")) {
+                result.addAll(this.fields(parent));
+            }
+        }
+        for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+            Set<Modifier> modifiers = field.getModifiers();
+            if (!modifiers.contains(Modifier.STATIC) && !modifiers.contains(Modifier.TRANSIENT)) {
+                result.add(field);
+            }
+        }
+        return result;
+    }
+
+    private void generateField(StringBuilder out, VariableElement field, int index) {
+        Kind kind = this.kind(field);
+        String fieldName = field.getSimpleName().toString();
+        String name = literal(this.stringValue(field, NAME, "value", fieldName));
+        String format = this.stringValue(field, DATE_FORMAT, "value", null);
+        if (kind.isDateTime() && format == null) {
+            throw new InvalidElementException(field, "Date/time parameter needs @RequestParameters.DateFormat");
+        }
+        String text = "text" + index;
+        String value = "value" + index;
+        String boxed = kind == Kind.STRING_ARRAY ? "String[]" : kind.typeName;
+        out.append("        // ").append(fieldName).append("\n");
+        if (kind == Kind.STRING_ARRAY) {
+            out.append("        String[] ").append(value).append(" = request.getParameterValues(").append(name).append(");\n");
+        } else {
+            out.append("        String ").append(text).append(" = request.getParameter(").append(name).append(");\n");
+        }
+        String parse;
+        switch (kind) {
+            case STRING:
+                parse = text;
+                break;
+            case INTEGER:
+                parse = "collector.parseInt(" + name + ", " + text + ")";
+                break;
+            case LONG:
+                parse = "collector.parseLong(" + name + ", " + text + ")";
+                break;
+            case FLOAT:
+                parse = "collector.parseFloat(" + name + ", " + text + ")";
+                break;
+            case DOUBLE:
+                parse = "collector.parseDouble(" + name + ", " + text + ")";
+                break;
+            case BOOLEAN:
+                parse = "collector.parseBoolean(" + name + ", " + text + ")";
+                break;
+            case LOCAL_DATE:
+                parse = "collector.parseLocalDate(" + name + ", " + text + ", " + literal(format) + ")";
+                break;
+            case LOCAL_DATE_TIME:
+                parse = "collector.parseLocalDateTime(" + name + ", " + text + ", " + literal(format) + ")";
+                break;
+            case INSTANT:
+                parse = "collector.parseInstant(" + name + ", " + text + ", " + literal(format) + ")";
+                break;
+            case DATE:
+                parse = "collector.parseDate(" + name + ", " + text + ", " + literal(format) + ")";
+                break;
+            default:
+                parse = null;
+        }
+        boolean parsing = kind.isNumber() || kind.isDateTime() || kind == Kind.BOOLEAN;
+        String errors = "errors" + index;
+        if (parsing) {
+            out.append("        int ").append(errors).append(" = collector.getErrorCount();\n");
+        }
+        if (parse != null) {
+            out.append("        ").append(boxed).append(" ").append(value).append(" = ").append(parse).append(";\n");
+        }
+        String indent = "        ";
+        if (parsing) {
+            // 解析失败时不再验证
+            out.append("        if (collector.getErrorCount() == ").append(errors).append(") {\n");
+            indent = "            ";
+        }
+        for (AnnotationMirror mirror : field.getAnnotationMirrors()) {
+            String annotationName = ((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().toString();
+            if (annotationName.startsWith(RULES_PREFIX)) {
+                String call = this.rule(field, kind, annotationName.substring(RULES_PREFIX.length()), mirror, name, value);
+                out.append(indent).append(call).append(";\n");
+            }
+        }
+        out.append(indent).append("if (").append(value).append(" != null) {\n");
+        out.append(indent).append("    ").append(this.assignment(field, value)).append(";\n");
+        out.append(indent).append("}\n");
+        if (parsing) {
+            out.append("        }\n");
+        }
+    }
+
+    private String rule(VariableElement field, Kind kind, String rule, AnnotationMirror mirror, String name, String value) {
+        Map<? extends ExecutableElement, ? extends AnnotationValue> values = this.processingEnv.getElementUtils().getElementValuesWithDefaults(mirror);
+        // Sort没有desc属性
+        String desc = rule.equals("Sort") ? null : literal((String) this.attribute(values, "desc"));
+        switch (rule) {
+            case "Required":
+                return "collector.required(" + name + ", " + value + ", " + desc + ")";
+            case "InRange":
+                if (!kind.isNumber() && kind != Kind.STRING) {
+                    throw new InvalidElementException(field, "@InRange requires a number or String parameter");
+                }
+                String min = bound(field, kind, (String) this.attribute(values, "min"));
+                String max = bound(field, kind, (String) this.attribute(values, "max"));
+                return "collector.inRange(" + name + ", " + value + ", " + min + ", " + max + ", " + desc + ")";
+            default:
+                break;
+        }
+        if (kind != Kind.STRING) {
+            throw new InvalidElementException(field, "@" + rule + " requires a String parameter");
+        }
+        switch (rule) {
+            case "NotEmpty":
+                return "collector.notEmpty(" + name + ", " + value + ", " + desc + ")";
+            case "NotBlank":
+                return "collector.notBlank(" + name + ", " + value + ", " + desc + ")";
+            case "LengthInRange":
+                int minLength = (Integer) this.attribute(values, "min");
+                int maxLength = (Integer) this.attribute(values, "max");
+                return "collector.lengthInRange(" + name + ", " + value + ", "
+                        + (minLength < 0 ? "null" : String.valueOf(minLength)) + ", "
+                        + (maxLength < 0 ? "null" : String.valueOf(maxLength)) + ", " + desc + ")";
+            case "Matched":
+                String pattern = (String) this.attribute(values, "pattern");
+                try {
+                    java.util.regex.Pattern.compile(pattern);
+                } catch (IllegalArgumentException ex) {
+                    throw new InvalidElementException(field, "Invalid @Matched pattern: " + ex.getMessage());
+                }
+                return "collector.matched(" + name + ", " + value + ", " + literal(pattern) + ", " + desc + ")";
+            case "Email":
+                return "collector.isEmail(" + name + ", " + value + ", " + desc + ")";
+            case "IPv4":
+                return "collector.isIPv4(" + name + ", " + value + ", " + desc + ")";
+            case "Domain":
+                return "collector.isDomain(" + name + ", " + value + ", " + desc + ")";
+            case "Host":
+                return "collector.isHost(" + name + ", " + value + ", " + desc + ")";
+            case "Mobile":
+                return "collector.isMobile(" + name + ", " + value + ", " + desc + ")";
+            case "HtmlColor":
+                return "collector.isHtmlColor(" + name + ", " + value + ", " + desc + ")";
+            case "Sort":
+                StringBuilder call = new StringBuilder("collector.isSort(").append(name).append(", ").append(value);
+                for (Object property : (List<?>) this.attribute(values, "value")) {
+                    call.append(", ").append(literal((String) ((AnnotationValue) property).getValue()));
+                }
+                return call.append(")").toString();
+            default:
+                throw new InvalidElementException(field, "Unsupported rule @" + rule);
+        }
+    }
+
+    /**
+     * 范围值字面量，编译时检查格式，浮点数范围必须是有限值（NaN、Infinity及溢出的值不能生成字面量）
+     */
+    private static String bound(VariableElement field, Kind kind, String text) {
+        if (text.isEmpty()) {
+            return "(" + kind.typeName + ") null";
+        }
+        try {
+            switch (kind) {
+                case INTEGER:
+                    return "Integer.valueOf(" + Integer.parseInt(text) + ")";
+                case LONG:
+                    return "Long.valueOf(" + Long.parseLong(text) + "L)";
+                case FLOAT:
+                    float floatBound = Float.parseFloat(text);
+                    if (Float.isNaN(floatBound) || Float.isInfinite(floatBound)) {
+                        throw new InvalidElementException(field, "@InRange bound must be a finite float: " + text);
+                    }
+                    return "Float.valueOf(" + floatBound + "f)";
+                case DOUBLE:
+                    double doubleBound = Double.parseDouble(text);
+                    if (Double.isNaN(doubleBound) || Double.isInfinite(doubleBound)) {
+                        throw new InvalidElementException(field, "@InRange bound must be a finite double: " + text);
+                    }
+                    return "Double.valueOf(" + doubleBound + "d)";
+                default:
+                    return literal(text);
+            }
+        } catch (NumberFormatException ex) {
+            throw new InvalidElementException(field, "Invalid @InRange bound: " + text);
+        }
+    }
+
+    private Kind kind(VariableElement field) {
+        TypeMirror type = field.asType();
+        switch (type.getKind()) {
+            case INT:
+                return Kind.INTEGER;
+            case LONG:
+                return Kind.LONG;
+            case FLOAT:
+                return Kind.FLOAT;
+            case DOUBLE:
+                return Kind.DOUBLE;
+            case BOOLEAN:
+                return Kind.BOOLEAN;
+            case ARRAY:
+                if (((ArrayType) type).getComponentType().toString().equals("java.lang.String")) {
+                    return Kind.STRING_ARRAY;
+                }
+                break;
+            case DECLARED:
+                String typeName = ((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName().toString();
+                for (Kind kind : Kind.values()) {
+                    if (kind.typeName.equals(typeName)) {
+                        return kind;
+                    }
+                }
+                break;
+            default:
+                break;
+        }
+        throw new InvalidElementException(field, "Unsupported request parameter type " + type + " (mark it transient to skip)");
+    }
+
+    private String assignment(VariableElement field, String value) {
+        String fieldName = field.getSimpleName().toString();
+        if (!field.getModifiers().contains(Modifier.PRIVATE)) {
+            return "target." + fieldName + " = " + value;
+        }
+        String setter = "set" + Character.toUpperCase(fieldName.charAt(0)) + fieldName.substring(1);
+        TypeElement owner = (TypeElement) field.getEnclosingElement();
+        for (ExecutableElement method : ElementFilter.methodsIn(owner.getEnclosedElements())) {
+            if (method.getSimpleName().contentEquals(setter) && method.getParameters().size() == 1
+                    && !method.getModifiers().contains(Modifier.PRIVATE) && !method.getModifiers().contains(Modifier.STATIC)) {
+                return "target." + setter + "(" + value + ")";
+            }
+        }
+        throw new InvalidElementException(field, "Private request parameter field needs a non-private " + setter + " method");
+    }
+
+    private String stringValue(Element element, String annotationName, String attribute, String defaultValue) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(annotationName)) {
+                return (String) this.attribute(this.processingEnv.getElementUtils().getElementValuesWithDefaults(mirror), attribute);
+            }
+        }
+        return defaultValue;
+    }
+
+    private Object attribute(Map<? extends ExecutableElement, ? extends AnnotationValue> values, String name) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : values.entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals(name)) {
+                return entry.getValue().getValue();
+            }
+        }
+        throw new IllegalStateException("Missing annotation attribute " + name);
+    }
+
+    /**
+     * Java字符串字面量，非ASCII字符转义为\\uXXXX
+     */
+    static String literal(String text) {
+        StringBuilder buffer = new StringBuilder(text.length() + 2).append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '"':
+                    buffer.append("\\\"");
+                    break;
+                case '\\':
+                    buffer.append("\\\\");
+                    break;
+                case '\n':
+                    buffer.append("\\n");
+                    break;
+                case '\r':
+                    buffer.append("\\r");
+                    break;
+                case '\t':
+                    buffer.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20 || c > 0x7e) {
+                        buffer.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        buffer.append(c);
+                    }
+            }
+        }
+        return buffer.append('"').toString();
+    }
+
+    /**
+     * 注解使用不正确
+     */
+    private static class InvalidElementException extends RuntimeException {
+
+        private final transient Element element;
+
+        InvalidElementException(Element element, String message) {
+            super(message);
+            this.element = element;
+        }
+
+    }
+
+}
@@ -0,0 +1,20 @@
+package com.ejobim.spring.reactive;
+
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+
+/**
+ * WebFlux编解码配置
+ * 注册ResponseResultEncoder，排在默认的Jackson编码器之前，使ResponseResult的输出与Spring MVC中相同
+ * @author zch
+ */
+@Component
+public class ReactiveCodecConfigurer implements WebFluxConfigurer {
+
+    @Override
+    public void configureHttpMessageCodecs(ServerCodecConfigurer configurer) {
+        configurer.customCodecs().encoder(new ResponseResultEncoder());
+    }
+
+}
@@ -0,0 +1,122 @@
+package com.ejobim.spring.reactive;
+
+import com.alibaba.fastjson.JSON;
+import com.ejobim.spring.ErrorResponses;
+import com.ejobim.spring.ErrorType;
+import com.ejobim.spring.ResponseResult;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import reactor.core.publisher.Mono;
+
+/**
+ * WebFlux常量错误响应，与ErrorResponses对应
+ * 使用ErrorResponses预先序列化的字节；在Netty上运行时，每种错误类型的响应预先复制到一个不释放的直接内存缓冲区，
+ * 写出时只创建共享内容的视图，不再复制
+ * @author zch
+ */
+public final class ReactiveErrorResponses {
+
+    private static final Map<ErrorType, ByteBuf> DIRECT_BODIES = new EnumMap<>(ErrorType.class);
+
+    private static final Map<ErrorType, ByteBuf> DIRECT_ROOT_PREFIXES = new EnumMap<>(ErrorType.class);
+
+    private static final ByteBuf DIRECT_ROOT_SUFFIX = direct(ErrorResponses.rootSuffix());
+
+    static {
+        for (ErrorType errorType : ErrorType.values()) {
+            DIRECT_BODIES.put(errorType, direct(ErrorResponses.body(errorType)));
+            DIRECT_ROOT_PREFIXES.put(errorType, direct(ErrorResponses.rootPrefix(errorType)));
+        }
+    }
+
+    /**
+     * 写出常量错误响应
+     * @param response 响应
+     * @param errorType 错误类型
+     * @return 写出完成
+     */
+    public static Mono<Void> write(ServerHttpResponse response, ErrorType errorType) {
+        DataBufferFactory factory = response.bufferFactory();
+        DataBuffer buffer;
+        if (factory instanceof NettyDataBufferFactory) {
+            buffer = ((NettyDataBufferFactory) factory).wrap(DIRECT_BODIES.get(errorType).duplicate());
+        } else {
+            buffer = factory.wrap(ErrorResponses.body(errorType));
+        }
+        return write(response, buffer);
+    }
+
+    /**
+     * 写出带返回对象的错误响应，只有返回对象需要序列化
+     * @param response 响应
+     * @param errorType 错误类型
+     * @param root 返回对象，为null时与不带返回对象相同
+     * @return 写出完成
+     */
+    public static Mono<Void> write(ServerHttpResponse response, ErrorType errorType, Object root) {
+        if (root == null) {
+            return write(response, errorType);
+        }
+        byte[] value = JSON.toJSONBytes(root);
+        DataBufferFactory factory = response.bufferFactory();
+        DataBuffer buffer;
+        if (factory instanceof NettyDataBufferFactory) {
+            // 组合缓冲区，前后缀共享常量内容
+            ByteBuf composite = Unpooled.wrappedBuffer(DIRECT_ROOT_PREFIXES.get(errorType).duplicate(),
+                    Unpooled.wrappedBuffer(value), DIRECT_ROOT_SUFFIX.duplicate());
+            buffer = ((NettyDataBufferFactory) factory).wrap(composite);
+        } else {
+            byte[] prefix = ErrorResponses.rootPrefix(errorType);
+            byte[] suffix = ErrorResponses.rootSuffix();
+            buffer = factory.allocateBuffer(prefix.length + value.length + suffix.length);
+            buffer.write(prefix).write(value).write(suffix);
+        }
+        return write(response, buffer);
+    }
+
+    /**
+     * 写出响应结果，直接序列化到响应缓冲区
+     * @param response 响应
+     * @param result 响应结果
+     * @return 写出完成
+     */
+    public static Mono<Void> write(ServerHttpResponse response, ResponseResult result) {
+        DataBuffer buffer = response.bufferFactory().allocateBuffer();
+        try {
+            JSON.writeJSONString(buffer.asOutputStream(), result);
+        } catch (IOException | RuntimeException ex) {
+            DataBufferUtils.release(buffer);
+            return Mono.error(ex);
+        }
+        return write(response, buffer);
+    }
+
+    /**
+     * 写出已序列化的响应
+     * @param response 响应
+     * @param buffer 响应内容
+     * @return 写出完成
+     */
+    static Mono<Void> write(ServerHttpResponse response, DataBuffer buffer) {
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON_UTF8);
+        response.getHeaders().setContentLength(buffer.readableByteCount());
+        return response.writeWith(Mono.just(buffer));
+    }
+
+    private static ByteBuf direct(byte[] bytes) {
+        ByteBuf buffer = Unpooled.directBuffer(bytes.length, bytes.length).writeBytes(bytes);
+        return Unpooled.unreleasableBuffer(buffer.asReadOnly());
+    }
+
+    private ReactiveErrorResponses() {}
+
+}
@@ -0,0 +1,125 @@
+package com.ejobim.spring.reactive;
+
+import com.ejobim.spring.BusinessException;
+import com.ejobim.spring.ErrorLogThrottle;
+import com.ejobim.spring.ErrorMetrics;
+import com.ejobim.spring.ErrorType;
+import com.ejobim.spring.ParameterException;
+import com.ejobim.spring.ResponseResult;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.ServerWebInputException;
+import org.springframework.web.server.WebExceptionHandler;
+import reactor.core.publisher.Mono;
+
+/**
+ * WebFlux异常处理，与ExceptionHandlerAdvice、CustomErrorController对应，输出相同的错误响应
+ * 业务异常、参数异常输出对应的错误响应；请求参数无法解析或绑定（ServerWebInputException）输出参数错误；
+ * 其他带状态码的异常（如找不到处理器）输出错误请求；其他异常记录日志并输出系统错误
+ * 日志按异常种类限流，请求信息在事件循环线程中按长度上限格式化，输出日志交给后台线程，队列满时丢弃
+ * 使用时扫描com.ejobim.spring.reactive包（不要扫描com.ejobim.spring包中的Servlet组件）
+ * @author zch
+ */
+@Component
+@Order(-2)
+@Slf4j
+public class ReactiveExceptionHandler implements WebExceptionHandler, DisposableBean {
+
+    private final ErrorLogThrottle throttle;
+
+    private final int maxInfoLength;
+
+    private final ThreadPoolExecutor logExecutor;
+
+    private final ErrorMetrics metrics;
+
+    /**
+     * 构造函数
+     * @param burst 每个时间窗口内同一种异常完整记录日志的次数
+     * @param windowSeconds 时间窗口长度（秒）
+     * @param maxSignatures 分别计数的异常种类上限
+     * @param maxInfoLength 日志中请求参数、请求头各自的长度上限
+     * @param bufferSize 待输出日志的队列大小
+     * @param metricsEnabled 没有ErrorMetrics组件时，是否启用错误统计
+     * @param metrics 错误统计
+     */
+    public ReactiveExceptionHandler(@Value("${ejobim.error-log.burst:5}") int burst,
+            @Value("${ejobim.error-log.window-seconds:60}") long windowSeconds,
+            @Value("${ejobim.error-log.max-signatures:1024}") int maxSignatures,
+            @Value("${ejobim.error-log.max-info-length:8192}") int maxInfoLength,
+            @Value("${ejobim.error-log.buffer-size:1024}") int bufferSize,
+            @Value("${ejobim.metrics.enabled:false}") boolean metricsEnabled,
+            ObjectProvider<ErrorMetrics> metrics) {
+        this.throttle = new ErrorLogThrottle(burst, windowSeconds, maxSignatures);
+        this.maxInfoLength = maxInfoLength;
+        this.logExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS, new ArrayBlockingQueue<>(bufferSize), runnable -> {
+            Thread thread = new Thread(runnable, "ejobim-error-log");
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.DiscardPolicy());
+        this.metrics = metrics.getIfAvailable(() -> new ErrorMetrics(metricsEnabled));
+    }
+
+    @Override
+    public Mono<Void> handle(ServerWebExchange exchange, Throwable ex) {
+        ServerHttpResponse response = exchange.getResponse();
+        if (response.isCommitted()) {
+            return Mono.error(ex);
+        }
+        long start = this.metrics.start();
+        response.setStatusCode(HttpStatus.OK);
+        ErrorType errorType;
+        Mono<Void> result;
+        if (ex instanceof ParameterException) {
+            ParameterException parameterException = (ParameterException) ex;
+            errorType = ErrorType.ParameterError;
+            // 参数异常的错误消息与错误类型描述相同，只需要序列化返回对象
+            result = ReactiveErrorResponses.write(response, errorType, parameterException.getErrorMessages());
+            this.metrics.recordParameters(parameterException);
+        } else if (ex instanceof BusinessException) {
+            BusinessException businessException = (BusinessException) ex;
+            errorType = businessException.getErrorType();
+            result = ReactiveErrorResponses.write(response, ResponseResult.error(errorType, businessException.getMessage()));
+        } else if (ex instanceof ServerWebInputException) {
+            errorType = ErrorType.ParameterError;
+            result = ReactiveErrorResponses.write(response, errorType, ((ServerWebInputException) ex).getReason());
+        } else if (ex instanceof ResponseStatusException) {
+            errorType = ErrorType.BadRequest;
+            result = ReactiveErrorResponses.write(response, errorType);
+        } else {
+            this.logError(exchange, ex);
+            errorType = ErrorType.SystemError;
+            result = ReactiveErrorResponses.write(response, errorType);
+        }
+        this.metrics.record(errorType, start);
+        return result;
+    }
+
+    private void logError(ServerWebExchange exchange, Throwable ex) {
+        // 同一种异常超出限流次数时只计数，不格式化请求信息
+        if (!log.isErrorEnabled() || !this.throttle.tryAcquire(ex)) {
+            return;
+        }
+        // getInfo只读取请求行、请求头和缓存的本机地址，不会阻塞事件循环线程
+        String info = ex.getMessage() + "\n" + ServerRequestUtils.getInfo(exchange.getRequest(), this.maxInfoLength);
+        this.logExecutor.execute(() -> log.error(info, ex));
+    }
+
+    @Override
+    public void destroy() {
+        this.throttle.close();
+        this.logExecutor.shutdown();
+    }
+
+}
@@ -0,0 +1,81 @@
+package com.ejobim.spring.reactive;
+
+import com.alibaba.fastjson.JSON;
+import com.ejobim.spring.ResponseResult;
+import com.ejobim.spring.StreamingResponseResult;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.AbstractEncoder;
+import org.springframework.core.codec.EncodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.MediaType;
+import org.springframework.util.MimeType;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * 响应结果编码器
+ * 用fastjson序列化ResponseResult，输出与Spring MVC中相同（字段按名称排序，不输出null），
+ * 直接写入响应缓冲区（Netty上为池化的直接内存），不经过中间字节数组
+ * Flux编码为JSON数组；StreamingResponseResult的迭代器是阻塞的，不在此编码
+ * @author zch
+ */
+public class ResponseResultEncoder extends AbstractEncoder<ResponseResult> {
+
+    private static final byte[] ARRAY_START = "[".getBytes(StandardCharsets.UTF_8);
+
+    private static final byte[] ARRAY_SEPARATOR = ",".getBytes(StandardCharsets.UTF_8);
+
+    private static final byte[] ARRAY_END = "]".getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * 构造函数
+     */
+    public ResponseResultEncoder() {
+        super(MediaType.APPLICATION_JSON, new MediaType("application", "*+json"));
+    }
+
+    @Override
+    public boolean canEncode(ResolvableType elementType, MimeType mimeType) {
+        Class<?> type = elementType.resolve(Object.class);
+        return ResponseResult.class.isAssignableFrom(type)
+                && !StreamingResponseResult.class.isAssignableFrom(type)
+                && super.canEncode(elementType, mimeType);
+    }
+
+    @Override
+    public Flux<DataBuffer> encode(Publisher<? extends ResponseResult> inputStream, DataBufferFactory bufferFactory,
+            ResolvableType elementType, MimeType mimeType, Map<String, Object> hints) {
+        if (inputStream instanceof Mono) {
+            return Mono.from(inputStream).map(value -> this.encodeValue(value, bufferFactory)).flux();
+        }
+        Flux<DataBuffer> elements = Flux.from(inputStream).index().concatMap(indexed -> {
+            DataBuffer buffer = this.encodeValue(indexed.getT2(), bufferFactory);
+            return indexed.getT1() == 0 ? Mono.just(buffer) : Flux.just(bufferFactory.wrap(ARRAY_SEPARATOR), buffer);
+        });
+        return Flux.concat(Mono.fromCallable(() -> bufferFactory.wrap(ARRAY_START)), elements,
+                Mono.fromCallable(() -> bufferFactory.wrap(ARRAY_END)));
+    }
+
+    private DataBuffer encodeValue(ResponseResult value, DataBufferFactory bufferFactory) {
+        DataBuffer buffer = bufferFactory.allocateBuffer();
+        boolean release = true;
+        try {
+            JSON.writeJSONString(buffer.asOutputStream(), value);
+            release = false;
+            return buffer;
+        } catch (IOException ex) {
+            throw new EncodingException("Could not write ResponseResult: " + ex.getMessage(), ex);
+        } finally {
+            if (release) {
+                DataBufferUtils.release(buffer);
+            }
+        }
+    }
+
+}
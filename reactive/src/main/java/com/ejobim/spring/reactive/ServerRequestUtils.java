@@ -0,0 +1,114 @@
+package com.ejobim.spring.reactive;
+
+import com.ejobim.spring.ServletUtils;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.Map;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+
+/**
+ * WebFlux请求工具类，与ServletUtils对应
+ * 只读取已经解析的请求行和请求头，不读取请求体，可以在事件循环线程中调用
+ * @author zch
+ */
+public class ServerRequestUtils {
+
+    /**
+     * 获取实际IP，规则与ServletUtils.getRealIP相同（包括可信代理设置）
+     * 回环地址替换为本机地址时只读取缓存，本机地址由ServletUtils在后台线程中解析，不会在事件循环线程中进行DNS查询
+     * @param request 请求
+     * @return
+     */
+    public static String getRealIP(ServerHttpRequest request) {
+        return ServletUtils.getRealIP(getRemoteAddress(request), request.getHeaders()::getFirst);
+    }
+
+    /**
+     * 获取直接连接方地址，格式与Servlet的getRemoteAddr相同
+     * @param request 请求
+     * @return 地址，未知时返回null
+     */
+    public static String getRemoteAddress(ServerHttpRequest request) {
+        InetSocketAddress address = request.getRemoteAddress();
+        if (address == null) {
+            return null;
+        }
+        InetAddress inetAddress = address.getAddress();
+        return inetAddress == null ? address.getHostString() : inetAddress.getHostAddress();
+    }
+
+    /**
+     * 获取格式化请求信息
+     * @param request 请求
+     * @return
+     */
+    public static String getInfo(ServerHttpRequest request) {
+        return getInfo(request, Integer.MAX_VALUE);
+    }
+
+    /**
+     * 获取格式化请求信息，格式与ServletUtils.getInfo相同，参数部分只包括查询参数
+     * @param request 请求
+     * @param maxLength 参数部分（含URL、METHOD）和请求头部分各自的长度上限，达到后截断当前的值并不再追加，以...结尾
+     * @return
+     */
+    public static String getInfo(ServerHttpRequest request, int maxLength) {
+        StringBuilder buffer = new StringBuilder();
+        buffer.append("URL:");
+        String url = request.getURI().toString();
+        int query = url.indexOf('?');
+        boolean fits = append(buffer, query < 0 ? url : url.substring(0, query), maxLength);
+        buffer.append("\nMETHOD:");
+        fits = fits && append(buffer, request.getMethodValue(), maxLength);
+        buffer.append("\nPARAM:");
+        int i = 0;
+        for (Map.Entry<String, List<String>> entry : request.getQueryParams().entrySet()) {
+            fits = fits && (i++ == 0 || append(buffer, "&", maxLength)) && append(buffer, entry.getKey(), maxLength)
+                    && append(buffer, "=", maxLength);
+            List<String> values = entry.getValue();
+            for (int j = 0; fits && j < values.size(); j++) {
+                fits = (j == 0 || append(buffer, ",", maxLength)) && append(buffer, values.get(j), maxLength);
+            }
+            if (!fits) {
+                break;
+            }
+        }
+        buffer.append("\nHEADER:");
+        long limit = (long) buffer.length() + maxLength;
+        fits = true;
+        i = 0;
+        for (Map.Entry<String, List<String>> entry : request.getHeaders().entrySet()) {
+            List<String> values = entry.getValue();
+            fits = (i++ == 0 || append(buffer, "&", limit)) && append(buffer, entry.getKey(), limit)
+                    && append(buffer, "=", limit) && append(buffer, values.isEmpty() ? null : values.get(0), limit);
+            if (!fits) {
+                break;
+            }
+        }
+        buffer.append("\nIP:");
+        buffer.append(getRealIP(request));
+        return buffer.toString();
+    }
+
+    /**
+     * 在不超过长度上限的范围内追加，超出时截断该值并以...结尾
+     * @param buffer 缓冲区
+     * @param value 值，null按"null"追加
+     * @param limit 缓冲区长度上限
+     * @return 是否完整追加，为false时不应继续追加
+     */
+    private static boolean append(StringBuilder buffer, String value, long limit) {
+        if (value == null) {
+            value = "null";
+        }
+        long remaining = limit - buffer.length();
+        if (value.length() <= remaining) {
+            buffer.append(value);
+            return true;
+        }
+        buffer.append(value, 0, (int) Math.max(0, remaining)).append("...");
+        return false;
+    }
+
+}
@@ -0,0 +1,324 @@
+package com.ejobim.spring;
+
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import javax.servlet.http.HttpServletRequest;
+import lombok.NonNull;
+import org.slf4j.Logger;
+
+/**
+ * 异步错误日志
+ * 请求线程只把请求信息（ServletUtils.getInfo使用的字段）复制到预先分配的环形缓冲区的槽位中，
+ * 由后台线程格式化并输出日志；缓冲区满时丢弃并计数，请求线程不会阻塞
+ * 缓冲区是多生产者单消费者的有界队列，每个槽位带序号，生产者通过CAS占用槽位
+ * @author zch
+ */
+public class AsyncErrorLogger implements AutoCloseable {
+
+    /**
+     * 空闲时消费线程的最长等待时间（毫秒）
+     */
+    private static final long IDLE_PARK_MILLIS = 100;
+
+    private final Logger logger;
+
+    private final int maxInfoLength;
+
+    private final Snapshot[] slots;
+
+    /**
+     * 槽位序号，等于写入位置时可写，等于写入位置+1时可读
+     */
+    private final AtomicLongArray sequences;
+
+    private final int mask;
+
+    private final AtomicLong tail = new AtomicLong();
+
+    private long head = 0;
+
+    private final LongAdder dropped = new LongAdder();
+
+    private long reportedDropped = 0;
+
+    private final Thread consumer;
+
+    private volatile boolean running = true;
+
+    /**
+     * 构造函数
+     * @param logger 输出日志的记录器
+     * @param bufferSize 缓冲区槽位数，向上取整为2的幂
+     * @param maxEntries 每个请求复制的参数、请求头各自的数量上限
+     * @param maxInfoLength 日志中请求参数、请求头各自的长度上限，复制时即按此截断，槽位不会保留完整的大参数值
+     */
+    public AsyncErrorLogger(@NonNull Logger logger, int bufferSize, int maxEntries, int maxInfoLength) {
+        if (bufferSize <= 0 || bufferSize > (1 << 30) || maxEntries < 0) {
+            throw new IllegalArgumentException("Invalid buffer settings");
+        }
+        this.logger = logger;
+        this.maxInfoLength = maxInfoLength;
+        int capacity = Integer.highestOneBit(bufferSize);
+        if (capacity < bufferSize) {
+            capacity <<= 1;
+        }
+        this.slots = new Snapshot[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            this.slots[i] = new Snapshot(maxEntries);
+            this.sequences.set(i, i);
+        }
+        this.mask = capacity - 1;
+        this.consumer = new Thread(this::consume, "ejobim-error-log");
+        this.consumer.setDaemon(true);
+        this.consumer.start();
+    }
+
+    /**
+     * 复制请求信息并提交，缓冲区满时丢弃
+     * 只能在请求处理线程中调用，返回后不再访问请求
+     * @param request servlet请求
+     * @param ex 异常
+     * @return 是否已提交
+     */
+    public boolean submit(@NonNull HttpServletRequest request, @NonNull Throwable ex) {
+        long position;
+        int index;
+        while (true) {
+            position = this.tail.get();
+            index = (int) position & this.mask;
+            long difference = this.sequences.get(index) - position;
+            if (difference == 0) {
+                if (this.tail.compareAndSet(position, position + 1)) {
+                    break;
+                }
+            } else if (difference < 0) {
+                this.dropped.increment();
+                return false;
+            }
+        }
+        this.slots[index].capture(request, ex, this.maxInfoLength);
+        this.sequences.lazySet(index, position + 1);
+        LockSupport.unpark(this.consumer);
+        return true;
+    }
+
+    /**
+     * 获取因缓冲区满丢弃的数量
+     * @return 丢弃数量
+     */
+    public long getDroppedCount() {
+        return this.dropped.sum();
+    }
+
+    private void consume() {
+        StringBuilder buffer = new StringBuilder(1024);
+        while (this.running || this.sequences.get((int) this.head & this.mask) == this.head + 1) {
+            int index = (int) this.head & this.mask;
+            if (this.sequences.get(index) != this.head + 1) {
+                this.reportDropped();
+                LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(IDLE_PARK_MILLIS));
+                continue;
+            }
+            Snapshot snapshot = this.slots[index];
+            Throwable ex = snapshot.exception;
+            buffer.setLength(0);
+            snapshot.format(buffer, this.maxInfoLength);
+            snapshot.clear();
+            this.sequences.lazySet(index, this.head + this.mask + 1);
+            this.head++;
+            try {
+                this.logger.error(buffer.toString(), ex);
+            } catch (RuntimeException logError) {
+                // 日志输出失败不能终止消费线程
+            }
+        }
+    }
+
+    private void reportDropped() {
+        long total = this.dropped.sum();
+        if (total > this.reportedDropped) {
+            this.logger.error("Dropped {} error log records because the buffer was full", total - this.reportedDropped);
+            this.reportedDropped = total;
+        }
+    }
+
+    /**
+     * 输出已提交的记录后停止消费线程
+     */
+    @Override
+    public void close() {
+        this.running = false;
+        LockSupport.unpark(this.consumer);
+    }
+
+    /**
+     * 请求信息快照，槽位复用，数组按上限预先分配
+     * 参数部分（含URL、METHOD）和请求头部分各自只复制长度上限以内的内容，超出部分多保留一个字符，格式化时据此输出...
+     */
+    private static final class Snapshot {
+
+        private Throwable exception;
+
+        private String url;
+
+        private String method;
+
+        private final String[] paramNames;
+
+        private final String[][] paramValues;
+
+        private int paramCount;
+
+        private boolean paramTruncated;
+
+        private final String[] headerNames;
+
+        private final String[] headerValues;
+
+        private int headerCount;
+
+        private boolean headerTruncated;
+
+        private String ip;
+
+        Snapshot(int maxEntries) {
+            this.paramNames = new String[maxEntries];
+            this.paramValues = new String[maxEntries][];
+            this.headerNames = new String[maxEntries];
+            this.headerValues = new String[maxEntries];
+        }
+
+        void capture(HttpServletRequest request, Throwable ex, int maxLength) {
+            this.exception = ex;
+            long remaining = maxLength;
+            this.url = truncate(request.getRequestURL(), remaining);
+            remaining -= length(this.url);
+            this.method = truncate(request.getMethod(), remaining);
+            remaining -= length(this.method);
+            Enumeration<String> names = request.getParameterNames();
+            int count = 0;
+            // 与format相同的顺序扣除长度（含分隔符），超出上限后不再复制
+            while (remaining >= 0 && names.hasMoreElements() && count < this.paramNames.length) {
+                String name = names.nextElement();
+                remaining -= count == 0 ? 0 : 1;
+                this.paramNames[count] = truncate(name, remaining);
+                remaining -= length(this.paramNames[count]) + 1;
+                String[] values = request.getParameterValues(name);
+                if (values != null) {
+                    String[] copy = new String[values.length];
+                    int copied = 0;
+                    while (remaining >= 0 && copied < values.length) {
+                        remaining -= copied == 0 ? 0 : 1;
+                        copy[copied] = truncate(values[copied], remaining);
+                        remaining -= length(copy[copied]);
+                        copied++;
+                    }
+                    values = copied == copy.length ? copy : Arrays.copyOf(copy, copied);
+                }
+                this.paramValues[count] = values;
+                count++;
+            }
+            this.paramCount = count;
+            this.paramTruncated = names.hasMoreElements();
+            Enumeration<String> keys = request.getHeaderNames();
+            remaining = maxLength;
+            count = 0;
+            while (remaining >= 0 && keys.hasMoreElements() && count < this.headerNames.length) {
+                String key = keys.nextElement();
+                remaining -= count == 0 ? 0 : 1;
+                this.headerNames[count] = truncate(key, remaining);
+                remaining -= length(this.headerNames[count]) + 1;
+                this.headerValues[count] = truncate(request.getHeader(key), remaining);
+                remaining -= length(this.headerValues[count]);
+                count++;
+            }
+            this.headerCount = count;
+            this.headerTruncated = keys.hasMoreElements();
+            this.ip = ServletUtils.getRealIP(request);
+        }
+
+        /**
+         * 复制不超过剩余长度的内容，超出时多保留一个字符
+         */
+        private static String truncate(CharSequence value, long remaining) {
+            if (value == null) {
+                return null;
+            }
+            long keep = Math.max(0, remaining) + 1;
+            return value.length() <= keep ? value.toString() : value.subSequence(0, (int) keep).toString();
+        }
+
+        /**
+         * 格式化时的长度，null按"null"输出
+         */
+        private static int length(String value) {
+            return value == null ? 4 : value.length();
+        }
+
+        /**
+         * 按ServletUtils.getInfo的格式输出
+         */
+        void format(StringBuilder buffer, int maxLength) {
+            buffer.append(this.exception.getMessage());
+            buffer.append("\n");
+            long limit = (long) buffer.length() + maxLength;
+            buffer.append("URL:");
+            boolean fits = ServletUtils.appendLimited(buffer, this.url, limit);
+            buffer.append("\nMETHOD:");
+            fits = fits && ServletUtils.appendLimited(buffer, this.method, limit);
+            buffer.append("\nPARAM:");
+            for (int i = 0; fits && i < this.paramCount; i++) {
+                fits = (i == 0 || ServletUtils.appendLimited(buffer, "&", limit))
+                        && ServletUtils.appendLimited(buffer, this.paramNames[i], limit)
+                        && ServletUtils.appendLimited(buffer, "=", limit);
+                String[] values = this.paramValues[i];
+                for (int j = 0; fits && values != null && j < values.length; j++) {
+                    fits = (j == 0 || ServletUtils.appendLimited(buffer, ",", limit))
+                            && ServletUtils.appendLimited(buffer, values[j], limit);
+                }
+            }
+            if (fits && this.paramTruncated) {
+                buffer.append("...");
+            }
+            buffer.append("\nHEADER:");
+            limit = (long) buffer.length() + maxLength;
+            fits = true;
+            for (int i = 0; fits && i < this.headerCount; i++) {
+                fits = (i == 0 || ServletUtils.appendLimited(buffer, "&", limit))
+                        && ServletUtils.appendLimited(buffer, this.headerNames[i], limit)
+                        && ServletUtils.appendLimited(buffer, "=", limit)
+                        && ServletUtils.appendLimited(buffer, this.headerValues[i], limit);
+            }
+            if (fits && this.headerTruncated) {
+                buffer.append("...");
+            }
+            buffer.append("\nIP:");
+            buffer.append(this.ip);
+        }
+
+        void clear() {
+            this.exception = null;
+            this.url = null;
+            this.method = null;
+            for (int i = 0; i < this.paramCount; i++) {
+                this.paramNames[i] = null;
+                this.paramValues[i] = null;
+            }
+            for (int i = 0; i < this.headerCount; i++) {
+                this.headerNames[i] = null;
+                this.headerValues[i] = null;
+            }
+            this.paramCount = 0;
+            this.headerCount = 0;
+            this.ip = null;
+        }
+
+    }
+
+}
@@ -2,11 +2,17 @@ package com.ejobim.spring;
 
 /**
  * 业务异常
+ * 默认不捕获调用栈，需要调试时可通过系统属性ejobim.exception.stackTrace=true或setStackTraceEnabled开启
  *
  * @author zch
  */
 public class BusinessException extends Exception {
 
+    /**
+     * 是否捕获调用栈
+     */
+    private static volatile boolean stackTraceEnabled = Boolean.getBoolean("ejobim.exception.stackTrace");
+
     private final ErrorType errorType;
 
     /**
@@ -20,6 +26,31 @@ public class BusinessException extends Exception {
         this.errorType = errorType;
     }
 
+    /**
+     * 构造器
+     *
+     * @param errorType 错误类型
+     * @param message 错误消息
+     * @param enableSuppression 是否允许附加被抑制的异常
+     * @param writableStackTrace 是否可写调用栈，为false时不捕获调用栈
+     */
+    protected BusinessException(ErrorType errorType, String message, boolean enableSuppression, boolean writableStackTrace) {
+        super(message, null, enableSuppression, writableStackTrace);
+        this.errorType = errorType;
+    }
+
+    /**
+     * 创建可复用的常量异常
+     * 不捕获调用栈、不可附加原因或被抑制的异常，可保存在静态常量中反复抛出
+     *
+     * @param errorType 错误类型
+     * @param message 错误消息
+     * @return 常量异常
+     */
+    public static BusinessException constant(ErrorType errorType, String message) {
+        return new BusinessException(errorType, message, false, false);
+    }
+
     /**
      * 获得错误类型
      *
@@ -28,4 +59,35 @@ public class BusinessException extends Exception {
     public ErrorType getErrorType() {
         return this.errorType;
     }
+
+    /**
+     * 仅在开启时捕获调用栈
+     *
+     * @return 异常本身
+     */
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        if (stackTraceEnabled) {
+            return super.fillInStackTrace();
+        }
+        return this;
+    }
+
+    /**
+     * 是否捕获调用栈
+     *
+     * @return 是否捕获调用栈
+     */
+    public static boolean isStackTraceEnabled() {
+        return stackTraceEnabled;
+    }
+
+    /**
+     * 设置是否捕获调用栈，对之后创建的异常生效
+     *
+     * @param enabled 是否捕获调用栈
+     */
+    public static void setStackTraceEnabled(boolean enabled) {
+        stackTraceEnabled = enabled;
+    }
 }
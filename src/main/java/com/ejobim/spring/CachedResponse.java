@@ -0,0 +1,27 @@
+package com.ejobim.spring;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 缓存响应
+ * 标注在返回ResponseResult的控制器方法上，GET请求的成功结果按请求路径和排序后的请求参数缓存序列化后的字节，
+ * 有效期内直接写出缓存内容，不再执行控制器方法；响应带强ETag，If-None-Match匹配时返回304
+ * 同一个键的并发请求只有一个执行控制器方法，其他请求等待其结果
+ * 响应不能依赖请求路径和请求参数以外的内容（如登录用户、请求头）
+ * @author zch
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface CachedResponse {
+
+    /**
+     * 有效期（秒）
+     */
+    int ttlSeconds() default 60;
+
+}
@@ -0,0 +1,129 @@
+package com.ejobim.spring;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import lombok.NonNull;
+
+/**
+ * 编译结果缓存
+ * 按源字符串缓存编译结果（如正则Pattern），线程安全，容量有上限
+ * 超出容量时按ConcurrentHashMap的遍历顺序淘汰其他条目（与放入顺序无关，近似随机淘汰），并统计命中、未命中及淘汰次数
+ * @param <T> 编译结果类型
+ * @author zch
+ */
+public class CompiledCache<T> {
+
+    private final ConcurrentHashMap<String, T> entries;
+
+    private final int maxSize;
+
+    private final Function<String, T> compiler;
+
+    private final LongAdder hitCount = new LongAdder();
+
+    private final LongAdder missCount = new LongAdder();
+
+    private final LongAdder evictionCount = new LongAdder();
+
+    /**
+     * 构造函数
+     * @param maxSize 最大条目数
+     * @param compiler 编译函数
+     */
+    public CompiledCache(int maxSize, @NonNull Function<String, T> compiler) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive");
+        }
+        this.maxSize = maxSize;
+        this.compiler = compiler;
+        this.entries = new ConcurrentHashMap<>(Math.min(maxSize, 256));
+    }
+
+    /**
+     * 获取编译结果，缓存中没有则编译并放入缓存
+     * 编译函数抛出的异常原样抛出，失败的结果不会被缓存
+     * @param source 源字符串
+     * @return 编译结果
+     */
+    public T get(@NonNull String source) {
+        T compiled = this.entries.get(source);
+        if (compiled != null) {
+            this.hitCount.increment();
+            return compiled;
+        }
+        this.missCount.increment();
+        compiled = this.compiler.apply(source);
+        T existing = this.entries.putIfAbsent(source, compiled);
+        if (existing != null) {
+            return existing;
+        }
+        if (this.entries.size() > this.maxSize) {
+            this.evict(source);
+        }
+        return compiled;
+    }
+
+    /**
+     * 按遍历顺序淘汰条目直到不超过容量，刚放入的条目不淘汰
+     * @param keep 保留的源字符串
+     */
+    private void evict(String keep) {
+        Iterator<String> keys = this.entries.keySet().iterator();
+        while (this.entries.size() > this.maxSize && keys.hasNext()) {
+            String key = keys.next();
+            if (!key.equals(keep) && this.entries.remove(key) != null) {
+                this.evictionCount.increment();
+            }
+        }
+    }
+
+    /**
+     * 清空缓存，统计值不清零
+     */
+    public void clear() {
+        this.entries.clear();
+    }
+
+    /**
+     * 当前条目数
+     * @return 条目数
+     */
+    public int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * 最大条目数
+     * @return 最大条目数
+     */
+    public int getMaxSize() {
+        return this.maxSize;
+    }
+
+    /**
+     * 命中次数
+     * @return 命中次数
+     */
+    public long getHitCount() {
+        return this.hitCount.sum();
+    }
+
+    /**
+     * 未命中次数
+     * @return 未命中次数
+     */
+    public long getMissCount() {
+        return this.missCount.sum();
+    }
+
+    /**
+     * 淘汰次数
+     * @return 淘汰次数
+     */
+    public long getEvictionCount() {
+        return this.evictionCount.sum();
+    }
+
+}
@@ -0,0 +1,183 @@
+package com.ejobim.spring;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 自适应并发限制
+ * 按梯度算法调整允许的并发请求数：每个采样窗口比较短期平均耗时与长期平均耗时，
+ * 耗时上升时按比例降低限制，耗时平稳时每个窗口增加约sqrt(限制)的排队余量
+ * 并发未达到限制一半时不增加限制（负载不足时耗时不能说明容量）
+ * 获取和释放只有原子计数，窗口结束时由一个线程通过CAS取得更新权后计算，不加锁
+ * @author zch
+ */
+public class ConcurrencyLimit {
+
+    /**
+     * 采样窗口长度
+     */
+    private static final long WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * 每个窗口至少的样本数，不足时延长窗口
+     */
+    private static final int MIN_WINDOW_SAMPLES = 10;
+
+    /**
+     * 长期平均耗时的平滑窗口数
+     */
+    private static final int LONG_WINDOWS = 60;
+
+    /**
+     * 允许短期耗时超出长期耗时的比例
+     */
+    private static final double TOLERANCE = 1.5;
+
+    /**
+     * 新限制的权重
+     */
+    private static final double SMOOTHING = 0.2;
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private volatile int limit;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    private final LongAdder rttSum = new LongAdder();
+
+    private final LongAdder rttCount = new LongAdder();
+
+    private final AtomicLong windowEnd = new AtomicLong(System.nanoTime() + WINDOW_NANOS);
+
+    /**
+     * 长期平均耗时（纳秒），只由取得更新权的线程修改
+     */
+    private volatile double longRtt;
+
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * 构造函数
+     * @param initialLimit 初始限制
+     * @param minLimit 最小限制
+     * @param maxLimit 最大限制
+     */
+    public ConcurrencyLimit(int initialLimit, int minLimit, int maxLimit) {
+        if (minLimit <= 0 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Invalid concurrency limit settings");
+        }
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+    }
+
+    /**
+     * 尝试开始一个请求
+     * @return 是否允许，为true时必须调用release
+     */
+    public boolean tryAcquire() {
+        for (;;) {
+            int current = this.inFlight.get();
+            if (current >= this.limit) {
+                this.rejected.increment();
+                return false;
+            }
+            if (this.inFlight.compareAndSet(current, current + 1)) {
+                if (current + 1 > this.maxInFlight.get()) {
+                    this.maxInFlight.accumulateAndGet(current + 1, Math::max);
+                }
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 结束一个请求
+     * @param rttNanos 请求耗时（纳秒）
+     */
+    public void release(long rttNanos) {
+        this.inFlight.decrementAndGet();
+        this.rttSum.add(rttNanos);
+        this.rttCount.increment();
+        long now = System.nanoTime();
+        long end = this.windowEnd.get();
+        if (now - end >= 0 && this.rttCount.sum() >= MIN_WINDOW_SAMPLES && this.windowEnd.compareAndSet(end, now + WINDOW_NANOS)) {
+            this.update();
+        }
+    }
+
+    /**
+     * 根据窗口内的样本更新限制
+     */
+    private void update() {
+        long count = this.rttCount.sumThenReset();
+        long sum = this.rttSum.sumThenReset();
+        int peak = this.maxInFlight.getAndSet(this.inFlight.get());
+        if (count == 0) {
+            return;
+        }
+        double shortRtt = Math.max(1.0, (double) sum / count);
+        double previousLongRtt = this.longRtt;
+        double newLongRtt = previousLongRtt == 0 ? shortRtt : previousLongRtt + (shortRtt - previousLongRtt) / LONG_WINDOWS;
+        // 耗时明显下降后（如依赖恢复）长期平均下降过慢，加快下降
+        if (newLongRtt > 2 * shortRtt) {
+            newLongRtt = newLongRtt * 0.95;
+        }
+        this.longRtt = newLongRtt;
+        int current = this.limit;
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * newLongRtt / shortRtt));
+        double target = current * gradient + Math.sqrt(current);
+        if (target > current && peak < current / 2) {
+            return;
+        }
+        double smoothed = current * (1 - SMOOTHING) + target * SMOOTHING;
+        this.limit = (int) Math.max(this.minLimit, Math.min(this.maxLimit, Math.round(smoothed)));
+    }
+
+    /**
+     * 当前限制
+     * @return 允许的并发请求数
+     */
+    public int getLimit() {
+        return this.limit;
+    }
+
+    /**
+     * 当前并发请求数
+     * @return 并发请求数
+     */
+    public int getInFlight() {
+        return this.inFlight.get();
+    }
+
+    /**
+     * 被拒绝的请求数
+     * @return 拒绝次数
+     */
+    public long getRejectedCount() {
+        return this.rejected.sum();
+    }
+
+    /**
+     * 长期平均耗时
+     * @return 耗时（微秒）
+     */
+    public long getLongRttMicros() {
+        return (long) (this.longRtt / 1000);
+    }
+
+    /**
+     * 拒绝次数清零
+     */
+    public void resetRejectedCount() {
+        this.rejected.reset();
+    }
+
+}
@@ -0,0 +1,214 @@
+package com.ejobim.spring;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ToLongFunction;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+/**
+ * 并发限制过滤器
+ * 仅当ejobim.concurrency-limit.enabled为true时注册；统计正在处理的请求数和处理耗时，按ConcurrencyLimit自适应调整限制，
+ * 超出限制时直接写出常量错误响应FunctionLimited，不排队，已接受的请求不受过载影响
+ * ejobim.concurrency-limit.routes中的每个路径模式（Ant风格，按顺序匹配）单独限制，其他请求共用一个限制
+ * 各限制的当前值、并发数、拒绝次数通过JMX公开，拒绝的请求同时计入ErrorMetrics
+ * @author zch
+ */
+@Component
+@ConditionalOnProperty(name = "ejobim.concurrency-limit.enabled", havingValue = "true")
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+@ManagedResource(objectName = "com.ejobim:type=ConcurrencyLimit", description = "并发限制")
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final String DEFAULT_ROUTE = "*";
+
+    private final PathMatcher pathMatcher = new AntPathMatcher();
+
+    private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+
+    private final String[] patterns;
+
+    private final ConcurrencyLimit[] routeLimits;
+
+    private final ConcurrencyLimit defaultLimit;
+
+    private final ErrorMetrics metrics;
+
+    /**
+     * 构造函数
+     * @param initialLimit 初始并发限制
+     * @param minLimit 最小并发限制
+     * @param maxLimit 最大并发限制
+     * @param routes 单独限制的路径模式
+     * @param metrics 错误统计
+     */
+    public ConcurrencyLimitFilter(@Value("${ejobim.concurrency-limit.initial-limit:20}") int initialLimit,
+            @Value("${ejobim.concurrency-limit.min-limit:4}") int minLimit,
+            @Value("${ejobim.concurrency-limit.max-limit:200}") int maxLimit,
+            @Value("${ejobim.concurrency-limit.routes:}") String[] routes,
+            ErrorMetrics metrics) {
+        Set<String> patterns = new LinkedHashSet<>();
+        for (String route : routes) {
+            if (StringUtils.hasText(route)) {
+                patterns.add(route.trim());
+            }
+        }
+        this.patterns = StringUtils.toStringArray(patterns);
+        this.routeLimits = new ConcurrencyLimit[this.patterns.length];
+        for (int i = 0; i < this.patterns.length; i++) {
+            this.routeLimits[i] = new ConcurrencyLimit(initialLimit, minLimit, maxLimit);
+        }
+        this.defaultLimit = new ConcurrencyLimit(initialLimit, minLimit, maxLimit);
+        this.metrics = metrics;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        ConcurrencyLimit limit = this.resolve(request);
+        if (!limit.tryAcquire()) {
+            long start = this.metrics.start();
+            ErrorResponses.write(request, response, ErrorType.FunctionLimited);
+            this.metrics.record(ErrorType.FunctionLimited, start);
+            return;
+        }
+        long start = System.nanoTime();
+        boolean async = false;
+        try {
+            filterChain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                // 异步请求在完成时释放，耗时包括异步处理
+                request.getAsyncContext().addListener(new ReleaseListener(limit, start));
+                async = true;
+            }
+        } finally {
+            if (!async) {
+                limit.release(System.nanoTime() - start);
+            }
+        }
+    }
+
+    private ConcurrencyLimit resolve(HttpServletRequest request) {
+        if (this.patterns.length == 0) {
+            return this.defaultLimit;
+        }
+        String path = this.urlPathHelper.getPathWithinApplication(request);
+        for (int i = 0; i < this.patterns.length; i++) {
+            if (this.pathMatcher.match(this.patterns[i], path)) {
+                return this.routeLimits[i];
+            }
+        }
+        return this.defaultLimit;
+    }
+
+    /**
+     * 各路径模式的当前并发限制
+     * @return 路径模式到并发限制的映射，*为其他请求
+     */
+    @ManagedAttribute(description = "当前并发限制")
+    public Map<String, Long> getLimits() {
+        return this.collect(ConcurrencyLimit::getLimit);
+    }
+
+    /**
+     * 各路径模式正在处理的请求数
+     * @return 路径模式到请求数的映射，*为其他请求
+     */
+    @ManagedAttribute(description = "正在处理的请求数")
+    public Map<String, Long> getInFlight() {
+        return this.collect(ConcurrencyLimit::getInFlight);
+    }
+
+    /**
+     * 各路径模式被拒绝的请求数
+     * @return 路径模式到拒绝次数的映射，*为其他请求
+     */
+    @ManagedAttribute(description = "被拒绝的请求数")
+    public Map<String, Long> getRejectedCounts() {
+        return this.collect(ConcurrencyLimit::getRejectedCount);
+    }
+
+    /**
+     * 各路径模式的长期平均耗时
+     * @return 路径模式到耗时（微秒）的映射，*为其他请求
+     */
+    @ManagedAttribute(description = "长期平均耗时（微秒）")
+    public Map<String, Long> getLatencies() {
+        return this.collect(ConcurrencyLimit::getLongRttMicros);
+    }
+
+    /**
+     * 拒绝次数清零
+     */
+    @ManagedOperation(description = "拒绝次数清零")
+    public void resetRejectedCounts() {
+        for (ConcurrencyLimit limit : this.routeLimits) {
+            limit.resetRejectedCount();
+        }
+        this.defaultLimit.resetRejectedCount();
+    }
+
+    private Map<String, Long> collect(ToLongFunction<ConcurrencyLimit> getter) {
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (int i = 0; i < this.patterns.length; i++) {
+            result.put(this.patterns[i], getter.applyAsLong(this.routeLimits[i]));
+        }
+        result.put(DEFAULT_ROUTE, getter.applyAsLong(this.defaultLimit));
+        return result;
+    }
+
+    /**
+     * 异步请求完成（包括超时、出错）时释放
+     */
+    private static final class ReleaseListener implements AsyncListener {
+
+        private final ConcurrencyLimit limit;
+
+        private final long start;
+
+        ReleaseListener(ConcurrencyLimit limit, long start) {
+            this.limit = limit;
+            this.start = start;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            this.limit.release(System.nanoTime() - this.start);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // 再次开始异步处理时需要重新注册
+            event.getAsyncContext().addListener(this);
+        }
+
+    }
+
+}
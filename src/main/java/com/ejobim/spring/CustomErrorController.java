@@ -1,16 +1,16 @@
 package com.ejobim.spring;
 
-import com.alibaba.fastjson.JSON;
+import java.io.IOException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import org.springframework.boot.web.servlet.error.ErrorController;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.ResponseBody;
 
 /**
  * 自定义错误控制器，该控制器把其他未处理的错误统一处理为错误响应
+ * 错误响应是预先序列化的常量，直接写入响应输出流
  * @author zch
  */
 @RequestMapping("")
@@ -19,14 +19,21 @@ public class CustomErrorController implements ErrorController {
 
     private static final String ERROR_PATH = "/error";
 
+    private final ErrorMetrics metrics;
+
+    /**
+     * 构造函数
+     * @param metrics 错误统计
+     */
+    public CustomErrorController(ErrorMetrics metrics) {
+        this.metrics = metrics;
+    }
+
     @GetMapping(ERROR_PATH)
-    @ResponseBody
-    public String error(HttpServletRequest request, HttpServletResponse response) {
-        ResponseResult result = new ResponseResult();
-        result.success = false;
-        result.errorType = ErrorType.BadRequest;
-        result.errorMessage = "错误请求";
-        return JSON.toJSONString(result);
+    public void error(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        long start = this.metrics.start();
+        ErrorResponses.write(request, response, ErrorType.BadRequest);
+        this.metrics.record(ErrorType.BadRequest, start);
     }
 
     @Override
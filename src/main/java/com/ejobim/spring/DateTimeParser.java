@@ -0,0 +1,304 @@
+package com.ejobim.spring;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.ResolverStyle;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAccessor;
+import java.time.temporal.TemporalQueries;
+import lombok.NonNull;
+
+/**
+ * 日期时间解析器
+ * 按模式编译一次后可被多线程复用，解析失败返回null而不抛出异常
+ * 模式仅由yyyy、MM、dd、HH、mm、ss及非字母分隔符组成时（如yyyy-MM-dd、yyyy-MM-dd HH:mm:ss），
+ * 对长度相符的输入按固定宽度直接解析，否则使用严格模式的DateTimeFormatter
+ * 模式缺少的日期部分按1970-01-01补全（只有模式不含年份时才补全年份），缺少的时间部分按00:00:00补全；
+ * 模式含有的部分无法由严格模式确定时（如hh没有对应的a）解析失败
+ * @author zch
+ */
+public final class DateTimeParser {
+
+    private static final int YEAR = 0;
+    private static final int MONTH = 1;
+    private static final int DAY = 2;
+    private static final int HOUR = 3;
+    private static final int MINUTE = 4;
+    private static final int SECOND = 5;
+
+    private static final int[] WIDTHS = {4, 2, 2, 2, 2, 2};
+
+    private static final int[] DEFAULTS = {1970, 1, 1, 0, 0, 0};
+
+    private static final LocalDate DEFAULT_DATE = LocalDate.of(1970, 1, 1);
+
+    /**
+     * 表示日期部分的模式字母
+     */
+    private static final String DATE_LETTERS = "GuyYMLdDQqwWF";
+
+    /**
+     * 表示时间部分的模式字母
+     */
+    private static final String TIME_LETTERS = "HhKkmsSnNA";
+
+    private final String pattern;
+
+    private final DateTimeFormatter formatter;
+
+    /**
+     * 固定宽度解析时各位置是否为数字，不支持固定宽度时为null
+     */
+    private final boolean[] fixedDigits;
+
+    /**
+     * 固定宽度解析时各字段的起始位置，-1表示模式中没有该字段
+     */
+    private final int[] fieldOffsets;
+
+    /**
+     * 模式是否含日期部分，含时解析结果必须能确定日期
+     */
+    private final boolean hasDate;
+
+    /**
+     * 模式是否含时间部分，含时解析结果必须能确定时间
+     */
+    private final boolean hasTime;
+
+    private DateTimeParser(String pattern, DateTimeFormatter formatter, int[] fieldOffsets, boolean hasDate, boolean hasTime) {
+        this.pattern = pattern;
+        this.formatter = formatter;
+        this.fieldOffsets = fieldOffsets;
+        this.hasDate = hasDate;
+        this.hasTime = hasTime;
+        if (fieldOffsets == null) {
+            this.fixedDigits = null;
+        } else {
+            this.fixedDigits = new boolean[pattern.length()];
+            for (int field = 0; field < fieldOffsets.length; field++) {
+                for (int i = 0; fieldOffsets[field] >= 0 && i < WIDTHS[field]; i++) {
+                    this.fixedDigits[fieldOffsets[field] + i] = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * 编译
+     * @param pattern 日期时间模式（DateTimeFormatter格式）
+     * @return 日期时间解析器
+     * @throws IllegalArgumentException 模式错误
+     */
+    public static DateTimeParser compile(@NonNull String pattern) {
+        DateTimeFormatterBuilder builder = new DateTimeFormatterBuilder().appendPattern(pattern);
+        String letters = unquoted(pattern);
+        boolean hasYear = containsAny(letters, "yuY");
+        boolean hasMonth = containsAny(letters, "ML");
+        if (letters.indexOf('y') >= 0) {
+            // 严格模式下yyyy（纪元年）需要纪元才能确定年份
+            builder.parseDefaulting(ChronoField.ERA, 1);
+        }
+        if (!hasYear) {
+            builder.parseDefaulting(ChronoField.YEAR, DEFAULTS[YEAR]);
+        }
+        if (hasYear && !hasMonth && letters.indexOf('D') < 0) {
+            builder.parseDefaulting(ChronoField.MONTH_OF_YEAR, 1);
+        }
+        if (hasYear && letters.indexOf('d') < 0 && letters.indexOf('D') < 0) {
+            builder.parseDefaulting(ChronoField.DAY_OF_MONTH, 1);
+        }
+        DateTimeFormatter formatter = builder.toFormatter().withResolverStyle(ResolverStyle.STRICT);
+        return new DateTimeParser(pattern, formatter, compileFixed(pattern),
+                containsAny(letters, DATE_LETTERS), containsAny(letters, TIME_LETTERS));
+    }
+
+    /**
+     * 去掉模式中引号内的文字
+     */
+    private static String unquoted(String pattern) {
+        StringBuilder letters = new StringBuilder(pattern.length());
+        boolean quoted = false;
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == '\'') {
+                quoted = !quoted;
+            } else if (!quoted) {
+                letters.append(c);
+            }
+        }
+        return letters.toString();
+    }
+
+    private static boolean containsAny(String letters, String candidates) {
+        for (int i = 0; i < candidates.length(); i++) {
+            if (letters.indexOf(candidates.charAt(i)) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 编译固定宽度解析计划
+     * @param pattern 日期时间模式
+     * @return 各字段的起始位置，模式含其他字段、重复字段或引号时返回null
+     */
+    private static int[] compileFixed(String pattern) {
+        int[] offsets = {-1, -1, -1, -1, -1, -1};
+        int i = 0;
+        while (i < pattern.length()) {
+            char c = pattern.charAt(i);
+            int run = 1;
+            while (i + run < pattern.length() && pattern.charAt(i + run) == c) {
+                run++;
+            }
+            int field = "yMdHms".indexOf(c);
+            if (field >= 0) {
+                if (run != WIDTHS[field] || offsets[field] >= 0) {
+                    return null;
+                }
+                offsets[field] = i;
+            } else if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || "'[]#{}".indexOf(c) >= 0) {
+                return null;
+            }
+            i += run;
+        }
+        return offsets;
+    }
+
+    /**
+     * 解析为本地日期时间
+     * @param text 文本
+     * @return 本地日期时间，格式不正确时返回null
+     */
+    public LocalDateTime parseLocalDateTime(@NonNull CharSequence text) {
+        if (this.isFixed(text)) {
+            return this.parseFixed(text);
+        }
+        return this.toLocalDateTime(this.parse(text));
+    }
+
+    /**
+     * 解析为本地日期，时间部分被忽略
+     * @param text 文本
+     * @return 本地日期，格式不正确时返回null
+     */
+    public LocalDate parseLocalDate(@NonNull CharSequence text) {
+        LocalDateTime dateTime = this.parseLocalDateTime(text);
+        return dateTime == null ? null : dateTime.toLocalDate();
+    }
+
+    /**
+     * 解析为时刻
+     * @param text 文本
+     * @param zone 文本不含时区或偏移时使用的时区
+     * @return 时刻，格式不正确时返回null
+     */
+    public Instant parseInstant(@NonNull CharSequence text, @NonNull ZoneId zone) {
+        LocalDateTime dateTime;
+        if (this.isFixed(text)) {
+            dateTime = this.parseFixed(text);
+        } else {
+            TemporalAccessor parsed = this.parse(text);
+            if (parsed != null && parsed.isSupported(ChronoField.INSTANT_SECONDS)) {
+                return Instant.from(parsed);
+            }
+            dateTime = this.toLocalDateTime(parsed);
+        }
+        return dateTime == null ? null : dateTime.atZone(zone).toInstant();
+    }
+
+    private boolean isFixed(CharSequence text) {
+        return this.fixedDigits != null && text.length() == this.fixedDigits.length;
+    }
+
+    private TemporalAccessor parse(CharSequence text) {
+        try {
+            return this.formatter.parse(text);
+        } catch (DateTimeException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * 模式含有的部分无法确定时（如hh缺少上下午标记）返回null，不用默认值代替
+     */
+    private LocalDateTime toLocalDateTime(TemporalAccessor parsed) {
+        if (parsed == null) {
+            return null;
+        }
+        LocalDate date = parsed.query(TemporalQueries.localDate());
+        LocalTime time = parsed.query(TemporalQueries.localTime());
+        if ((date == null && this.hasDate) || (time == null && this.hasTime)) {
+            return null;
+        }
+        return LocalDateTime.of(date == null ? DEFAULT_DATE : date, time == null ? LocalTime.MIDNIGHT : time);
+    }
+
+    private LocalDateTime parseFixed(CharSequence text) {
+        for (int i = 0; i < this.fixedDigits.length; i++) {
+            char c = text.charAt(i);
+            if (this.fixedDigits[i] ? (c < '0' || c > '9') : c != this.pattern.charAt(i)) {
+                return null;
+            }
+        }
+        int year = this.fieldValue(text, YEAR);
+        int month = this.fieldValue(text, MONTH);
+        int day = this.fieldValue(text, DAY);
+        int hour = this.fieldValue(text, HOUR);
+        int minute = this.fieldValue(text, MINUTE);
+        int second = this.fieldValue(text, SECOND);
+        if (year < 1 || month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)
+                || hour > 23 || minute > 59 || second > 59) {
+            return null;
+        }
+        return LocalDateTime.of(year, month, day, hour, minute, second);
+    }
+
+    private int fieldValue(CharSequence text, int field) {
+        int offset = this.fieldOffsets[field];
+        if (offset < 0) {
+            return DEFAULTS[field];
+        }
+        int value = 0;
+        for (int i = offset; i < offset + WIDTHS[field]; i++) {
+            value = value * 10 + (text.charAt(i) - '0');
+        }
+        return value;
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                return (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    /**
+     * 获取模式
+     * @return 日期时间模式
+     */
+    public String getPattern() {
+        return this.pattern;
+    }
+
+    @Override
+    public String toString() {
+        return this.pattern;
+    }
+
+}
@@ -0,0 +1,146 @@
+package com.ejobim.spring;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Predicate;
+
+/**
+ * 集合元素验证
+ * 对集合的每个元素执行同一规则，找出不符合的元素下标；元素数超过并行阈值时拆分到ForkJoin公共池中并行检查，否则在当前线程顺序检查
+ * 只报告下标最小的若干个错误
+ * @author zch
+ */
+final class ElementValidation {
+
+    private static final int[] NONE = new int[0];
+
+    private ElementValidation() {}
+
+    /**
+     * 查找不符合规则的元素
+     * @param <T> 元素类型
+     * @param values 集合
+     * @param valid 元素是否符合规则，需要线程安全
+     * @param parallelThreshold 并行阈值，同时也是每个子任务的最大元素数
+     * @param maxErrors 最多报告的错误数
+     * @return 按升序排列的下标，最多maxErrors个
+     */
+    static <T> int[] findInvalid(Collection<? extends T> values, Predicate<? super T> valid, int parallelThreshold, int maxErrors) {
+        if (values == null || values.isEmpty() || maxErrors <= 0) {
+            return NONE;
+        }
+        if (values.size() <= parallelThreshold) {
+            return sequential(values, valid, maxErrors);
+        }
+        List<? extends T> list = values instanceof RandomAccess && values instanceof List
+                ? (List<? extends T>) values
+                : new ArrayList<>(values);
+        Task<T> task = new Task<>(list, valid, 0, list.size(), parallelThreshold, maxErrors);
+        // 已经在ForkJoin线程中（如并行流）时直接执行，否则提交到公共池
+        return ForkJoinTask.inForkJoinPool() ? task.invoke() : ForkJoinPool.commonPool().invoke(task);
+    }
+
+    private static <T> int[] sequential(Collection<? extends T> values, Predicate<? super T> valid, int maxErrors) {
+        int[] result = null;
+        int count = 0;
+        int index = 0;
+        for (T value : values) {
+            if (!valid.test(value)) {
+                if (result == null) {
+                    result = new int[Math.min(maxErrors, 8)];
+                } else if (count == result.length) {
+                    result = Arrays.copyOf(result, Math.min(maxErrors, count * 2));
+                }
+                result[count++] = index;
+                if (count == maxErrors) {
+                    break;
+                }
+            }
+            index++;
+        }
+        return result == null ? NONE : (count == result.length ? result : Arrays.copyOf(result, count));
+    }
+
+    /**
+     * 检查[from, to)范围内的元素，超过阈值时拆分为两半
+     */
+    private static final class Task<T> extends RecursiveTask<int[]> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<? extends T> values;
+
+        private final Predicate<? super T> valid;
+
+        private final int from;
+
+        private final int to;
+
+        private final int threshold;
+
+        private final int maxErrors;
+
+        Task(List<? extends T> values, Predicate<? super T> valid, int from, int to, int threshold, int maxErrors) {
+            this.values = values;
+            this.valid = valid;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+            this.maxErrors = maxErrors;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (this.to - this.from <= this.threshold) {
+                return this.scan();
+            }
+            int middle = (this.from + this.to) >>> 1;
+            Task<T> right = new Task<>(this.values, this.valid, middle, this.to, this.threshold, this.maxErrors);
+            right.fork();
+            int[] left = new Task<>(this.values, this.valid, this.from, middle, this.threshold, this.maxErrors).compute();
+            if (left.length == this.maxErrors) {
+                // 左半部分已经达到上限，右半部分的结果不会被报告
+                right.cancel(false);
+                return left;
+            }
+            int[] rightResult = right.join();
+            if (rightResult.length == 0) {
+                return left;
+            }
+            if (left.length == 0) {
+                return rightResult;
+            }
+            int count = Math.min(left.length + rightResult.length, this.maxErrors);
+            int[] result = Arrays.copyOf(left, count);
+            System.arraycopy(rightResult, 0, result, left.length, count - left.length);
+            return result;
+        }
+
+        private int[] scan() {
+            int[] result = null;
+            int count = 0;
+            for (int i = this.from; i < this.to; i++) {
+                if (!this.valid.test(this.values.get(i))) {
+                    if (result == null) {
+                        result = new int[Math.min(this.maxErrors, 8)];
+                    } else if (count == result.length) {
+                        result = Arrays.copyOf(result, Math.min(this.maxErrors, count * 2));
+                    }
+                    result[count++] = i;
+                    if (count == this.maxErrors) {
+                        break;
+                    }
+                }
+            }
+            return result == null ? NONE : (count == result.length ? result : Arrays.copyOf(result, count));
+        }
+
+    }
+
+}
@@ -0,0 +1,176 @@
+package com.ejobim.spring;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 错误日志限流
+ * 按异常签名（异常类及栈顶若干帧）计数，每个时间窗口内每种签名只允许前若干次完整记录，其余只计数，
+ * 每个窗口结束时输出被抑制次数的汇总
+ * 签名数量有上限，超出后新签名共用一个计数
+ * @author zch
+ */
+@Slf4j
+public class ErrorLogThrottle implements AutoCloseable {
+
+    /**
+     * 签名包含的栈顶帧数
+     */
+    private static final int SIGNATURE_FRAMES = 3;
+
+    private static final Signature OVERFLOW = new Signature(Throwable.class, new StackTraceElement[0]);
+
+    private final int burst;
+
+    private final long windowNanos;
+
+    private final int maxSignatures;
+
+    private final Map<Signature, Counter> counters = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService executor;
+
+    /**
+     * 构造函数
+     * @param burst 每个窗口内每种签名完整记录的次数
+     * @param windowSeconds 窗口长度（秒）
+     * @param maxSignatures 签名数量上限
+     */
+    public ErrorLogThrottle(int burst, long windowSeconds, int maxSignatures) {
+        if (burst < 0 || windowSeconds <= 0 || maxSignatures <= 0) {
+            throw new IllegalArgumentException("Invalid throttle settings");
+        }
+        this.burst = burst;
+        this.windowNanos = TimeUnit.SECONDS.toNanos(windowSeconds);
+        this.maxSignatures = maxSignatures;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ejobim-error-log-summary");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.scheduleWithFixedDelay(this::summarize, windowSeconds, windowSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 记录一次异常
+     * @param ex 异常
+     * @return 是否应完整记录，为false时已计入被抑制次数
+     */
+    public boolean tryAcquire(@NonNull Throwable ex) {
+        Signature signature = Signature.of(ex);
+        Counter counter = this.counters.get(signature);
+        if (counter == null) {
+            if (this.counters.size() >= this.maxSignatures) {
+                signature = OVERFLOW;
+            }
+            counter = this.counters.computeIfAbsent(signature, key -> new Counter());
+        }
+        long now = System.nanoTime();
+        long windowStart = counter.windowStart.get();
+        if (now - windowStart >= this.windowNanos && counter.windowStart.compareAndSet(windowStart, now)) {
+            counter.logged.set(0);
+        }
+        counter.lastSeen = now;
+        if (counter.logged.get() < this.burst && counter.logged.incrementAndGet() <= this.burst) {
+            return true;
+        }
+        counter.suppressed.increment();
+        return false;
+    }
+
+    /**
+     * 输出被抑制次数的汇总，并清理长时间未出现的签名
+     */
+    void summarize() {
+        long now = System.nanoTime();
+        Iterator<Map.Entry<Signature, Counter>> iterator = this.counters.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Signature, Counter> entry = iterator.next();
+            Counter counter = entry.getValue();
+            long suppressed = counter.suppressed.sumThenReset();
+            if (suppressed > 0) {
+                log.error("Suppressed {} occurrences of {} in the last {} seconds", suppressed, entry.getKey(), TimeUnit.NANOSECONDS.toSeconds(this.windowNanos));
+            } else if (now - counter.lastSeen >= 2 * this.windowNanos) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * 停止汇总线程
+     */
+    @Override
+    public void close() {
+        this.executor.shutdownNow();
+    }
+
+    private static class Counter {
+
+        private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+
+        private final AtomicInteger logged = new AtomicInteger();
+
+        private final LongAdder suppressed = new LongAdder();
+
+        private volatile long lastSeen = System.nanoTime();
+
+    }
+
+    /**
+     * 异常签名
+     */
+    private static final class Signature {
+
+        private final Class<?> type;
+
+        private final StackTraceElement[] frames;
+
+        private final int hash;
+
+        private Signature(Class<?> type, StackTraceElement[] frames) {
+            this.type = type;
+            this.frames = frames;
+            this.hash = 31 * type.hashCode() + Arrays.hashCode(frames);
+        }
+
+        static Signature of(Throwable ex) {
+            StackTraceElement[] stackTrace = ex.getStackTrace();
+            int length = Math.min(stackTrace.length, SIGNATURE_FRAMES);
+            return new Signature(ex.getClass(), length == stackTrace.length ? stackTrace : Arrays.copyOf(stackTrace, length));
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Signature)) {
+                return false;
+            }
+            Signature other = (Signature) obj;
+            return this.hash == other.hash && this.type == other.type && Arrays.equals(this.frames, other.frames);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+
+        @Override
+        public String toString() {
+            if (this == OVERFLOW) {
+                return "other errors";
+            }
+            return this.frames.length == 0 ? this.type.getName() : this.type.getName() + " at " + this.frames[0];
+        }
+
+    }
+
+}
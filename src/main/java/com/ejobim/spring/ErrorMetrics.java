@@ -0,0 +1,225 @@
+package com.ejobim.spring;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+/**
+ * 错误统计
+ * 按错误类型统计错误响应次数和异常处理耗时，按参数名统计参数错误次数，通过JMX和ErrorMetricsController公开
+ * 未启用时（ejobim.metrics.enabled不为true）记录方法直接返回，不读取时钟
+ * @author zch
+ */
+@Component
+@ManagedResource(objectName = "com.ejobim:type=ErrorMetrics", description = "错误统计")
+public class ErrorMetrics {
+
+    /**
+     * 单独统计的参数名数量上限，超出后计入OTHER_PARAMETERS
+     */
+    private static final int MAX_PARAMETER_NAMES = 1024;
+
+    private static final String OTHER_PARAMETERS = "*";
+
+    private final boolean enabled;
+
+    private final Map<ErrorType, LongAdder> errorCounts = new EnumMap<>(ErrorType.class);
+
+    private final Map<ErrorType, LatencyHistogram> latencies = new EnumMap<>(ErrorType.class);
+
+    private final Map<String, LongAdder> parameterCounts = new ConcurrentHashMap<>();
+
+    /**
+     * 构造函数
+     * @param enabled 是否启用
+     */
+    public ErrorMetrics(@Value("${ejobim.metrics.enabled:false}") boolean enabled) {
+        this.enabled = enabled;
+        // 预先放入所有键，之后只读取，可以并发访问
+        for (ErrorType errorType : ErrorType.values()) {
+            this.errorCounts.put(errorType, new LongAdder());
+            this.latencies.put(errorType, new LatencyHistogram());
+        }
+    }
+
+    /**
+     * 是否启用
+     * @return 是否启用
+     */
+    @ManagedAttribute(description = "是否启用")
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    /**
+     * 开始计时
+     * @return 开始时间，未启用时返回0
+     */
+    public long start() {
+        return this.enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * 记录一次错误响应
+     * @param errorType 错误类型
+     * @param start start返回的开始时间
+     */
+    public void record(ErrorType errorType, long start) {
+        if (!this.enabled || errorType == null) {
+            return;
+        }
+        this.errorCounts.get(errorType).increment();
+        this.latencies.get(errorType).record(System.nanoTime() - start);
+    }
+
+    /**
+     * 记录参数错误的参数名
+     * 集合元素的错误（如tags[3]）计入集合参数名（tags），每个异常中同一参数只计一次
+     * @param ex 参数异常
+     */
+    public void recordParameters(ParameterException ex) {
+        if (!this.enabled) {
+            return;
+        }
+        Set<String> names = new LinkedHashSet<>();
+        for (String name : ex.getParameterNames()) {
+            names.add(stripIndex(name));
+        }
+        for (String name : names) {
+            LongAdder counter = this.parameterCounts.get(name);
+            if (counter == null) {
+                String key = this.parameterCounts.size() < MAX_PARAMETER_NAMES ? name : OTHER_PARAMETERS;
+                counter = this.parameterCounts.computeIfAbsent(key, k -> new LongAdder());
+            }
+            counter.increment();
+        }
+    }
+
+    /**
+     * 去掉末尾的集合下标[n]
+     */
+    static String stripIndex(String name) {
+        if (name == null) {
+            return null;
+        }
+        int end = name.length();
+        while (end > 0 && name.charAt(end - 1) == ']') {
+            int i = end - 2;
+            while (i >= 0 && name.charAt(i) >= '0' && name.charAt(i) <= '9') {
+                i--;
+            }
+            if (i < 0 || i == end - 2 || name.charAt(i) != '[') {
+                break;
+            }
+            end = i;
+        }
+        return end == name.length() ? name : name.substring(0, end);
+    }
+
+    /**
+     * 获取各错误类型的响应次数
+     * @return 错误类型名称与次数的映射
+     */
+    @ManagedAttribute(description = "各错误类型的响应次数")
+    public Map<String, Long> getErrorCounts() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (Map.Entry<ErrorType, LongAdder> entry : this.errorCounts.entrySet()) {
+            result.put(entry.getKey().name(), entry.getValue().sum());
+        }
+        return result;
+    }
+
+    /**
+     * 获取错误响应总次数
+     * @return 总次数
+     */
+    @ManagedAttribute(description = "错误响应总次数")
+    public long getTotalErrorCount() {
+        long total = 0;
+        for (LongAdder counter : this.errorCounts.values()) {
+            total += counter.sum();
+        }
+        return total;
+    }
+
+    /**
+     * 获取某个错误类型的响应次数
+     * @param errorType 错误类型名称
+     * @return 次数
+     */
+    @ManagedOperation(description = "某个错误类型的响应次数")
+    public long getErrorCount(String errorType) {
+        return this.errorCounts.get(ErrorType.valueOf(errorType)).sum();
+    }
+
+    /**
+     * 获取各参数名的错误次数
+     * @return 参数名与次数的映射
+     */
+    @ManagedAttribute(description = "各参数名的错误次数")
+    public Map<String, Long> getParameterErrorCounts() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (Map.Entry<String, LongAdder> entry : this.parameterCounts.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().sum());
+        }
+        return result;
+    }
+
+    /**
+     * 获取某个错误类型的处理耗时直方图
+     * @param errorType 错误类型
+     * @return 直方图
+     */
+    public LatencyHistogram getLatency(ErrorType errorType) {
+        return this.latencies.get(errorType);
+    }
+
+    /**
+     * 获取全部统计
+     * @return 可序列化为JSON的统计结果
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> latency = new LinkedHashMap<>();
+        for (Map.Entry<ErrorType, LatencyHistogram> entry : this.latencies.entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            long count = histogram.getCount();
+            if (count > 0) {
+                Map<String, Object> item = new LinkedHashMap<>();
+                item.put("count", count);
+                item.put("totalMicros", histogram.getTotalMicros());
+                item.put("buckets", histogram.getBuckets());
+                latency.put(entry.getKey().name(), item);
+            }
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", this.enabled);
+        result.put("errors", this.getErrorCounts());
+        result.put("latency", latency);
+        result.put("parameters", this.getParameterErrorCounts());
+        return result;
+    }
+
+    /**
+     * 清零
+     */
+    @ManagedOperation(description = "清零")
+    public void reset() {
+        for (LongAdder counter : this.errorCounts.values()) {
+            counter.reset();
+        }
+        for (LatencyHistogram histogram : this.latencies.values()) {
+            histogram.reset();
+        }
+        this.parameterCounts.clear();
+    }
+
+}
@@ -0,0 +1,32 @@
+package com.ejobim.spring;
+
+import java.util.Map;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * 错误统计接口
+ * 仅当ejobim.metrics.endpoint为true时注册，路径由ejobim.metrics.path指定
+ * @author zch
+ */
+@RestController
+@ConditionalOnProperty(name = "ejobim.metrics.endpoint", havingValue = "true")
+public class ErrorMetricsController {
+
+    private final ErrorMetrics metrics;
+
+    /**
+     * 构造函数
+     * @param metrics 错误统计
+     */
+    public ErrorMetricsController(ErrorMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @GetMapping("${ejobim.metrics.path:/metrics/errors}")
+    public Map<String, Object> metrics() {
+        return this.metrics.snapshot();
+    }
+
+}
@@ -0,0 +1,264 @@
+package com.ejobim.spring;
+
+import com.alibaba.fastjson.JSON;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+/**
+ * 常量错误响应
+ * 按错误类型预先序列化错误响应结果（错误消息为错误类型描述）的UTF-8字节，直接写入响应输出流，无需每次序列化
+ * 输出与fastjson序列化对应ResponseResult的结果相同
+ * 传入请求的重载在启用CBOR（ResponseResultCborConfigurer）且请求明确接受application/cbor时输出CBOR，规则与内容协商相同
+ * @author zch
+ */
+public final class ErrorResponses {
+
+    /**
+     * 响应内容类型
+     */
+    public static final String CONTENT_TYPE = "application/json;charset=UTF-8";
+
+    private static final Map<ErrorType, byte[]> BODIES = new EnumMap<>(ErrorType.class);
+
+    /**
+     * 带返回对象时root之前的部分
+     */
+    private static final Map<ErrorType, byte[]> ROOT_PREFIXES = new EnumMap<>(ErrorType.class);
+
+    private static final byte[] ROOT_SUFFIX = ",\"success\":false}".getBytes(StandardCharsets.UTF_8);
+
+    private static final String CBOR_CONTENT_TYPE = "application/cbor";
+
+    private static final MediaType APPLICATION_CBOR = MediaType.valueOf(CBOR_CONTENT_TYPE);
+
+    /**
+     * CBOR错误响应，为null时只输出JSON；未启用时不加载jackson-dataformat-cbor
+     */
+    private static volatile CborBodies cborBodies;
+
+    static {
+        for (ErrorType errorType : ErrorType.values()) {
+            String body = JSON.toJSONString(ResponseResult.error(errorType, errorType.getDescription()));
+            BODIES.put(errorType, body.getBytes(StandardCharsets.UTF_8));
+            // 字段按名称排序，root位于errorType之后、success之前
+            String prefix = body.substring(0, body.length() - ROOT_SUFFIX.length) + ",\"root\":";
+            ROOT_PREFIXES.put(errorType, prefix.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * 获取常量错误响应字节，返回的数组为共享实例，不能修改
+     * @param errorType 错误类型
+     * @return 响应字节
+     */
+    public static byte[] body(ErrorType errorType) {
+        return BODIES.get(errorType);
+    }
+
+    /**
+     * 获取带返回对象时root之前的部分（到"root":为止），返回的数组为共享实例，不能修改
+     * 完整响应为rootPrefix + 返回对象的JSON + rootSuffix
+     * @param errorType 错误类型
+     * @return 响应字节
+     */
+    public static byte[] rootPrefix(ErrorType errorType) {
+        return ROOT_PREFIXES.get(errorType);
+    }
+
+    /**
+     * 获取带返回对象时root之后的部分，返回的数组为共享实例，不能修改
+     * @return 响应字节
+     */
+    public static byte[] rootSuffix() {
+        return ROOT_SUFFIX;
+    }
+
+    /**
+     * 设置CBOR编码，由ResponseResultCborConfigurer调用
+     * @param cbor CBOR编解码，为null时只输出JSON
+     */
+    static void setCbor(ResponseResultCbor cbor) {
+        cborBodies = cbor == null ? null : new CborBodies(cbor);
+    }
+
+    /**
+     * 写出常量错误响应，请求明确接受application/cbor且启用CBOR时输出CBOR
+     * @param request servlet请求
+     * @param response servlet响应
+     * @param errorType 错误类型
+     * @throws IOException 写出失败
+     * @throws IllegalStateException 响应已提交
+     */
+    public static void write(HttpServletRequest request, HttpServletResponse response, ErrorType errorType) throws IOException {
+        CborBodies cbor = cborBodies;
+        if (cbor != null && acceptsCbor(request)) {
+            write(response, CBOR_CONTENT_TYPE, cbor.body(errorType));
+        } else {
+            write(response, errorType);
+        }
+    }
+
+    /**
+     * 写出带字符串返回对象的错误响应，请求明确接受application/cbor且启用CBOR时输出CBOR
+     * @param request servlet请求
+     * @param response servlet响应
+     * @param errorType 错误类型
+     * @param root 返回对象，为null时与不带返回对象相同
+     * @throws IOException 写出失败
+     * @throws IllegalStateException 响应已提交
+     */
+    public static void write(HttpServletRequest request, HttpServletResponse response, ErrorType errorType, String root) throws IOException {
+        CborBodies cbor = cborBodies;
+        if (cbor != null && acceptsCbor(request)) {
+            write(response, CBOR_CONTENT_TYPE, root == null ? cbor.body(errorType) : cbor.body(errorType, root));
+        } else {
+            write(response, errorType, root);
+        }
+    }
+
+    /**
+     * 写出常量错误响应（JSON）
+     * @param response servlet响应
+     * @param errorType 错误类型
+     * @throws IOException 写出失败
+     * @throws IllegalStateException 响应已提交
+     */
+    public static void write(HttpServletResponse response, ErrorType errorType) throws IOException {
+        write(response, CONTENT_TYPE, BODIES.get(errorType));
+    }
+
+    /**
+     * 写出带字符串返回对象的错误响应（JSON），只有返回对象需要序列化
+     * @param response servlet响应
+     * @param errorType 错误类型
+     * @param root 返回对象，为null时与不带返回对象相同
+     * @throws IOException 写出失败
+     * @throws IllegalStateException 响应已提交
+     */
+    public static void write(HttpServletResponse response, ErrorType errorType, String root) throws IOException {
+        if (root == null) {
+            write(response, errorType);
+            return;
+        }
+        checkNotCommitted(response);
+        byte[] prefix = ROOT_PREFIXES.get(errorType);
+        byte[] value = JSON.toJSONString(root).getBytes(StandardCharsets.UTF_8);
+        response.setContentType(CONTENT_TYPE);
+        response.setContentLength(prefix.length + value.length + ROOT_SUFFIX.length);
+        ServletOutputStream out = response.getOutputStream();
+        out.write(prefix);
+        out.write(value);
+        out.write(ROOT_SUFFIX);
+        out.flush();
+    }
+
+    private static void write(HttpServletResponse response, String contentType, byte[] body) throws IOException {
+        checkNotCommitted(response);
+        response.setContentType(contentType);
+        response.setContentLength(body.length);
+        ServletOutputStream out = response.getOutputStream();
+        out.write(body);
+        out.flush();
+    }
+
+    /**
+     * 已提交的响应不能再写出错误响应，否则会拼接在已写出的内容之后
+     */
+    private static void checkNotCommitted(HttpServletResponse response) {
+        if (response.isCommitted()) {
+            throw new IllegalStateException("Cannot write error response after the response has been committed");
+        }
+    }
+
+    /**
+     * 请求是否明确接受CBOR
+     */
+    static boolean acceptsCbor(HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        return accept != null && accept.contains("cbor") && negotiate(accept) == APPLICATION_CBOR;
+    }
+
+    /**
+     * 内容协商是否会选择JSON，Accept为空时选择JSON
+     */
+    static boolean acceptsJson(HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept == null || "*/*".equals(accept) || "application/json".equals(accept)) {
+            return true;
+        }
+        return negotiate(accept) == MediaType.APPLICATION_JSON;
+    }
+
+    /**
+     * 在JSON与CBOR之间协商，结果与ResponseResultCborConverter添加在所有转换器之后相同：按具体程度和质量排序后，
+     * 先遇到与JSON兼容的类型（含*&#47;*）时为JSON，先遇到application/cbor时为CBOR
+     * @return MediaType.APPLICATION_JSON、APPLICATION_CBOR，都不接受或Accept格式错误时为null
+     */
+    private static MediaType negotiate(String accept) {
+        try {
+            List<MediaType> types = MediaType.parseMediaTypes(accept);
+            MediaType.sortBySpecificityAndQuality(types);
+            for (MediaType type : types) {
+                if (type.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                    return MediaType.APPLICATION_JSON;
+                }
+                if (type.isCompatibleWith(APPLICATION_CBOR)) {
+                    return APPLICATION_CBOR;
+                }
+            }
+        } catch (InvalidMediaTypeException ex) {
+        }
+        return null;
+    }
+
+    private ErrorResponses() {}
+
+    /**
+     * 按错误类型预先编码的CBOR错误响应
+     */
+    private static final class CborBodies {
+
+        private final ResponseResultCbor cbor;
+
+        private final Map<ErrorType, byte[]> bodies = new EnumMap<>(ErrorType.class);
+
+        CborBodies(ResponseResultCbor cbor) {
+            this.cbor = cbor;
+            for (ErrorType errorType : ErrorType.values()) {
+                this.bodies.put(errorType, this.encode(ResponseResult.error(errorType, errorType.getDescription())));
+            }
+        }
+
+        byte[] body(ErrorType errorType) {
+            return this.bodies.get(errorType);
+        }
+
+        byte[] body(ErrorType errorType, String root) {
+            ResponseResult<String> result = new ResponseResult<>(root);
+            result.success = false;
+            result.errorType = errorType;
+            result.errorMessage = errorType.getDescription();
+            return this.encode(result);
+        }
+
+        private byte[] encode(ResponseResult<?> result) {
+            try {
+                return this.cbor.encode(result);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+    }
+
+}
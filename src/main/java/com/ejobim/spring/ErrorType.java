@@ -2,6 +2,7 @@ package com.ejobim.spring;
 
 /**
  * 错误类型
+ * CBOR响应按序号编码错误类型，新的错误类型只能添加在最后
  *
  * @author zch
  */
@@ -10,121 +11,136 @@ public enum ErrorType {
     /**
      * 错误请求
      */
-    BadRequest,
+    BadRequest("错误请求"),
     
     /**
      * 参数错误
      */
-    ParameterError,
+    ParameterError("参数错误"),
     
     /**
      * 记录已存在
      */
-    RecordExists,
+    RecordExists("记录已存在"),
     
     /**
      * 记录不存在
      */
-    RecordNotExists,
+    RecordNotExists("记录不存在"),
     
     /**
      * 用户已存在
      */
-    UserExists,
+    UserExists("用户已存在"),
     
     /**
      * 用户不存在
      */
-    UserNotExists,
+    UserNotExists("用户不存在"),
     
     /**
      * 密码错误
      */
-    PasswordError,
+    PasswordError("密码错误"),
     
     /**
      * 会话过期
      */
-    SessionExpired,
+    SessionExpired("会话过期"),
     
     /**
      * 未认证
      */
-    Unverified,
+    Unverified("未认证"),
     
     /**
      * 禁止访问
      */
-    AccessDenied,
+    AccessDenied("禁止访问"),
     
     /**
      * 功能受限
      */
-    FunctionLimited,
+    FunctionLimited("功能受限"),
     
     /**
      * 功能过期
      */
-    FunctionExpired,
+    FunctionExpired("功能过期"),
     
     /**
      * 不能删除
      */
-    CanNotDelete,
+    CanNotDelete("不能删除"),
     
     /**
      * 更新失败
      */
-    UpdateFailed,
+    UpdateFailed("更新失败"),
     
     /**
      * 唯一性冲突
      */
-    UniqueConflict,
+    UniqueConflict("唯一性冲突"),
     
     /**
      * 验证失败
      */
-    VerifyFailed,
+    VerifyFailed("验证失败"),
     
     /**
      * 权限受限
      */
-    RightLimited,
+    RightLimited("权限受限"),
     
     /**
      * 余额不足
      */
-    LowBalance,
+    LowBalance("余额不足"),
     
     /**
      * 共享冲突
      */
-    SharingConflict,
+    SharingConflict("共享冲突"),
     
     /**
      * 资源未找到
      */
-    ResourceNotFound,
+    ResourceNotFound("资源未找到"),
     
     /**
      * 系统错误
      */
-    SystemError,
+    SystemError("系统错误"),
     
     /**
      * 无效状态
      */
-    InvalidState,
+    InvalidState("无效状态"),
     
     /**
      * 怀疑是机器人
      */
-    DoubtRobot,
+    DoubtRobot("怀疑是机器人"),
     
     /**
      * 循环引用
      */
-    CircleRef,
-    
+    CircleRef("循环引用");
+
+    private final String description;
+
+    ErrorType(String description) {
+        this.description = description;
+    }
+
+    /**
+     * 获取描述，可作为该类错误的默认错误消息
+     *
+     * @return 描述
+     */
+    public String getDescription() {
+        return this.description;
+    }
+
 }
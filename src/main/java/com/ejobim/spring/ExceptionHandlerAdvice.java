@@ -6,6 +6,8 @@ import javax.validation.ConstraintViolationException;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.TypeMismatchException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.validation.BindException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
@@ -18,26 +20,69 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
  */
 @RestControllerAdvice
 @Slf4j
-public class ExceptionHandlerAdvice {
+public class ExceptionHandlerAdvice implements DisposableBean {
+
+    private final ErrorLogThrottle throttle;
+
+    private final int maxInfoLength;
+
+    /**
+     * 异步日志，为null时在请求线程中输出日志
+     */
+    private final AsyncErrorLogger asyncLogger;
+
+    private final ErrorMetrics metrics;
+
+    /**
+     * 构造函数
+     * @param burst 每个时间窗口内同一种异常完整记录日志的次数
+     * @param windowSeconds 时间窗口长度（秒）
+     * @param maxSignatures 分别计数的异常种类上限
+     * @param maxInfoLength 日志中请求参数、请求头各自的长度上限
+     * @param async 是否由后台线程格式化并输出日志
+     * @param bufferSize 异步日志缓冲区大小
+     * @param maxEntries 异步日志复制的请求参数、请求头各自的数量上限
+     * @param metrics 错误统计
+     */
+    public ExceptionHandlerAdvice(@Value("${ejobim.error-log.burst:5}") int burst,
+            @Value("${ejobim.error-log.window-seconds:60}") long windowSeconds,
+            @Value("${ejobim.error-log.max-signatures:1024}") int maxSignatures,
+            @Value("${ejobim.error-log.max-info-length:8192}") int maxInfoLength,
+            @Value("${ejobim.error-log.async:false}") boolean async,
+            @Value("${ejobim.error-log.buffer-size:1024}") int bufferSize,
+            @Value("${ejobim.error-log.max-entries:64}") int maxEntries,
+            ErrorMetrics metrics) {
+        this.throttle = new ErrorLogThrottle(burst, windowSeconds, maxSignatures);
+        this.maxInfoLength = maxInfoLength;
+        this.asyncLogger = async ? new AsyncErrorLogger(log, bufferSize, maxEntries, maxInfoLength) : null;
+        this.metrics = metrics;
+    }
 
     @ExceptionHandler(BusinessException.class)
     @SneakyThrows
     public ResponseResult handleBusinessError(HttpServletRequest request, HttpServletResponse response, BusinessException ex) {
+        rethrowIfCommitted(response, ex);
+        long start = this.metrics.start();
         ResponseResult result = new ResponseResult();
         result.success = false;
         result.errorType = ex.getErrorType();
         result.errorMessage = ex.getMessage();
+        this.metrics.record(result.errorType, start);
         return result;
     }
 
     @ExceptionHandler(ParameterException.class)
     @SneakyThrows
     public ResponseResult handleParameterError(HttpServletRequest request, HttpServletResponse response, ParameterException ex) {
+        rethrowIfCommitted(response, ex);
+        long start = this.metrics.start();
         ResponseResult result = new ResponseResult();
         result.success = false;
         result.errorType = ErrorType.ParameterError;
         result.errorMessage = ex.getMessage();
         result.root = ex.getErrorMessages();
+        this.metrics.recordParameters(ex);
+        this.metrics.record(ErrorType.ParameterError, start);
         return result;
     }
 
@@ -47,31 +92,56 @@ public class ExceptionHandlerAdvice {
         if (ex.getClass().getName().endsWith("ClientAbortException")) {
             return null;
         }
-        ResponseResult result = new ResponseResult();
-        result.success = false;
+        rethrowIfCommitted(response, ex);
+        long start = this.metrics.start();
+        // 通用错误响应基本固定，直接写出预先序列化的字节
         if ((ex instanceof TypeMismatchException)
                 || (ex instanceof MethodArgumentTypeMismatchException)
                 || (ex instanceof MethodArgumentNotValidException)
                 || (ex instanceof BindException)
                 || (ex instanceof ConstraintViolationException)) {
-            result.errorType = ErrorType.ParameterError;
-            result.errorMessage = "参数错误";
-            result.root = ex.getMessage();
+            ErrorResponses.write(request, response, ErrorType.ParameterError, ex.getMessage());
+            this.metrics.record(ErrorType.ParameterError, start);
         } else {
             this.logError(request, ex);
-            result.success = false;
-            result.errorType = ErrorType.SystemError;
-            result.errorMessage = "系统错误";
+            ErrorResponses.write(request, response, ErrorType.SystemError);
+            this.metrics.record(ErrorType.SystemError, start);
+        }
+        return null;
+    }
+
+    /**
+     * 响应已提交（如流式响应写出一部分后出错）时不能再写出错误响应，否则会拼接在已写出的内容之后；
+     * 重新抛出原异常，Spring按未处理的异常交给容器，由容器中断连接
+     */
+    private static void rethrowIfCommitted(HttpServletResponse response, Exception ex) throws Exception {
+        if (response.isCommitted()) {
+            throw ex;
         }
-        return result;
     }
 
     private void logError(HttpServletRequest request, Exception ex) {
+        // 同一种异常超出限流次数时只计数，不格式化请求信息
+        if (!log.isErrorEnabled() || !this.throttle.tryAcquire(ex)) {
+            return;
+        }
+        if (this.asyncLogger != null) {
+            this.asyncLogger.submit(request, ex);
+            return;
+        }
         StringBuilder buffer = new StringBuilder();
         buffer.append(ex.getMessage());
         buffer.append("\n");
-        buffer.append(ServletUtils.getInfo(request));
+        buffer.append(ServletUtils.getInfo(request, this.maxInfoLength));
         log.error(buffer.toString(), ex);
     }
 
+    @Override
+    public void destroy() {
+        this.throttle.close();
+        if (this.asyncLogger != null) {
+            this.asyncLogger.close();
+        }
+    }
+
 }
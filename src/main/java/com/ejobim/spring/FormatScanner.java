@@ -0,0 +1,212 @@
+package com.ejobim.spring;
+
+/**
+ * 格式扫描器
+ * 单趟扫描、不分配对象地判断常用格式，判定结果与ParameterValidator中对应的正则模式一致
+ * @author zch
+ */
+public final class FormatScanner {
+
+    /**
+     * 域名标签最大长度
+     */
+    private static final int MAX_LABEL_LENGTH = 63;
+
+    /**
+     * 是否email，与ParameterValidator.EMAIL_PATTERN一致
+     * @param value 待判断的值
+     * @return 是否email
+     */
+    public static boolean isEmail(CharSequence value) {
+        int length = value.length();
+        int i = 0;
+        // 本地部分：\w+([-+.]\w+)*
+        boolean afterWord = false;
+        for (; i < length; i++) {
+            char c = value.charAt(i);
+            if (isWordChar(c)) {
+                afterWord = true;
+            } else if (afterWord && (c == '-' || c == '+' || c == '.')) {
+                afterWord = false;
+            } else {
+                break;
+            }
+        }
+        if (!afterWord || i >= length || value.charAt(i) != '@') {
+            return false;
+        }
+        // 域名部分：\w+([-.]\w+)*\.\w+([-.]\w+)*，即以[-.]分隔的单词序列，至少有一个分隔符是点
+        afterWord = false;
+        boolean hasDot = false;
+        for (i++; i < length; i++) {
+            char c = value.charAt(i);
+            if (isWordChar(c)) {
+                afterWord = true;
+            } else if (afterWord && (c == '-' || c == '.')) {
+                afterWord = false;
+                hasDot |= c == '.';
+            } else {
+                return false;
+            }
+        }
+        return afterWord && hasDot;
+    }
+
+    /**
+     * 是否IP（v4），与ParameterValidator.IPV4_PATTERN一致
+     * 每段为0-255且不能有前导零
+     * @param value 待判断的值
+     * @return 是否IP（v4）
+     */
+    public static boolean isIPv4(CharSequence value) {
+        return isIPv4(value, 0, value.length());
+    }
+
+    /**
+     * 指定区间是否IP（v4）
+     * @param value 待判断的值
+     * @param from 起始位置（包含）
+     * @param to 结束位置（不包含）
+     * @return 是否IP（v4）
+     */
+    public static boolean isIPv4(CharSequence value, int from, int to) {
+        int i = from;
+        for (int part = 0; part < 4; part++) {
+            if (part > 0) {
+                if (i >= to || value.charAt(i) != '.') {
+                    return false;
+                }
+                i++;
+            }
+            int start = i;
+            int octet = 0;
+            while (i < to && i - start < 3) {
+                char c = value.charAt(i);
+                if (c < '0' || c > '9') {
+                    break;
+                }
+                octet = octet * 10 + (c - '0');
+                i++;
+            }
+            int digits = i - start;
+            if (digits == 0 || octet > 255) {
+                return false;
+            }
+            if (digits > 1 && value.charAt(start) == '0') {
+                return false;
+            }
+        }
+        return i == to;
+    }
+
+    /**
+     * 是否域名，与ParameterValidator.DOMAIN_PATTERN一致
+     * 至少两个标签，每个标签以字母或数字开头、长度1-63，允许末尾有一个点
+     * @param value 待判断的值
+     * @return 是否域名
+     */
+    public static boolean isDomain(CharSequence value) {
+        int length = value.length();
+        int labels = 0;
+        int labelLength = 0;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c == '.') {
+                if (labelLength == 0) {
+                    return false;
+                }
+                labels++;
+                labelLength = 0;
+            } else if (labelLength == 0 ? isAlphanumeric(c) : (c == '-' || isAlphanumeric(c))) {
+                if (++labelLength > MAX_LABEL_LENGTH) {
+                    return false;
+                }
+            } else {
+                return false;
+            }
+        }
+        // 末尾可选的点之前的标签已在遇到点时计数
+        if (labelLength > 0) {
+            labels++;
+        }
+        return labels >= 2;
+    }
+
+    /**
+     * 是否主机地址（IP（v4）或域名）
+     * @param value 待判断的值
+     * @return 是否主机地址
+     */
+    public static boolean isHost(CharSequence value) {
+        return isIPv4(value) || isDomain(value);
+    }
+
+    /**
+     * 是否手机号，与ParameterValidator.MOBILE_PATTERN一致
+     * @param value 待判断的值
+     * @return 是否手机号
+     */
+    public static boolean isMobile(CharSequence value) {
+        if (value.length() != 11 || value.charAt(0) != '1') {
+            return false;
+        }
+        char second = value.charAt(1);
+        if (second != '3' && second != '4' && second != '5' && second != '7' && second != '8' && second != '9') {
+            return false;
+        }
+        for (int i = 2; i < 11; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 是否Html颜色值，与ParameterValidator.HTML_COLOR_PATTERN一致
+     * @param value 待判断的值
+     * @return 是否Html颜色值
+     */
+    public static boolean isHtmlColor(CharSequence value) {
+        if (value.length() != 7 || value.charAt(0) != '#') {
+            return false;
+        }
+        for (int i = 1; i < 7; i++) {
+            if (!isHexDigit(value.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 是否正则中的单词字符（\w，即[a-zA-Z_0-9]）
+     * @param c 字符
+     * @return 是否单词字符
+     */
+    static boolean isWordChar(char c) {
+        return c == '_' || isAlphanumeric(c);
+    }
+
+    /**
+     * 是否ASCII字母或数字
+     * @param c 字符
+     * @return 是否字母或数字
+     */
+    static boolean isAlphanumeric(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
+    }
+
+    /**
+     * 是否十六进制数字
+     * @param c 字符
+     * @return 是否十六进制数字
+     */
+    static boolean isHexDigit(char c) {
+        return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+    }
+
+    private FormatScanner() {}
+
+}
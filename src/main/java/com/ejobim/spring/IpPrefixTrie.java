@@ -0,0 +1,322 @@
+package com.ejobim.spring;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Arrays;
+import lombok.NonNull;
+
+/**
+ * IP地址前缀树
+ * 按位存储IPv4、IPv6的CIDR网段，判断地址是否属于其中某个网段，判断时直接扫描字符而不分配对象
+ * IPv4映射的IPv6地址（::ffff:a.b.c.d）按IPv4地址匹配
+ * 由of创建后只读，可由多个线程共享
+ * @author zch
+ */
+public final class IpPrefixTrie {
+
+    /**
+     * 空前缀树
+     */
+    public static final IpPrefixTrie EMPTY = new IpPrefixTrie();
+
+    private static final int NONE = 0;
+
+    /**
+     * 节点的两个子节点，children[2*n]为0位，children[2*n+1]为1位，0表示没有子节点（根节点不会成为子节点）
+     */
+    private int[] children = new int[16];
+
+    /**
+     * 网段终点节点
+     */
+    private boolean[] terminal = new boolean[8];
+
+    private int nodeCount = 2;
+
+    private static final int IPV4_ROOT = 0;
+
+    private static final int IPV6_ROOT = 1;
+
+    private int rangeCount = 0;
+
+    private IpPrefixTrie() {}
+
+    /**
+     * 由CIDR网段创建
+     * @param cidrs 网段，如10.0.0.0/8、fd00::/8，不带前缀长度时表示单个地址，空白项忽略
+     * @return 前缀树
+     * @throws IllegalArgumentException 网段格式不正确
+     */
+    public static IpPrefixTrie of(@NonNull String... cidrs) {
+        IpPrefixTrie trie = new IpPrefixTrie();
+        for (String cidr : cidrs) {
+            if (cidr != null && !cidr.trim().isEmpty()) {
+                trie.add(cidr);
+            }
+        }
+        return trie;
+    }
+
+    private void add(@NonNull String cidr) {
+        String text = cidr.trim();
+        int slash = text.indexOf('/');
+        int end = slash < 0 ? text.length() : slash;
+        long[] address = new long[2];
+        int bits = parse(text, 0, end, address);
+        if (bits == 0) {
+            throw new IllegalArgumentException("Invalid CIDR: " + cidr);
+        }
+        boolean mapped = bits < 0;
+        bits = Math.abs(bits);
+        int prefix = bits;
+        if (slash >= 0) {
+            long value = NumberParser.parseInt(text, slash + 1, text.length());
+            if (value < 0 || value > bits || text.charAt(slash + 1) == '+' || text.charAt(slash + 1) == '-') {
+                throw new IllegalArgumentException("Invalid CIDR: " + cidr);
+            }
+            prefix = (int) value;
+        }
+        if (mapped) {
+            // 查找时IPv4映射地址按IPv4匹配，因此按IPv4网段存储
+            if (prefix < 96) {
+                throw new IllegalArgumentException("Invalid CIDR: " + cidr);
+            }
+            bits = 32;
+            prefix -= 96;
+        }
+        int node = bits == 32 ? IPV4_ROOT : IPV6_ROOT;
+        for (int i = 0; i < prefix && !this.terminal[node]; i++) {
+            int bit = bit(address, bits, i);
+            int child = this.children[2 * node + bit];
+            if (child == NONE) {
+                child = this.newNode();
+                this.children[2 * node + bit] = child;
+            }
+            node = child;
+        }
+        this.terminal[node] = true;
+        this.rangeCount++;
+    }
+
+    /**
+     * 是否没有网段
+     * @return 是否为空
+     */
+    public boolean isEmpty() {
+        return this.rangeCount == 0;
+    }
+
+    /**
+     * 地址是否属于某个网段
+     * @param address 地址文本
+     * @return 是否属于，格式不正确时返回false
+     */
+    public boolean contains(CharSequence address) {
+        return address != null && this.contains(address, 0, address.length());
+    }
+
+    /**
+     * 地址是否属于某个网段
+     * @param text 文本
+     * @param from 地址起始位置（包含）
+     * @param to 地址结束位置（不包含）
+     * @return 是否属于，格式不正确时返回false
+     */
+    public boolean contains(CharSequence text, int from, int to) {
+        if (this.rangeCount == 0) {
+            return false;
+        }
+        long v4 = parseIPv4(text, from, to);
+        if (v4 >= 0) {
+            return this.containsIPv4(v4);
+        }
+        if (!hasColon(text, from, to)) {
+            return false;
+        }
+        // 逐组扫描IPv6地址，::之前的组按位置放入高位，之后的组移入低位
+        long headHigh = 0;
+        long headLow = 0;
+        int headGroups = 0;
+        long tailHigh = 0;
+        long tailLow = 0;
+        int tailGroups = 0;
+        boolean compressed = false;
+        int i = from;
+        if (i + 1 < to && text.charAt(i) == ':' && text.charAt(i + 1) == ':') {
+            compressed = true;
+            i += 2;
+        } else if (i < to && text.charAt(i) == ':') {
+            return false;
+        }
+        while (i < to) {
+            int start = i;
+            int group = 0;
+            while (i < to && i - start < 5 && FormatScanner.isHexDigit(text.charAt(i))) {
+                group = (group << 4) | Character.digit(text.charAt(i), 16);
+                i++;
+            }
+            int groups = compressed ? tailGroups : headGroups;
+            if (i < to && text.charAt(i) == '.') {
+                // 末尾嵌入的IPv4地址占两组
+                long embedded = parseIPv4(text, start, to);
+                if (embedded < 0 || groups + 2 > 8) {
+                    return false;
+                }
+                if (compressed) {
+                    tailHigh = (tailHigh << 32) | (tailLow >>> 32);
+                    tailLow = (tailLow << 32) | embedded;
+                    tailGroups += 2;
+                } else {
+                    headLow |= embedded;
+                    headGroups += 2;
+                }
+                i = to;
+                break;
+            }
+            if (i == start || i - start > 4 || groups == 8) {
+                return false;
+            }
+            if (compressed) {
+                tailHigh = (tailHigh << 16) | (tailLow >>> 48);
+                tailLow = (tailLow << 16) | group;
+                tailGroups++;
+            } else {
+                int shift = 112 - 16 * headGroups;
+                if (shift >= 64) {
+                    headHigh |= (long) group << (shift - 64);
+                } else {
+                    headLow |= (long) group << shift;
+                }
+                headGroups++;
+            }
+            if (i == to) {
+                break;
+            }
+            if (text.charAt(i) != ':') {
+                return false;
+            }
+            i++;
+            if (i < to && text.charAt(i) == ':') {
+                if (compressed) {
+                    return false;
+                }
+                compressed = true;
+                i++;
+            } else if (i == to) {
+                return false;
+            }
+        }
+        if (compressed ? headGroups + tailGroups > 7 : headGroups != 8) {
+            return false;
+        }
+        long high = headHigh | tailHigh;
+        long low = headLow | tailLow;
+        if (high == 0 && (low >>> 32) == 0xFFFFL) {
+            return this.containsIPv4(low & 0xFFFFFFFFL);
+        }
+        int node = IPV6_ROOT;
+        for (int bit = 0; bit < 128; bit++) {
+            if (this.terminal[node]) {
+                return true;
+            }
+            long word = bit < 64 ? high : low;
+            node = this.children[2 * node + (int) ((word >>> (63 - (bit & 63))) & 1)];
+            if (node == NONE) {
+                return false;
+            }
+        }
+        return this.terminal[node];
+    }
+
+    private boolean containsIPv4(long address) {
+        int node = IPV4_ROOT;
+        for (int bit = 0; bit < 32; bit++) {
+            if (this.terminal[node]) {
+                return true;
+            }
+            node = this.children[2 * node + (int) ((address >>> (31 - bit)) & 1)];
+            if (node == NONE) {
+                return false;
+            }
+        }
+        return this.terminal[node];
+    }
+
+    /**
+     * 解析点分十进制IPv4地址
+     * @return 32位无符号值，格式不正确时返回-1
+     */
+    private static long parseIPv4(CharSequence text, int from, int to) {
+        if (!FormatScanner.isIPv4(text, from, to)) {
+            return -1;
+        }
+        long address = 0;
+        int octet = 0;
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (c == '.') {
+                address = (address << 8) | octet;
+                octet = 0;
+            } else {
+                octet = octet * 10 + (c - '0');
+            }
+        }
+        return (address << 8) | octet;
+    }
+
+    /**
+     * 解析网段地址，只在配置时调用
+     * @param address 输出，IPv4在address[1]低32位，IPv6高64位在address[0]、低64位在address[1]
+     * @return 地址位数32或128，IPv4映射的IPv6地址返回-128，格式不正确时返回0
+     */
+    private static int parse(String text, int from, int to, long[] address) {
+        long v4 = parseIPv4(text, from, to);
+        if (v4 >= 0) {
+            address[1] = v4;
+            return 32;
+        }
+        if (!hasColon(text, from, to)) {
+            return 0;
+        }
+        try {
+            // 含冒号的文本按IPv6字面量解析，不会查询DNS
+            byte[] bytes = InetAddress.getByName(text.substring(from, to)).getAddress();
+            if (bytes.length == 4) {
+                address[1] = ((bytes[0] & 0xFFL) << 24) | ((bytes[1] & 0xFFL) << 16) | ((bytes[2] & 0xFFL) << 8) | (bytes[3] & 0xFFL);
+                return -128;
+            }
+            for (int i = 0; i < 16; i++) {
+                address[i >> 3] = (address[i >> 3] << 8) | (bytes[i] & 0xFFL);
+            }
+            return 128;
+        } catch (UnknownHostException ex) {
+            return 0;
+        }
+    }
+
+    private static boolean hasColon(CharSequence text, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (text.charAt(i) == ':') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int bit(long[] address, int bits, int index) {
+        if (bits == 32) {
+            return (int) ((address[1] >>> (31 - index)) & 1);
+        }
+        long word = address[index >> 6];
+        return (int) ((word >>> (63 - (index & 63))) & 1);
+    }
+
+    private int newNode() {
+        if (this.nodeCount == this.terminal.length) {
+            this.terminal = Arrays.copyOf(this.terminal, this.nodeCount * 2);
+            this.children = Arrays.copyOf(this.children, this.nodeCount * 4);
+        }
+        return this.nodeCount++;
+    }
+
+}
@@ -0,0 +1,90 @@
+package com.ejobim.spring;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 耗时直方图
+ * 按2的幂微秒划分桶，第i个桶记录不超过2^i微秒的耗时，最后一个桶记录更长的耗时
+ * 记录时只累加计数，不加锁
+ * @author zch
+ */
+public class LatencyHistogram {
+
+    /**
+     * 有上限的桶数，最大上限2^24微秒（约16.8秒）
+     */
+    private static final int BOUNDED_BUCKETS = 25;
+
+    private final LongAdder[] buckets = new LongAdder[BOUNDED_BUCKETS + 1];
+
+    private final LongAdder totalNanos = new LongAdder();
+
+    /**
+     * 构造函数
+     */
+    public LatencyHistogram() {
+        for (int i = 0; i < this.buckets.length; i++) {
+            this.buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * 记录一次耗时
+     * @param nanos 耗时（纳秒）
+     */
+    public void record(long nanos) {
+        long micros = Math.max(nanos, 0) / 1000;
+        // 不超过2^i微秒的最小i
+        int index = micros <= 1 ? 0 : 64 - Long.numberOfLeadingZeros(micros - 1);
+        this.buckets[Math.min(index, BOUNDED_BUCKETS)].increment();
+        this.totalNanos.add(nanos);
+    }
+
+    /**
+     * 获取记录次数
+     * @return 次数
+     */
+    public long getCount() {
+        long count = 0;
+        for (LongAdder bucket : this.buckets) {
+            count += bucket.sum();
+        }
+        return count;
+    }
+
+    /**
+     * 获取总耗时（微秒）
+     * @return 总耗时
+     */
+    public long getTotalMicros() {
+        return this.totalNanos.sum() / 1000;
+    }
+
+    /**
+     * 获取非空桶的计数
+     * @return 桶上限（如"<=64us"）与计数的映射，按上限升序
+     */
+    public Map<String, Long> getBuckets() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (int i = 0; i < this.buckets.length; i++) {
+            long count = this.buckets[i].sum();
+            if (count > 0) {
+                result.put(i < BOUNDED_BUCKETS ? "<=" + (1L << i) + "us" : ">" + (1L << (BOUNDED_BUCKETS - 1)) + "us", count);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 清零
+     */
+    public void reset() {
+        for (LongAdder bucket : this.buckets) {
+            bucket.reset();
+        }
+        this.totalNanos.reset();
+    }
+
+}
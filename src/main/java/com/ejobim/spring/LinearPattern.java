@@ -0,0 +1,694 @@
+package com.ejobim.spring;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 线性时间正则
+ * 把正则的常用子集编译为NFA并用状态集合模拟，匹配时间与输入长度成线性关系，不会因回溯而失控
+ * 支持：字面字符、转义、.、字符类（含范围、取反、\d\w\s等）、分组（含非捕获分组）、|、* + ? {n,m}（含惰性形式）、^ $
+ * 不支持：反向引用、环视、独占量词、内嵌标志、类的交集与嵌套、\b \p \Q等，这些模式应回退到JDK正则
+ * 重复的子表达式中含有^ $时也不支持：JDK对重复中的锚点和空迭代有特殊处理，结果与NFA模拟不同
+ * 匹配语义等同于无标志Pattern的Matcher.matches()
+ * @author zch
+ */
+public final class LinearPattern {
+
+    /**
+     * 最大指令数，超过则视为不支持（如过大的{n,m}展开）
+     */
+    private static final int MAX_INSTRUCTIONS = 10000;
+
+    /**
+     * 最大重复次数
+     */
+    private static final int MAX_REPEAT = 1000;
+
+    private static final int OP_CHAR = 0;
+    private static final int OP_SPLIT = 1;
+    private static final int OP_JUMP = 2;
+    private static final int OP_BEGIN = 3;
+    private static final int OP_END = 4;
+    private static final int OP_MATCH = 5;
+
+    private static final int MAX_CODE_POINT = Character.MAX_CODE_POINT;
+
+    private static final int[] DIGIT = {'0', '9'};
+    private static final int[] WORD = {'0', '9', 'A', 'Z', '_', '_', 'a', 'z'};
+    private static final int[] SPACE = {'\t', '\r', ' ', ' '};
+    private static final int[] NOT_LINE_TERMINATOR = complement(normalize(new int[]{'\n', '\n', '\r', '\r', 0x85, 0x85, 0x2028, 0x2029}));
+
+    /**
+     * 不支持的模式（仅在编译时用于跳出解析）
+     */
+    private static final RuntimeException UNSUPPORTED = new RuntimeException("unsupported pattern", null, false, false) {};
+
+    private final String regex;
+
+    private final int[] opcodes;
+
+    private final int[] targets;
+
+    private final int[] alternates;
+
+    private final int[][] ranges;
+
+    private LinearPattern(String regex, Program program) {
+        this.regex = regex;
+        int size = program.size;
+        this.opcodes = Arrays.copyOf(program.opcodes, size);
+        this.targets = Arrays.copyOf(program.targets, size);
+        this.alternates = Arrays.copyOf(program.alternates, size);
+        this.ranges = Arrays.copyOf(program.ranges, size);
+    }
+
+    /**
+     * 尝试编译
+     * 调用方应已用Pattern.compile检查过语法
+     * @param regex 正则
+     * @return 线性时间正则，模式不在支持的子集内则返回null
+     */
+    public static LinearPattern tryCompile(String regex) {
+        try {
+            Node node = new Parser(regex).parse();
+            Program program = new Program();
+            node.emit(program);
+            program.add(OP_MATCH, 0, 0, null);
+            return new LinearPattern(regex, program);
+        } catch (RuntimeException ex) {
+            if (ex == UNSUPPORTED) {
+                return null;
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * 整个输入是否匹配
+     * @param input 输入
+     * @return 是否匹配
+     */
+    public boolean matches(CharSequence input) {
+        int size = this.opcodes.length;
+        int[] current = new int[size];
+        int[] next = new int[size];
+        int[] marks = new int[size];
+        int[] stack = new int[size * 2 + 1];
+        int length = input.length();
+        int generation = 1;
+        int count = this.closure(0, input, 0, length, current, 0, marks, generation, stack);
+        int position = 0;
+        while (position < length) {
+            if (count == 0) {
+                return false;
+            }
+            int codePoint = Character.codePointAt(input, position);
+            int nextPosition = position + Character.charCount(codePoint);
+            generation++;
+            int nextCount = 0;
+            for (int i = 0; i < count; i++) {
+                int pc = current[i];
+                if (this.opcodes[pc] == OP_CHAR && contains(this.ranges[pc], codePoint)) {
+                    nextCount = this.closure(pc + 1, input, nextPosition, length, next, nextCount, marks, generation, stack);
+                }
+            }
+            int[] swap = current;
+            current = next;
+            next = swap;
+            count = nextCount;
+            position = nextPosition;
+        }
+        for (int i = 0; i < count; i++) {
+            if (this.opcodes[current[i]] == OP_MATCH) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 把从指令start经空转移可达的字符指令和匹配指令加入列表
+     * @return 列表新长度
+     */
+    private int closure(int start, CharSequence input, int position, int length, int[] list, int count, int[] marks, int generation, int[] stack) {
+        int top = 0;
+        stack[top++] = start;
+        while (top > 0) {
+            int pc = stack[--top];
+            if (marks[pc] == generation) {
+                continue;
+            }
+            marks[pc] = generation;
+            switch (this.opcodes[pc]) {
+                case OP_JUMP:
+                    stack[top++] = this.targets[pc];
+                    break;
+                case OP_SPLIT:
+                    stack[top++] = this.alternates[pc];
+                    stack[top++] = this.targets[pc];
+                    break;
+                case OP_BEGIN:
+                    if (position == 0) {
+                        stack[top++] = pc + 1;
+                    }
+                    break;
+                case OP_END:
+                    if (isEnd(input, position, length)) {
+                        stack[top++] = pc + 1;
+                    }
+                    break;
+                default:
+                    list[count++] = pc;
+                    break;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * $是否在该位置成立，与非MULTILINE模式下的JDK实现一致：输入末尾，或末尾的行结束符之前
+     */
+    private static boolean isEnd(CharSequence input, int position, int length) {
+        if (position == length) {
+            return true;
+        }
+        if (position == length - 2) {
+            return input.charAt(position) == '\r' && input.charAt(position + 1) == '\n';
+        }
+        if (position == length - 1) {
+            char c = input.charAt(position);
+            if (c == '\n') {
+                return position == 0 || input.charAt(position - 1) != '\r';
+            }
+            return c == '\r' || c == 0x85 || (c | 1) == 0x2029;
+        }
+        return false;
+    }
+
+    private static boolean contains(int[] ranges, int codePoint) {
+        for (int i = 0; i < ranges.length; i += 2) {
+            if (codePoint < ranges[i]) {
+                return false;
+            }
+            if (codePoint <= ranges[i + 1]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 排序并合并区间
+     */
+    private static int[] normalize(int[] ranges) {
+        int pairs = ranges.length / 2;
+        long[] sorted = new long[pairs];
+        for (int i = 0; i < pairs; i++) {
+            sorted[i] = ((long) ranges[i * 2] << 32) | ranges[i * 2 + 1];
+        }
+        Arrays.sort(sorted);
+        int[] result = new int[ranges.length];
+        int size = 0;
+        for (long pair : sorted) {
+            int low = (int) (pair >>> 32);
+            int high = (int) pair;
+            if (size > 0 && low <= result[size - 1] + 1) {
+                result[size - 1] = Math.max(result[size - 1], high);
+            } else {
+                result[size++] = low;
+                result[size++] = high;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    /**
+     * 求已规整区间的补集
+     */
+    private static int[] complement(int[] ranges) {
+        int[] result = new int[ranges.length + 2];
+        int size = 0;
+        int low = 0;
+        for (int i = 0; i < ranges.length; i += 2) {
+            if (ranges[i] > low) {
+                result[size++] = low;
+                result[size++] = ranges[i] - 1;
+            }
+            low = ranges[i + 1] + 1;
+        }
+        if (low <= MAX_CODE_POINT) {
+            result[size++] = low;
+            result[size++] = MAX_CODE_POINT;
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    @Override
+    public String toString() {
+        return this.regex;
+    }
+
+    /**
+     * 指令序列
+     */
+    private static final class Program {
+
+        int[] opcodes = new int[16];
+        int[] targets = new int[16];
+        int[] alternates = new int[16];
+        int[][] ranges = new int[16][];
+        int size;
+
+        int add(int opcode, int target, int alternate, int[] charRanges) {
+            if (this.size >= MAX_INSTRUCTIONS) {
+                throw UNSUPPORTED;
+            }
+            if (this.size == this.opcodes.length) {
+                int capacity = this.size * 2;
+                this.opcodes = Arrays.copyOf(this.opcodes, capacity);
+                this.targets = Arrays.copyOf(this.targets, capacity);
+                this.alternates = Arrays.copyOf(this.alternates, capacity);
+                this.ranges = Arrays.copyOf(this.ranges, capacity);
+            }
+            this.opcodes[this.size] = opcode;
+            this.targets[this.size] = target;
+            this.alternates[this.size] = alternate;
+            this.ranges[this.size] = charRanges;
+            return this.size++;
+        }
+    }
+
+    /**
+     * 语法树节点
+     */
+    private interface Node {
+
+        void emit(Program program);
+    }
+
+    private static final class CharNode implements Node {
+
+        final int[] ranges;
+
+        CharNode(int[] ranges) {
+            this.ranges = ranges;
+        }
+
+        @Override
+        public void emit(Program program) {
+            program.add(OP_CHAR, 0, 0, this.ranges);
+        }
+    }
+
+    private static final class AssertNode implements Node {
+
+        final int opcode;
+
+        AssertNode(int opcode) {
+            this.opcode = opcode;
+        }
+
+        @Override
+        public void emit(Program program) {
+            program.add(this.opcode, 0, 0, null);
+        }
+    }
+
+    private static final class ConcatNode implements Node {
+
+        final List<Node> children;
+
+        ConcatNode(List<Node> children) {
+            this.children = children;
+        }
+
+        @Override
+        public void emit(Program program) {
+            for (Node child : this.children) {
+                child.emit(program);
+            }
+        }
+    }
+
+    private static final class AltNode implements Node {
+
+        final List<Node> children;
+
+        AltNode(List<Node> children) {
+            this.children = children;
+        }
+
+        @Override
+        public void emit(Program program) {
+            int[] jumps = new int[this.children.size() - 1];
+            for (int i = 0; i < jumps.length; i++) {
+                int split = program.add(OP_SPLIT, 0, 0, null);
+                program.targets[split] = program.size;
+                this.children.get(i).emit(program);
+                jumps[i] = program.add(OP_JUMP, 0, 0, null);
+                program.alternates[split] = program.size;
+            }
+            this.children.get(jumps.length).emit(program);
+            for (int jump : jumps) {
+                program.targets[jump] = program.size;
+            }
+        }
+    }
+
+    private static final class RepeatNode implements Node {
+
+        final Node child;
+        final int min;
+        final int max;
+
+        RepeatNode(Node child, int min, int max) {
+            this.child = child;
+            this.min = min;
+            this.max = max;
+        }
+
+        @Override
+        public void emit(Program program) {
+            for (int i = 0; i < this.min; i++) {
+                this.child.emit(program);
+            }
+            if (this.max < 0) {
+                int split = program.add(OP_SPLIT, 0, 0, null);
+                program.targets[split] = program.size;
+                this.child.emit(program);
+                program.add(OP_JUMP, split, 0, null);
+                program.alternates[split] = program.size;
+                return;
+            }
+            int optional = this.max - this.min;
+            int[] splits = new int[optional];
+            for (int i = 0; i < optional; i++) {
+                splits[i] = program.add(OP_SPLIT, 0, 0, null);
+                program.targets[splits[i]] = program.size;
+                this.child.emit(program);
+            }
+            for (int split : splits) {
+                program.alternates[split] = program.size;
+            }
+        }
+    }
+
+    /**
+     * 递归下降解析器，遇到子集外的语法抛出UNSUPPORTED
+     */
+    private static final class Parser {
+
+        final String regex;
+        int position;
+
+        /**
+         * 已解析的锚点数
+         */
+        int anchors;
+
+        Parser(String regex) {
+            this.regex = regex;
+        }
+
+        Node parse() {
+            Node node = this.parseAlternation();
+            if (this.position != this.regex.length()) {
+                throw UNSUPPORTED;
+            }
+            return node;
+        }
+
+        private boolean more() {
+            return this.position < this.regex.length();
+        }
+
+        private char peek() {
+            return this.regex.charAt(this.position);
+        }
+
+        private Node parseAlternation() {
+            List<Node> alternatives = new ArrayList<>();
+            alternatives.add(this.parseConcatenation());
+            while (this.more() && this.peek() == '|') {
+                this.position++;
+                alternatives.add(this.parseConcatenation());
+            }
+            return alternatives.size() == 1 ? alternatives.get(0) : new AltNode(alternatives);
+        }
+
+        private Node parseConcatenation() {
+            List<Node> items = new ArrayList<>();
+            while (this.more() && this.peek() != '|' && this.peek() != ')') {
+                items.add(this.parseRepetition());
+            }
+            return items.size() == 1 ? items.get(0) : new ConcatNode(items);
+        }
+
+        private Node parseRepetition() {
+            int anchors = this.anchors;
+            Node atom = this.parseAtom();
+            if (!this.more()) {
+                return atom;
+            }
+            int min;
+            int max;
+            char c = this.peek();
+            if (c == '*') {
+                min = 0;
+                max = -1;
+            } else if (c == '+') {
+                min = 1;
+                max = -1;
+            } else if (c == '?') {
+                min = 0;
+                max = 1;
+            } else if (c == '{') {
+                int close = this.regex.indexOf('}', this.position);
+                if (close < 0) {
+                    throw UNSUPPORTED;
+                }
+                String bounds = this.regex.substring(this.position + 1, close);
+                int comma = bounds.indexOf(',');
+                min = parseCount(comma < 0 ? bounds : bounds.substring(0, comma));
+                max = comma < 0 ? min : (comma == bounds.length() - 1 ? -1 : parseCount(bounds.substring(comma + 1)));
+                if (max >= 0 && max < min) {
+                    throw UNSUPPORTED;
+                }
+                this.position = close;
+            } else {
+                return atom;
+            }
+            this.position++;
+            if (this.anchors != anchors) {
+                // 锚点本身或含有锚点的分组被重复
+                throw UNSUPPORTED;
+            }
+            if (this.more() && this.peek() == '?') {
+                // 惰性量词不改变整体是否匹配
+                this.position++;
+            }
+            if (this.more() && "*+?{".indexOf(this.peek()) >= 0) {
+                throw UNSUPPORTED;
+            }
+            return new RepeatNode(atom, min, max);
+        }
+
+        private static int parseCount(String text) {
+            if (text.isEmpty() || text.length() > 4) {
+                throw UNSUPPORTED;
+            }
+            int count = 0;
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c < '0' || c > '9') {
+                    throw UNSUPPORTED;
+                }
+                count = count * 10 + (c - '0');
+            }
+            if (count > MAX_REPEAT) {
+                throw UNSUPPORTED;
+            }
+            return count;
+        }
+
+        private Node parseAtom() {
+            char c = this.peek();
+            switch (c) {
+                case '(':
+                    this.position++;
+                    if (this.more() && this.peek() == '?') {
+                        if (this.position + 1 < this.regex.length() && this.regex.charAt(this.position + 1) == ':') {
+                            this.position += 2;
+                        } else {
+                            throw UNSUPPORTED;
+                        }
+                    }
+                    Node group = this.parseAlternation();
+                    if (!this.more() || this.peek() != ')') {
+                        throw UNSUPPORTED;
+                    }
+                    this.position++;
+                    return group;
+                case '[':
+                    this.position++;
+                    return new CharNode(this.parseClass());
+                case '.':
+                    this.position++;
+                    return new CharNode(NOT_LINE_TERMINATOR);
+                case '^':
+                    this.position++;
+                    this.anchors++;
+                    return new AssertNode(OP_BEGIN);
+                case '$':
+                    this.position++;
+                    this.anchors++;
+                    return new AssertNode(OP_END);
+                case '\\':
+                    this.position++;
+                    return new CharNode(this.parseEscape());
+                case '*':
+                case '+':
+                case '?':
+                case '{':
+                    throw UNSUPPORTED;
+                default:
+                    int codePoint = this.regex.codePointAt(this.position);
+                    this.position += Character.charCount(codePoint);
+                    return new CharNode(new int[]{codePoint, codePoint});
+            }
+        }
+
+        /**
+         * 解析转义，返回字符区间
+         */
+        private int[] parseEscape() {
+            if (!this.more()) {
+                throw UNSUPPORTED;
+            }
+            char c = this.regex.charAt(this.position++);
+            switch (c) {
+                case 'd':
+                    return DIGIT;
+                case 'D':
+                    return complement(DIGIT);
+                case 'w':
+                    return WORD;
+                case 'W':
+                    return complement(WORD);
+                case 's':
+                    return SPACE;
+                case 'S':
+                    return complement(SPACE);
+                case 't':
+                    return single('\t');
+                case 'n':
+                    return single('\n');
+                case 'r':
+                    return single('\r');
+                case 'f':
+                    return single('\f');
+                case 'a':
+                    return single('\u0007');
+                case 'e':
+                    return single('\u001B');
+                case 'x':
+                    return single(this.parseHex(2));
+                case 'u':
+                    return single(this.parseHex(4));
+                default:
+                    if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')) {
+                        throw UNSUPPORTED;
+                    }
+                    return single(c);
+            }
+        }
+
+        private int parseHex(int digits) {
+            if (this.position + digits > this.regex.length()) {
+                throw UNSUPPORTED;
+            }
+            int value = 0;
+            for (int i = 0; i < digits; i++) {
+                int digit = Character.digit(this.regex.charAt(this.position++), 16);
+                if (digit < 0) {
+                    throw UNSUPPORTED;
+                }
+                value = value * 16 + digit;
+            }
+            return value;
+        }
+
+        private static int[] single(int codePoint) {
+            return new int[]{codePoint, codePoint};
+        }
+
+        private static boolean isSingle(int[] ranges) {
+            return ranges.length == 2 && ranges[0] == ranges[1];
+        }
+
+        /**
+         * 解析字符类（[之后），返回规整后的字符区间
+         */
+        private int[] parseClass() {
+            boolean negated = false;
+            if (this.more() && this.peek() == '^') {
+                negated = true;
+                this.position++;
+            }
+            if (this.more() && this.peek() == ']') {
+                throw UNSUPPORTED;
+            }
+            int[] ranges = new int[16];
+            int size = 0;
+            while (true) {
+                if (!this.more()) {
+                    throw UNSUPPORTED;
+                }
+                char c = this.peek();
+                if (c == ']') {
+                    this.position++;
+                    break;
+                }
+                if (c == '[' || (c == '&' && this.position + 1 < this.regex.length() && this.regex.charAt(this.position + 1) == '&')) {
+                    throw UNSUPPORTED;
+                }
+                if (c == '-' && size > 0 && this.position + 1 < this.regex.length() && this.regex.charAt(this.position + 1) != ']') {
+                    // 类中间的连字符在JDK中的含义较特殊，不支持
+                    throw UNSUPPORTED;
+                }
+                int[] item = this.parseClassItem();
+                if (isSingle(item) && this.position + 1 < this.regex.length()
+                        && this.peek() == '-' && this.regex.charAt(this.position + 1) != ']') {
+                    this.position++;
+                    if (this.peek() == '[' || this.peek() == '&') {
+                        throw UNSUPPORTED;
+                    }
+                    int[] high = this.parseClassItem();
+                    if (!isSingle(high) || high[0] < item[0]) {
+                        throw UNSUPPORTED;
+                    }
+                    item = new int[]{item[0], high[0]};
+                }
+                if (size + item.length > ranges.length) {
+                    ranges = Arrays.copyOf(ranges, (size + item.length) * 2);
+                }
+                System.arraycopy(item, 0, ranges, size, item.length);
+                size += item.length;
+            }
+            int[] normalized = normalize(Arrays.copyOf(ranges, size));
+            return negated ? complement(normalized) : normalized;
+        }
+
+        private int[] parseClassItem() {
+            if (this.peek() == '\\') {
+                this.position++;
+                return this.parseEscape();
+            }
+            int codePoint = this.regex.codePointAt(this.position);
+            this.position += Character.charCount(codePoint);
+            return single(codePoint);
+        }
+    }
+
+}
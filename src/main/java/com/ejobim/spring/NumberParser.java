@@ -0,0 +1,347 @@
+package com.ejobim.spring;
+
+/**
+ * 数字解析器
+ * 解析字符序列（或其中一段）为基本类型，格式不正确时返回约定的失败值而不抛出异常
+ * 接受的格式与Integer.parseInt、Long.parseLong、Float.parseFloat、Double.parseDouble相同
+ * @author zch
+ */
+public final class NumberParser {
+
+    /**
+     * parseInt解析失败时的返回值
+     */
+    public static final long INVALID_INT = Long.MIN_VALUE;
+
+    /**
+     * 可由long精确表示并直接换算的最多有效数字位数（double）
+     */
+    private static final int MAX_DOUBLE_FAST_DIGITS = 15;
+
+    /**
+     * 可精确换算的最多有效数字位数（float）
+     */
+    private static final int MAX_FLOAT_FAST_DIGITS = 7;
+
+    private static final double[] DOUBLE_POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+        1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private static final float[] FLOAT_POWERS_OF_TEN = {
+        1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f, 1e10f
+    };
+
+    /**
+     * 解析整数
+     * @param text 文本
+     * @return int范围内的值，格式不正确或溢出时返回INVALID_INT
+     */
+    public static long parseInt(CharSequence text) {
+        return parseInt(text, 0, text.length());
+    }
+
+    /**
+     * 解析整数
+     * @param text 文本
+     * @param from 起始位置（包含）
+     * @param to 结束位置（不包含）
+     * @return int范围内的值，格式不正确或溢出时返回INVALID_INT
+     */
+    public static long parseInt(CharSequence text, int from, int to) {
+        long value = parseLong(text, from, to, INVALID_INT);
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            return INVALID_INT;
+        }
+        return value;
+    }
+
+    /**
+     * 解析长整数
+     * 解析结果可能恰好等于失败值，需要区分时用isLong判断
+     * @param text 文本
+     * @param from 起始位置（包含）
+     * @param to 结束位置（不包含）
+     * @param invalidValue 格式不正确或溢出时的返回值
+     * @return 长整数或invalidValue
+     */
+    public static long parseLong(CharSequence text, int from, int to, long invalidValue) {
+        if (from >= to) {
+            return invalidValue;
+        }
+        int i = from;
+        boolean negative = false;
+        char first = text.charAt(i);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            if (++i == to) {
+                return invalidValue;
+            }
+        }
+        // 按负数累加，以便表示Long.MIN_VALUE
+        long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        long multiplyLimit = limit / 10;
+        long result = 0;
+        for (; i < to; i++) {
+            int digit = digit(text.charAt(i));
+            if (digit < 0 || result < multiplyLimit) {
+                return invalidValue;
+            }
+            result *= 10;
+            if (result < limit + digit) {
+                return invalidValue;
+            }
+            result -= digit;
+        }
+        return negative ? result : -result;
+    }
+
+    /**
+     * 是否长整数格式
+     * @param text 文本
+     * @param from 起始位置（包含）
+     * @param to 结束位置（不包含）
+     * @return 是否长整数
+     */
+    public static boolean isLong(CharSequence text, int from, int to) {
+        return parseLong(text, from, to, 0L) != 0L || parseLong(text, from, to, 1L) != 1L;
+    }
+
+    /**
+     * 解析双精度数
+     * 有效数字不超过15位且指数较小时直接精确换算，否则交给Double.parseDouble
+     * 解析结果可能是文本"NaN"本身，需要区分时用isFloatingPoint判断
+     * @param text 文本
+     * @param from 起始位置（包含）
+     * @param to 结束位置（不包含）
+     * @return 双精度数，格式不正确时返回NaN
+     */
+    public static double parseDouble(CharSequence text, int from, int to) {
+        long fast = scanDecimal(text, from, to, MAX_DOUBLE_FAST_DIGITS);
+        if (fast == INVALID) {
+            return Double.NaN;
+        }
+        if (fast != SLOW) {
+            int exponent = (int) (fast >> EXPONENT_SHIFT);
+            long mantissa = fast & MANTISSA_MASK;
+            if (exponent >= -22 && exponent <= 22) {
+                double value = exponent >= 0 ? mantissa * DOUBLE_POWERS_OF_TEN[exponent] : mantissa / DOUBLE_POWERS_OF_TEN[-exponent];
+                return isNegative(text, from, to) ? -value : value;
+            }
+        }
+        return Double.parseDouble(text.subSequence(from, to).toString());
+    }
+
+    /**
+     * 解析浮点数
+     * 解析结果可能是文本"NaN"本身，需要区分时用isFloatingPoint判断
+     * @param text 文本
+     * @param from 起始位置（包含）
+     * @param to 结束位置（不包含）
+     * @return 浮点数，格式不正确时返回NaN
+     */
+    public static float parseFloat(CharSequence text, int from, int to) {
+        long fast = scanDecimal(text, from, to, MAX_FLOAT_FAST_DIGITS);
+        if (fast == INVALID) {
+            return Float.NaN;
+        }
+        if (fast != SLOW) {
+            int exponent = (int) (fast >> EXPONENT_SHIFT);
+            float mantissa = fast & MANTISSA_MASK;
+            if (exponent >= -10 && exponent <= 10) {
+                float value = exponent >= 0 ? mantissa * FLOAT_POWERS_OF_TEN[exponent] : mantissa / FLOAT_POWERS_OF_TEN[-exponent];
+                return isNegative(text, from, to) ? -value : value;
+            }
+        }
+        return Float.parseFloat(text.subSequence(from, to).toString());
+    }
+
+    /**
+     * 是否浮点数格式（Double.parseDouble可接受的格式）
+     * @param text 文本
+     * @param from 起始位置（包含）
+     * @param to 结束位置（不包含）
+     * @return 是否浮点数
+     */
+    public static boolean isFloatingPoint(CharSequence text, int from, int to) {
+        return scanDecimal(text, from, to, 0) != INVALID;
+    }
+
+    /**
+     * 扫描结果：格式不正确
+     */
+    private static final long INVALID = -1L;
+
+    /**
+     * 扫描结果：格式正确但需要JDK解析
+     */
+    private static final long SLOW = -2L;
+
+    private static final int EXPONENT_SHIFT = 56;
+
+    private static final long MANTISSA_MASK = (1L << EXPONENT_SHIFT) - 1;
+
+    /**
+     * 按Double.parseDouble的语法扫描
+     * @param maxFastDigits 可直接换算的最多有效数字位数
+     * @return INVALID、SLOW，或高8位为十进制指数、低56位为有效数字的编码
+     */
+    private static long scanDecimal(CharSequence text, int from, int to, int maxFastDigits) {
+        // 与String.trim一致，忽略首尾不大于空格的字符
+        while (from < to && text.charAt(from) <= ' ') {
+            from++;
+        }
+        while (to > from && text.charAt(to - 1) <= ' ') {
+            to--;
+        }
+        if (from == to) {
+            return INVALID;
+        }
+        boolean fast = maxFastDigits > 0;
+        int i = from;
+        char c = text.charAt(i);
+        if (c == '-' || c == '+') {
+            if (++i == to) {
+                return INVALID;
+            }
+            c = text.charAt(i);
+        }
+        if (c == 'N') {
+            return matches(text, i, to, "NaN") ? SLOW : INVALID;
+        }
+        if (c == 'I') {
+            return matches(text, i, to, "Infinity") ? SLOW : INVALID;
+        }
+        if (c == '0' && i + 1 < to && (text.charAt(i + 1) == 'x' || text.charAt(i + 1) == 'X')) {
+            return isHex(text, i + 2, to) ? SLOW : INVALID;
+        }
+        long mantissa = 0;
+        int significantDigits = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean point = false;
+        for (; i < to; i++) {
+            c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits++;
+                if (point) {
+                    exponent--;
+                }
+                if (mantissa == 0 && c == '0') {
+                    continue;
+                }
+                if (++significantDigits > maxFastDigits) {
+                    fast = false;
+                } else {
+                    mantissa = mantissa * 10 + (c - '0');
+                }
+            } else if (c == '.' && !point) {
+                point = true;
+            } else {
+                break;
+            }
+        }
+        if (digits == 0) {
+            return INVALID;
+        }
+        if (i < to && (c == 'e' || c == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < to && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+                negativeExponent = text.charAt(i) == '-';
+                i++;
+            }
+            int start = i;
+            int explicit = 0;
+            for (; i < to && (c = text.charAt(i)) >= '0' && c <= '9'; i++) {
+                if (explicit < 1000) {
+                    explicit = explicit * 10 + (c - '0');
+                }
+            }
+            if (i == start) {
+                return INVALID;
+            }
+            exponent += negativeExponent ? -explicit : explicit;
+        }
+        if (i < to) {
+            c = text.charAt(i);
+            if (i != to - 1 || (c != 'f' && c != 'F' && c != 'd' && c != 'D')) {
+                return INVALID;
+            }
+        }
+        if (!fast || exponent < -128 || exponent > 127) {
+            return SLOW;
+        }
+        return ((long) exponent << EXPONENT_SHIFT) | mantissa;
+    }
+
+    /**
+     * 十六进制浮点数（0x之后）：(十六进制数字+ .? | 十六进制数字* . 十六进制数字+) [pP] [+-]? 数字+ [fFdD]?
+     */
+    private static boolean isHex(CharSequence text, int from, int to) {
+        int i = from;
+        int digits = 0;
+        boolean point = false;
+        for (; i < to; i++) {
+            char c = text.charAt(i);
+            if (FormatScanner.isHexDigit(c)) {
+                digits++;
+            } else if (c == '.' && !point) {
+                point = true;
+            } else {
+                break;
+            }
+        }
+        if (digits == 0 || i >= to || (text.charAt(i) != 'p' && text.charAt(i) != 'P')) {
+            return false;
+        }
+        i++;
+        if (i < to && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+            i++;
+        }
+        int start = i;
+        while (i < to && text.charAt(i) >= '0' && text.charAt(i) <= '9') {
+            i++;
+        }
+        if (i == start) {
+            return false;
+        }
+        if (i == to) {
+            return true;
+        }
+        char c = text.charAt(i);
+        return i == to - 1 && (c == 'f' || c == 'F' || c == 'd' || c == 'D');
+    }
+
+    private static boolean matches(CharSequence text, int from, int to, String expected) {
+        if (to - from != expected.length()) {
+            return false;
+        }
+        for (int i = 0; i < expected.length(); i++) {
+            if (text.charAt(from + i) != expected.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isNegative(CharSequence text, int from, int to) {
+        while (from < to && text.charAt(from) <= ' ') {
+            from++;
+        }
+        return from < to && text.charAt(from) == '-';
+    }
+
+    /**
+     * 十进制数字值，与Character.digit(c, 10)一致
+     */
+    private static int digit(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        return c < 128 ? -1 : Character.digit(c, 10);
+    }
+
+    private NumberParser() {}
+
+}
@@ -0,0 +1,653 @@
+package com.ejobim.spring;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import lombok.NonNull;
+
+/**
+ * 参数验证收集器
+ * 与ParameterValidator的验证规则相同，但验证失败时只记录错误，不抛出异常，
+ * 最后通过end()统一抛出或通过toException()返回一个包含所有错误的参数异常
+ * 解析方法在格式不正确时同样只记录错误，返回null或默认值
+ * 非线程安全，每次验证通过ParameterValidator.begin()获取新实例
+ * @author zch
+ */
+public class ParameterCollector {
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    private final ParameterValidator validator;
+
+    private String[] names;
+
+    /**
+     * 错误消息，String或ParameterMessage
+     */
+    private Object[] messages;
+
+    private int size;
+
+    /**
+     * 构造函数
+     * @param validator 参数验证器
+     */
+    ParameterCollector(ParameterValidator validator) {
+        this.validator = validator;
+    }
+
+    /**
+     * 参数必填
+     * @param parameterName 参数名
+     * @param parameterValue 参数值
+     * @param parameterDesc 参数描述
+     * @return 收集器本身
+     */
+    public ParameterCollector required(@NonNull String parameterName, Object parameterValue, @NonNull String parameterDesc) {
+        return this.record(parameterName, ParameterValidator.checkRequired(parameterValue, parameterDesc));
+    }
+
+    /**
+     * 参数非空
+     * @param parameterName 参数名
+     * @param parameterValue 参数值
+     * @param parameterDesc 参数描述
+     * @return 收集器本身
+     */
+    public ParameterCollector notEmpty(@NonNull String parameterName, String parameterValue, @NonNull String parameterDesc) {
+        return this.record(parameterName, ParameterValidator.checkNotEmpty(parameterValue, parameterDesc));
+    }
+
+    /**
+     * 参数非空白
+     * @param parameterName 参数名
+     * @param parameterValue 参数值
+     * @param parameterDesc 参数描述
+     * @return 收集器本身
+     */
+    public ParameterCollector notBlank(@NonNull String parameterName, String parameterValue, @NonNull String parameterDesc) {
+        return this.record(parameterName, ParameterValidator.checkNotBlank(parameterValue, parameterDesc));
+    }
+
+    /**
+     * 集合非空
+     * @param parameterName 参数名
+     * @param parameterValue 参数值（集合）
+     * @param parameterDesc 参数描述
+     * @return 收集器本身
+     */
+    public ParameterCollector notEmpty(@NonNull String parameterName, Collection parameterValue, @NonNull String parameterDesc) {
+        return this.record(parameterName, ParameterValidator.checkNotEmpty(parameterValue, parameterDesc));
+    }
+
+    /**
+     * 参数长度在范围内
+     * @param parameterName 参数名
+     * @param parameterValue 参数值
+     * @param minLength 最小长度（包含）
+     * @param maxLength 最大长度（包含）
+     * @param parameterDesc 参数描述
+     * @return 收集器本身
+     */
+    public ParameterCollector lengthInRange(@NonNull String parameterName, String parameterValue, Integer minLength, Integer maxLength, @NonNull String parameterDesc) {
+        return this.record(parameterName, ParameterValidator.checkLengthInRange(parameterValue, minLength, maxLength, parameterDesc));
+    }
+
+    /**
+     * 参数正则匹配
+     * @param parameterName 参数名
+     * @param parameterValue 参数值
+     * @param pattern 正则模式
+     * @param parameterDesc 参数描述
+     * @return 收集器本身
+     */
+    public ParameterCollector matched(@NonNull String parameterName, String parameterValue, @NonNull String pattern, @NonNull String parameterDesc) {
+        return this.record(parameterName, this.validator.checkMatched(parameterValue, pattern, parameterDesc));
+    }
+
+    /**
+     * 参数正则匹配
+     * @param parameterName 参数名
+     * @param parameterValue 参数值
+     * @param pattern 已编译的正则模式
+     * @param parameterDesc 参数描述
+     * @return 收集器本身
+     */
+    public ParameterCollector matched(@NonNull String parameterName, String parameterValue, @NonNull Pattern pattern, @NonNull String parameterDesc) {
+        return this.record(parameterName, this.validator.checkMatched(parameterValue, pattern, parameterDesc));
+    }
+
+    /**
+     * 参数是email
+     * @param parameterName 参数名
+     * @param parameterValue 参数值
+     * @param parameterDesc 参数描述
+     * @return 收集器本身
+     */
+    public ParameterCollector isEmail(@NonNull String parameterName, String parameterValue, @NonNull String parameterDesc) {
+        return this.record(parameterName, ParameterValidator.checkEmail(parameterValue, parameterDesc));
+    }
+
+    /**
+     * 参数是IP（v4)
+     * @param parameterName 参数名
+     * @param parameterValue 参数值
+     * @param parameterDesc 参数描述
+     * @return 收集器本身
+     */
+    public ParameterCollector isIPv4(@NonNull String parameterName, String parameterValue, @NonNull String parameterDesc) {
+        return this.record(parameterName, ParameterValidator.checkIPv4(parameterValue, parameterDesc));
+    }
+
+    /**
+     * 参数是域名
+     * @param parameterName 参数名
+     * @param parameterValue 参数值
+     * @param parameterDesc 参数描述
+     * @return 收集器本身
+     */
+    public ParameterCollector isDomain(@NonNull String parameterName, String parameterValue, @NonNull String parameterDesc) {
+        return this.record(parameterName, ParameterValidator.checkDomain(parameterValue, parameterDesc));
+    }
+
+    /**
+     * 参数是主机地址
+     * @param parameterName 参数名
+     * @param parameterValue 参数值
+     * @param parameterDesc 参数描述
+     * @return 收集器本身
+     */
+    public ParameterCollector isHost(@NonNull String parameterName, String parameterValue, @NonNull String parameterDesc) {
+        return this.record(parameterName, ParameterValidator.checkHost(parameterValue, parameterDesc));
+    }
+
+    /**
+     * 参数是手机号
+     * @param parameterName 参数名
+     * @param parameterValue 参数值
+     * @param parameterDesc 参数描述
+     * @return 收集器本身
+     */
+    public ParameterCollector isMobile(@NonNull String parameterName, String parameterValue, @NonNull String parameterDesc) {
+        return this.record(parameterName, ParameterValidator.checkMobile(parameterValue, parameterDesc));
+    }
+
+    /**
+     * 参数是Html颜色值
+     * @param parameterName 参数名
+     * @param parameterValue 参数值
+     * @param parameterDesc 参数描述
+     * @return 收集器本身
+     */
+    public ParameterCollector isHtmlColor(@NonNull String parameterName, String parameterValue, @NonNull String parameterDesc) {
+        return this.record(parameterName, ParameterValidator.checkHtmlColor(parameterValue, parameterDesc));
+    }
+
+    /**
+     * 两个参数是一个范围
+     * @param <T> 参数类型
+     * @param parameter1Name 参数1名
+     * @param parameter1Value 参数1值
+     * @param parameter1Desc 参数1描述
+     * @param parameter2Name 参数2名
+     * @param parameter2Value 参数2值
+     * @param parameter2Desc 参数2描述
+     * @return 收集器本身
+     */
+    public <T extends Comparable> ParameterCollector isRange(@NonNull String parameter1Name, T parameter1Value, @NonNull String parameter1Desc, @NonNull String parameter2Name, T parameter2Value, @NonNull String parameter2Desc) {
+        if (ParameterValidator.isReversed(parameter1Value, parameter2Value)) {
+            this.record(parameter1Name, ParameterMessage.of(ParameterMessage.Rule.NOT_GREATER_THAN, parameter1Desc, parameter2Desc));
+            this.record(parameter2Name, ParameterMessage.of(ParameterMessage.Rule.NOT_LESS_THAN, parameter2Desc, parameter1Desc));
+        }
+        return this;
+    }
+
+    /**
+     * 参数在范围内
+     * @param <T> 参数类型
+     * @param parameterName 参数名
+     * @param parameterValue 参数值
+     * @param min 最小值（包括）
+     * @param max 最大值（包括）
+     * @param parameterDesc 参数描述
+     * @return 收集器本身
+     */
+    public <T extends Comparable> ParameterCollector inRange(@NonNull String parameterName, T parameterValue, T min, T max, @NonNull String parameterDesc) {
+        return this.record(parameterName, ParameterValidator.checkInRange(parameterValue, min, max, parameterDesc));
+    }
+
+    /**
+     * 参数是排序方式
+     * @param parameterName 参数名
+     * @param parameterValue 参数值
+     * @param sortableProperties 可排序属性
+     * @return 收集器本身
+     */
+    public ParameterCollector isSort(@NonNull String parameterName, String parameterValue, String... sortableProperties) {
+        return this.record(parameterName, ParameterValidator.checkSort(parameterValue, sortableProperties));
+    }
+
+    /**
+     * 集合的每个元素都必填（不为null、空字符串或空集合）
+     * 错误的参数名为“参数名[下标]”，最多记录的错误数与验证器的设置相同，以下集合元素验证相同
+     * @param parameterName 参数名
+     * @param parameterValues 参数值集合
+     * @param parameterDesc 参数描述
+     * @return 收集器本身
+     */
+    public ParameterCollector eachRequired(@NonNull String parameterName, Collection<?> parameterValues, @NonNull String parameterDesc) {
+        return this.recordElements(parameterName, parameterValues, ParameterValidator.REQUIRED_ELEMENT, ParameterMessage.of(ParameterMessage.Rule.REQUIRED, parameterDesc));
+    }
+
+    /**
+     * 集合的每个元素都是电子邮件地址，空元素不检查
+     * @param parameterName 参数名
+     * @param parameterValues 参数值集合
+     * @param parameterDesc 参数描述
+     * @return 收集器本身
+     */
+    public ParameterCollector eachEmail(@NonNull String parameterName, Collection<String> parameterValues, @NonNull String parameterDesc) {
+        return this.each(parameterName, parameterValues, ParameterValidator.EMAIL_ELEMENT, parameterDesc);
+    }
+
+    /**
+     * 集合的每个元素都是IP（v4）地址，空元素不检查
+     * @param parameterName 参数名
+     * @param parameterValues 参数值集合
+     * @param parameterDesc 参数描述
+     * @return 收集器本身
+     */
+    public ParameterCollector eachIPv4(@NonNull String parameterName, Collection<String> parameterValues, @NonNull String parameterDesc) {
+        return this.each(parameterName, parameterValues, ParameterValidator.IPV4_ELEMENT, parameterDesc);
+    }
+
+    /**
+     * 集合的每个元素都是域名，空元素不检查
+     * @param parameterName 参数名
+     * @param parameterValues 参数值集合
+     * @param parameterDesc 参数描述
+     * @return 收集器本身
+     */
+    public ParameterCollector eachDomain(@NonNull String parameterName, Collection<String> parameterValues, @NonNull String parameterDesc) {
+        return this.each(parameterName, parameterValues, ParameterValidator.DOMAIN_ELEMENT, parameterDesc);
+    }
+
+    /**
+     * 集合的每个元素都是主机名，空元素不检查
+     * @param parameterName 参数名
+     * @param parameterValues 参数值集合
+     * @param parameterDesc 参数描述
+     * @return 收集器本身
+     */
+    public ParameterCollector eachHost(@NonNull String parameterName, Collection<String> parameterValues, @NonNull String parameterDesc) {
+        return this.each(parameterName, parameterValues, ParameterValidator.HOST_ELEMENT, parameterDesc);
+    }
+
+    /**
+     * 集合的每个元素都是手机号，空元素不检查
+     * @param parameterName 参数名
+     * @param parameterValues 参数值集合
+     * @param parameterDesc 参数描述
+     * @return 收集器本身
+     */
+    public ParameterCollector eachMobile(@NonNull String parameterName, Collection<String> parameterValues, @NonNull String parameterDesc) {
+        return this.each(parameterName, parameterValues, ParameterValidator.MOBILE_ELEMENT, parameterDesc);
+    }
+
+    /**
+     * 集合的每个元素都是Html颜色值，空元素不检查
+     * @param parameterName 参数名
+     * @param parameterValues 参数值集合
+     * @param parameterDesc 参数描述
+     * @return 收集器本身
+     */
+    public ParameterCollector eachHtmlColor(@NonNull String parameterName, Collection<String> parameterValues, @NonNull String parameterDesc) {
+        return this.each(parameterName, parameterValues, ParameterValidator.HTML_COLOR_ELEMENT, parameterDesc);
+    }
+
+    /**
+     * 集合的每个元素都匹配正则表达式，空元素不检查
+     * @param parameterName 参数名
+     * @param parameterValues 参数值集合
+     * @param pattern 正则表达式
+     * @param parameterDesc 参数描述
+     * @return 收集器本身
+     */
+    public ParameterCollector eachMatched(@NonNull String parameterName, Collection<String> parameterValues, @NonNull String pattern, @NonNull String parameterDesc) {
+        return this.each(parameterName, parameterValues, this.validator.matchedElement(pattern), parameterDesc);
+    }
+
+    /**
+     * 集合的每个元素都符合规则
+     * @param <T> 元素类型
+     * @param parameterName 参数名
+     * @param parameterValues 参数值集合
+     * @param valid 元素是否符合规则，大集合会在多个线程中并行调用，需要线程安全
+     * @param parameterDesc 参数描述
+     * @return 收集器本身
+     */
+    public <T> ParameterCollector each(@NonNull String parameterName, Collection<? extends T> parameterValues, @NonNull Predicate<? super T> valid, @NonNull String parameterDesc) {
+        return this.recordElements(parameterName, parameterValues, valid, ParameterMessage.of(ParameterMessage.Rule.INVALID_VALUE, parameterDesc));
+    }
+
+    /**
+     * 解析整数，格式不正确时记录错误
+     * @param parameterName 参数名
+     * @param parameterValue 参数值
+     * @return 整数，参数值为空或格式不正确时返回null
+     */
+    public Integer parseInt(@NonNull String parameterName, String parameterValue) {
+        if (ParameterValidator.isEmpty(parameterValue)) {
+            return null;
+        }
+        long value = ParameterValidator.toInt(parameterValue);
+        if (value == NumberParser.INVALID_INT) {
+            this.record(parameterName, ParameterValidator.INTEGER_FORMAT_MESSAGE);
+            return null;
+        }
+        return (int) value;
+    }
+
+    /**
+     * 解析整数，格式不正确时记录错误
+     * @param parameterName 参数名
+     * @param parameterValue 参数值
+     * @param defaultValue 参数值为空或格式不正确时的返回值
+     * @return 整数或默认值
+     */
+    public int parseInt(@NonNull String parameterName, String parameterValue, int defaultValue) {
+        if (ParameterValidator.isEmpty(parameterValue)) {
+            return defaultValue;
+        }
+        long value = ParameterValidator.toInt(parameterValue);
+        if (value == NumberParser.INVALID_INT) {
+            this.record(parameterName, ParameterValidator.INTEGER_FORMAT_MESSAGE);
+            return defaultValue;
+        }
+        return (int) value;
+    }
+
+    /**
+     * 解析长整数，格式不正确时记录错误
+     * @param parameterName 参数名
+     * @param parameterValue 参数值
+     * @return 长整数，参数值为空或格式不正确时返回null
+     */
+    public Long parseLong(@NonNull String parameterName, String parameterValue) {
+        if (ParameterValidator.isEmpty(parameterValue)) {
+            return null;
+        }
+        long value = ParameterValidator.toLong(parameterValue);
+        if (ParameterValidator.isInvalidLong(parameterValue, value)) {
+            this.record(parameterName, ParameterValidator.INTEGER_FORMAT_MESSAGE);
+            return null;
+        }
+        return value;
+    }
+
+    /**
+     * 解析长整数，格式不正确时记录错误
+     * @param parameterName 参数名
+     * @param parameterValue 参数值
+     * @param defaultValue 参数值为空或格式不正确时的返回值
+     * @return 长整数或默认值
+     */
+    public long parseLong(@NonNull String parameterName, String parameterValue, long defaultValue) {
+        Long value = this.parseLong(parameterName, parameterValue);
+        return value == null ? defaultValue : value;
+    }
+
+    /**
+     * 解析浮点数，格式不正确时记录错误
+     * @param parameterName 参数名
+     * @param parameterValue 参数值
+     * @return 浮点数，参数值为空或格式不正确时返回null
+     */
+    public Float parseFloat(@NonNull String parameterName, String parameterValue) {
+        if (ParameterValidator.isEmpty(parameterValue)) {
+            return null;
+        }
+        float value = ParameterValidator.toFloat(parameterValue);
+        if (ParameterValidator.isInvalidFloatingPoint(parameterValue, value)) {
+            this.record(parameterName, ParameterValidator.FLOAT_FORMAT_MESSAGE);
+            return null;
+        }
+        return value;
+    }
+
+    /**
+     * 解析浮点数，格式不正确时记录错误
+     * @param parameterName 参数名
+     * @param parameterValue 参数值
+     * @param defaultValue 参数值为空或格式不正确时的返回值
+     * @return 浮点数或默认值
+     */
+    public float parseFloat(@NonNull String parameterName, String parameterValue, float defaultValue) {
+        Float value = this.parseFloat(parameterName, parameterValue);
+        return value == null ? defaultValue : value;
+    }
+
+    /**
+     * 解析双精度数，格式不正确时记录错误
+     * @param parameterName 参数名
+     * @param parameterValue 参数值
+     * @return 双精度数，参数值为空或格式不正确时返回null
+     */
+    public Double parseDouble(@NonNull String parameterName, String parameterValue) {
+        if (ParameterValidator.isEmpty(parameterValue)) {
+            return null;
+        }
+        double value = ParameterValidator.toDouble(parameterValue);
+        if (ParameterValidator.isInvalidFloatingPoint(parameterValue, value)) {
+            this.record(parameterName, ParameterValidator.FLOAT_FORMAT_MESSAGE);
+            return null;
+        }
+        return value;
+    }
+
+    /**
+     * 解析双精度数，格式不正确时记录错误
+     * @param parameterName 参数名
+     * @param parameterValue 参数值
+     * @param defaultValue 参数值为空或格式不正确时的返回值
+     * @return 双精度数或默认值
+     */
+    public double parseDouble(@NonNull String parameterName, String parameterValue, double defaultValue) {
+        Double value = this.parseDouble(parameterName, parameterValue);
+        return value == null ? defaultValue : value;
+    }
+
+    /**
+     * 解析布尔值，只接受true、false（不区分大小写），格式不正确时记录错误
+     * @param parameterName 参数名
+     * @param parameterValue 参数值
+     * @return 布尔值，参数值为空或格式不正确时返回null
+     */
+    public Boolean parseBoolean(@NonNull String parameterName, String parameterValue) {
+        if (ParameterValidator.isEmpty(parameterValue)) {
+            return null;
+        }
+        Boolean value = ParameterValidator.toBoolean(parameterValue);
+        if (value == null) {
+            this.record(parameterName, ParameterValidator.BOOLEAN_FORMAT_MESSAGE);
+        }
+        return value;
+    }
+
+    /**
+     * 解析布尔值，只接受true、false（不区分大小写），格式不正确时记录错误
+     * @param parameterName 参数名
+     * @param parameterValue 参数值
+     * @param defaultValue 参数值为空或格式不正确时的返回值
+     * @return 布尔值或默认值
+     */
+    public boolean parseBoolean(@NonNull String parameterName, String parameterValue, boolean defaultValue) {
+        Boolean value = this.parseBoolean(parameterName, parameterValue);
+        return value == null ? defaultValue : value;
+    }
+
+    /**
+     * 解析本地日期，格式不正确时记录错误
+     * @param parameterName 参数名
+     * @param parameterValue 参数值
+     * @param dateFormat 日期格式
+     * @return 本地日期，参数值为空或格式不正确时返回null
+     */
+    public LocalDate parseLocalDate(@NonNull String parameterName, String parameterValue, @NonNull String dateFormat) {
+        if (ParameterValidator.isEmpty(parameterValue)) {
+            return null;
+        }
+        LocalDate date = this.validator.toLocalDate(parameterValue, dateFormat);
+        if (date == null) {
+            this.record(parameterName, ParameterValidator.DATE_FORMAT_MESSAGE);
+        }
+        return date;
+    }
+
+    /**
+     * 解析本地日期时间，格式不正确时记录错误
+     * @param parameterName 参数名
+     * @param parameterValue 参数值
+     * @param dateFormat 日期格式
+     * @return 本地日期时间，参数值为空或格式不正确时返回null
+     */
+    public LocalDateTime parseLocalDateTime(@NonNull String parameterName, String parameterValue, @NonNull String dateFormat) {
+        if (ParameterValidator.isEmpty(parameterValue)) {
+            return null;
+        }
+        LocalDateTime dateTime = this.validator.toLocalDateTime(parameterValue, dateFormat);
+        if (dateTime == null) {
+            this.record(parameterName, ParameterValidator.DATE_FORMAT_MESSAGE);
+        }
+        return dateTime;
+    }
+
+    /**
+     * 解析时刻，格式不正确时记录错误
+     * 参数值不含时区或偏移时按系统默认时区解析
+     * @param parameterName 参数名
+     * @param parameterValue 参数值
+     * @param dateFormat 日期格式
+     * @return 时刻，参数值为空或格式不正确时返回null
+     */
+    public Instant parseInstant(@NonNull String parameterName, String parameterValue, @NonNull String dateFormat) {
+        if (ParameterValidator.isEmpty(parameterValue)) {
+            return null;
+        }
+        Instant instant = this.validator.toInstant(parameterValue, dateFormat);
+        if (instant == null) {
+            this.record(parameterName, ParameterValidator.DATE_FORMAT_MESSAGE);
+        }
+        return instant;
+    }
+
+    /**
+     * 解析日期，格式不正确时记录错误
+     * @param parameterName 参数名
+     * @param parameterValue 参数值
+     * @param dateFormat 日期格式
+     * @return 日期，参数值为空或格式不正确时返回null
+     */
+    public Date parseDate(@NonNull String parameterName, String parameterValue, @NonNull String dateFormat) {
+        Instant instant = this.parseInstant(parameterName, parameterValue, dateFormat);
+        return instant == null ? null : Date.from(instant);
+    }
+
+    /**
+     * 按参数对象字段上的ParameterRules注解验证
+     * @param target 参数对象
+     * @return 收集器本身
+     * @throws IllegalArgumentException 注解与字段类型不匹配
+     */
+    public ParameterCollector validate(@NonNull Object target) {
+        ValidationPlan.of(target.getClass()).validate(target, this);
+        return this;
+    }
+
+    /**
+     * 增加自定义的参数错误
+     * @param parameterName 参数名
+     * @param message 错误消息
+     * @return 收集器本身
+     */
+    public ParameterCollector add(@NonNull String parameterName, @NonNull String message) {
+        return this.record(parameterName, message);
+    }
+
+    /**
+     * 增加自定义的参数错误，消息文本在序列化时生成
+     * @param parameterName 参数名
+     * @param message 错误消息
+     * @return 收集器本身
+     */
+    public ParameterCollector add(@NonNull String parameterName, @NonNull ParameterMessage message) {
+        return this.record(parameterName, message);
+    }
+
+    /**
+     * 是否有验证失败
+     * @return 是否有错误
+     */
+    public boolean hasErrors() {
+        return this.size > 0;
+    }
+
+    /**
+     * 错误数
+     * @return 错误数
+     */
+    public int getErrorCount() {
+        return this.size;
+    }
+
+    /**
+     * 转换为参数异常
+     * @return 包含所有错误的参数异常，没有错误时返回null
+     */
+    public ParameterException toException() {
+        if (this.size == 0) {
+            return null;
+        }
+        return new ParameterException(Arrays.copyOf(this.names, this.size), Arrays.copyOf(this.messages, this.size), this.size);
+    }
+
+    /**
+     * 结束验证，有错误时抛出包含所有错误的参数异常
+     * @throws ParameterException 参数异常
+     */
+    public void end() throws ParameterException {
+        if (this.size > 0) {
+            throw this.toException();
+        }
+    }
+
+    private <T> ParameterCollector recordElements(String parameterName, Collection<? extends T> parameterValues, Predicate<? super T> valid, ParameterMessage message) {
+        for (int index : this.validator.findInvalid(parameterValues, valid)) {
+            this.record(ParameterValidator.elementName(parameterName, index), message);
+        }
+        return this;
+    }
+
+    private ParameterCollector record(String parameterName, Object message) {
+        if (message == null) {
+            return this;
+        }
+        if (this.names == null) {
+            this.names = new String[INITIAL_CAPACITY];
+            this.messages = new Object[INITIAL_CAPACITY];
+        } else if (this.size == this.names.length) {
+            this.names = Arrays.copyOf(this.names, this.size * 2);
+            this.messages = Arrays.copyOf(this.messages, this.size * 2);
+        }
+        this.names[this.size] = parameterName;
+        this.messages[this.size] = message;
+        this.size++;
+        return this;
+    }
+
+}
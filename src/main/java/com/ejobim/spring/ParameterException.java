@@ -1,17 +1,35 @@
 package com.ejobim.spring;
 
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 /**
  * 参数异常
- * 可以表示多个参数的多个错误（多个错误用|隔开）
+ * 可以表示多个参数的多个错误（同一参数的多个错误在getErrorMessages中用|隔开）
+ * 错误按添加顺序存放在参数名、错误消息两个数组中，同一参数可以出现多次，只在getErrorMessages时按参数合并
+ * 错误消息可以是String或ParameterMessage，ParameterMessage的文本在读取（序列化响应）时才生成
  * @author zch
  */
 public class ParameterException extends BusinessException {
 
-    private final Map<String, String> errorMessages = new HashMap<>();
+    private static final int INITIAL_CAPACITY = 2;
+
+    private String[] names;
+
+    private Object[] messages;
+
+    private int size;
 
     /**
      * 构造函数
@@ -19,8 +37,26 @@ public class ParameterException extends BusinessException {
      * @param message 错误消息
      */
     public ParameterException(String parameterName, String message) {
+        this(parameterName, (Object) message);
+    }
+
+    /**
+     * 构造函数
+     * 只在包内使用，公开的重载会使new ParameterException(name, null)产生歧义
+     * @param parameterName 参数名
+     * @param message 错误消息，文本在读取时生成
+     */
+    ParameterException(String parameterName, ParameterMessage message) {
+        this(parameterName, (Object) message);
+    }
+
+    private ParameterException(String parameterName, Object message) {
         super(ErrorType.ParameterError, "参数错误");
-        this.errorMessages.put(parameterName, message);
+        this.names = new String[INITIAL_CAPACITY];
+        this.messages = new Object[INITIAL_CAPACITY];
+        this.names[0] = parameterName;
+        this.messages[0] = message;
+        this.size = 1;
     }
     
     /**
@@ -31,11 +67,32 @@ public class ParameterException extends BusinessException {
      */
     public ParameterException(String[] parameterNames, String message) {
         super(ErrorType.ParameterError, "参数错误");
-        for(String parameterName : parameterNames) {
-            this.errorMessages.put(parameterName, message);
+        int capacity = Math.max(parameterNames.length, INITIAL_CAPACITY);
+        this.names = new String[capacity];
+        this.messages = new Object[capacity];
+        for (String parameterName : parameterNames) {
+            // 重复的参数名只记录一次
+            if (this.indexOf(parameterName, 0) < 0) {
+                this.names[this.size] = parameterName;
+                this.messages[this.size] = message;
+                this.size++;
+            }
         }
     }
 
+    /**
+     * 构造函数，直接使用参数名、错误消息数组
+     * @param names 参数名
+     * @param messages 错误消息
+     * @param size 错误数
+     */
+    ParameterException(String[] names, Object[] messages, int size) {
+        super(ErrorType.ParameterError, "参数错误");
+        this.names = names;
+        this.messages = messages;
+        this.size = size;
+    }
+
     /**
      * 增加参数异常
      * @param parameterName 参数名
@@ -43,12 +100,25 @@ public class ParameterException extends BusinessException {
      * @return 异常本身
      */
     public ParameterException add(String parameterName, String message) {
-        String original = this.errorMessages.get(parameterName);
-        if (original != null) {
-            this.errorMessages.put(parameterName, original + "|" + message);
-        } else {
-            this.errorMessages.put(parameterName, message);
-        }
+        return this.append(parameterName, message);
+    }
+
+    /**
+     * 增加参数异常
+     * 只在包内使用，原因同构造函数；外部可以通过ParameterCollector.add添加ParameterMessage
+     * @param parameterName 参数名
+     * @param message 错误消息，文本在读取时生成
+     * @return 异常本身
+     */
+    ParameterException add(String parameterName, ParameterMessage message) {
+        return this.append(parameterName, message);
+    }
+
+    private ParameterException append(String parameterName, Object message) {
+        this.ensureCapacity(this.size + 1);
+        this.names[this.size] = parameterName;
+        this.messages[this.size] = message;
+        this.size++;
         return this;
     }
 
@@ -58,18 +128,93 @@ public class ParameterException extends BusinessException {
      * @return 异常本身
      */
     public ParameterException add(ParameterException ex) {
-        for (String key : ex.errorMessages.keySet()) {
-            this.add(key, ex.errorMessages.get(key));
-        }
+        int count = ex.size;
+        this.ensureCapacity(this.size + count);
+        System.arraycopy(ex.names, 0, this.names, this.size, count);
+        System.arraycopy(ex.messages, 0, this.messages, this.size, count);
+        this.size += count;
         return this;
     }
 
+    /**
+     * 获取错误数（同一参数的多个错误分别计数）
+     * @return 错误数
+     */
+    public int getErrorCount() {
+        return this.size;
+    }
+
+    /**
+     * 获取出错的参数名
+     * @return 按首次出现顺序排列的参数名
+     */
+    public Collection<String> getParameterNames() {
+        Set<String> result = new LinkedHashSet<>(this.size * 4 / 3 + 1);
+        for (int i = 0; i < this.size; i++) {
+            result.add(this.names[i]);
+        }
+        return result;
+    }
+
+    /**
+     * 获取某个参数的错误消息
+     * @param parameterName 参数名
+     * @return 按添加顺序排列的错误消息，没有时为空列表
+     */
+    public List<String> getMessages(String parameterName) {
+        int index = this.indexOf(parameterName, 0);
+        if (index < 0) {
+            return Collections.emptyList();
+        }
+        List<String> result = new ArrayList<>(2);
+        for (; index >= 0; index = this.indexOf(parameterName, index + 1)) {
+            result.add(text(this.messages[index]));
+        }
+        return result;
+    }
+
     /**
      * 获取错误消息
-     * @return 参数名与错误消息的映射
+     * 返回只读视图，只按参数名分组，消息文本在读取值时才生成（使用当时的请求语言）
+     * @return 参数名与错误消息的映射，按首次出现顺序排列，同一参数的多个错误用|隔开
      */
     public Map<String, String> getErrorMessages() {
-        return Collections.unmodifiableMap(errorMessages);
+        Map<String, Object> grouped = new LinkedHashMap<>(this.size * 4 / 3 + 1);
+        for (int i = 0; i < this.size; i++) {
+            // 错误消息可能为null，不能用putIfAbsent的返回值判断是否已有该参数
+            if (!grouped.containsKey(this.names[i])) {
+                grouped.put(this.names[i], this.messages[i]);
+            } else {
+                Object original = grouped.get(this.names[i]);
+                List<Object> list;
+                if (original instanceof MessageList) {
+                    list = (MessageList) original;
+                } else {
+                    list = new MessageList();
+                    list.add(original);
+                    grouped.put(this.names[i], list);
+                }
+                list.add(this.messages[i]);
+            }
+        }
+        return new ErrorMessages(grouped);
+    }
+
+    private int indexOf(String parameterName, int from) {
+        for (int i = from; i < this.size; i++) {
+            if (Objects.equals(this.names[i], parameterName)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > this.names.length) {
+            int length = Math.max(capacity, this.names.length * 2);
+            this.names = Arrays.copyOf(this.names, length);
+            this.messages = Arrays.copyOf(this.messages, length);
+        }
     }
 
     /**
@@ -102,4 +247,103 @@ public class ParameterException extends BusinessException {
         }
         return ex;
     }
+
+    /**
+     * 生成错误消息文本，null仍为null（fastjson序列化时省略），MessageList用|连接
+     */
+    private static String text(Object message) {
+        if (message instanceof MessageList) {
+            return ((MessageList) message).join();
+        }
+        return message == null ? null : message.toString();
+    }
+
+    /**
+     * 同一参数的多个错误消息
+     */
+    private static final class MessageList extends ArrayList<Object> {
+
+        private static final long serialVersionUID = 1L;
+
+        MessageList() {
+            super(2);
+        }
+
+        /**
+         * 用|连接，跳过null
+         * @return 都为null时返回null
+         */
+        String join() {
+            StringBuilder result = null;
+            for (Object message : this) {
+                if (message == null) {
+                    continue;
+                }
+                if (result == null) {
+                    result = new StringBuilder();
+                } else {
+                    result.append('|');
+                }
+                result.append(message);
+            }
+            return result == null ? null : result.toString();
+        }
+
+    }
+
+    /**
+     * 错误消息只读视图，读取值时生成文本
+     */
+    private static final class ErrorMessages extends AbstractMap<String, String> {
+
+        private final Map<String, Object> grouped;
+
+        ErrorMessages(Map<String, Object> grouped) {
+            this.grouped = grouped;
+        }
+
+        @Override
+        public int size() {
+            return this.grouped.size();
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return this.grouped.containsKey(key);
+        }
+
+        @Override
+        public String get(Object key) {
+            return text(this.grouped.get(key));
+        }
+
+        @Override
+        public Set<Entry<String, String>> entrySet() {
+            return new AbstractSet<Entry<String, String>>() {
+                @Override
+                public Iterator<Entry<String, String>> iterator() {
+                    Iterator<Entry<String, Object>> entries = ErrorMessages.this.grouped.entrySet().iterator();
+                    return new Iterator<Entry<String, String>>() {
+                        @Override
+                        public boolean hasNext() {
+                            return entries.hasNext();
+                        }
+
+                        @Override
+                        public Entry<String, String> next() {
+                            Entry<String, Object> entry = entries.next();
+                            return new SimpleImmutableEntry<>(entry.getKey(), text(entry.getValue()));
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return ErrorMessages.this.grouped.size();
+                }
+            };
+        }
+
+    }
+
 }
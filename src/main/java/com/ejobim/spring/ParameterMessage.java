@@ -0,0 +1,238 @@
+package com.ejobim.spring;
+
+import java.io.Serializable;
+import java.util.Locale;
+import java.util.MissingResourceException;
+import java.util.ResourceBundle;
+import lombok.NonNull;
+import org.springframework.context.i18n.LocaleContextHolder;
+
+/**
+ * 参数错误消息
+ * 验证失败时只记录规则和参数描述，不拼接字符串，消息文本在toString（即序列化响应）时才生成
+ * 消息模板来自资源包com/ejobim/spring/ParameterMessages（可按语言提供ParameterMessages_en等），生成的文本按语言、规则和参数描述缓存
+ * 默认总是使用基础资源包（中文）；系统属性ejobim.parameterMessage.localized为true（或调用setLocalized）时使用当前请求的语言（LocaleContextHolder）
+ * @author zch
+ */
+public final class ParameterMessage implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final String BUNDLE_NAME = "com.ejobim.spring.ParameterMessages";
+
+    /**
+     * 缓存的语言数上限（请求语言由客户端决定，需要限制）
+     */
+    private static final int MAX_LOCALES = 64;
+
+    /**
+     * 每种语言每条规则缓存的消息数上限
+     */
+    private static final int MAX_RENDERED = 1024;
+
+    private static final ResourceBundle.Control CONTROL = ResourceBundle.Control.getNoFallbackControl(ResourceBundle.Control.FORMAT_PROPERTIES);
+
+    private static volatile boolean localized = Boolean.getBoolean("ejobim.parameterMessage.localized");
+
+    private static final CompiledCache<Templates> TEMPLATES = new CompiledCache<>(MAX_LOCALES, tag -> new Templates(Locale.forLanguageTag(tag)));
+
+    /**
+     * 验证规则，每条规则对应资源包中同名的消息模板，模板中{0}、{1}为参数
+     */
+    public enum Rule {
+        /**
+         * 不能为空，参数为参数描述
+         */
+        REQUIRED,
+        /**
+         * 长度超出范围，参数为参数描述
+         */
+        LENGTH_OUT_OF_RANGE,
+        /**
+         * 不是有效值，参数为参数描述
+         */
+        INVALID_VALUE,
+        /**
+         * 超出范围，参数为参数描述
+         */
+        OUT_OF_RANGE,
+        /**
+         * 不能大于另一参数，参数为两个参数描述
+         */
+        NOT_GREATER_THAN,
+        /**
+         * 不能小于另一参数，参数为两个参数描述
+         */
+        NOT_LESS_THAN,
+        /**
+         * 整数格式不正确
+         */
+        INTEGER_FORMAT,
+        /**
+         * 浮点数格式不正确
+         */
+        FLOAT_FORMAT,
+        /**
+         * 日期或时间格式不正确
+         */
+        DATE_FORMAT,
+        /**
+         * 排序格式不正确
+         */
+        SORT_FORMAT,
+        /**
+         * 不是可排序属性，参数为属性名
+         */
+        NOT_SORTABLE,
+        /**
+         * 布尔值格式不正确
+         */
+        BOOLEAN_FORMAT
+    }
+
+    private final Rule rule;
+
+    private final String argument1;
+
+    private final String argument2;
+
+    private ParameterMessage(Rule rule, String argument1, String argument2) {
+        this.rule = rule;
+        this.argument1 = argument1;
+        this.argument2 = argument2;
+    }
+
+    /**
+     * 无参数的消息
+     * @param rule 规则
+     * @return 消息
+     */
+    public static ParameterMessage of(@NonNull Rule rule) {
+        return new ParameterMessage(rule, null, null);
+    }
+
+    /**
+     * 一个参数的消息
+     * @param rule 规则
+     * @param argument 参数（通常是参数描述）
+     * @return 消息
+     */
+    public static ParameterMessage of(@NonNull Rule rule, @NonNull String argument) {
+        return new ParameterMessage(rule, argument, null);
+    }
+
+    /**
+     * 两个参数的消息
+     * @param rule 规则
+     * @param argument1 参数1
+     * @param argument2 参数2
+     * @return 消息
+     */
+    public static ParameterMessage of(@NonNull Rule rule, @NonNull String argument1, @NonNull String argument2) {
+        return new ParameterMessage(rule, argument1, argument2);
+    }
+
+    /**
+     * 获取规则
+     * @return 规则
+     */
+    public Rule getRule() {
+        return this.rule;
+    }
+
+    /**
+     * 生成指定语言的消息文本
+     * @param locale 语言
+     * @return 消息文本
+     */
+    public String render(@NonNull Locale locale) {
+        return TEMPLATES.get(locale.toLanguageTag()).render(this);
+    }
+
+    /**
+     * 生成消息文本，启用本地化时使用当前请求的语言
+     * @return 消息文本
+     */
+    @Override
+    public String toString() {
+        return this.render(localized ? LocaleContextHolder.getLocale() : Locale.ROOT);
+    }
+
+    /**
+     * 设置是否按请求语言生成消息文本
+     * @param value 是否本地化
+     */
+    public static void setLocalized(boolean value) {
+        localized = value;
+    }
+
+    /**
+     * 一种语言的消息模板及生成结果缓存
+     */
+    private static final class Templates {
+
+        private final String[] templates;
+
+        private final CompiledCache<String>[] rendered;
+
+        @SuppressWarnings("unchecked")
+        Templates(Locale locale) {
+            ResourceBundle bundle = ResourceBundle.getBundle(BUNDLE_NAME, locale, ParameterMessage.class.getClassLoader(), CONTROL);
+            Rule[] rules = Rule.values();
+            this.templates = new String[rules.length];
+            this.rendered = new CompiledCache[rules.length];
+            for (Rule rule : rules) {
+                String template;
+                try {
+                    template = bundle.getString(rule.name());
+                } catch (MissingResourceException ex) {
+                    throw new IllegalStateException("Missing parameter message template " + rule.name() + " for " + locale, ex);
+                }
+                this.templates[rule.ordinal()] = template;
+                // 含参数的模板按参数缓存生成结果，两个参数用\0连接作为键
+                if (template.contains("{0}")) {
+                    this.rendered[rule.ordinal()] = new CompiledCache<>(MAX_RENDERED, key -> {
+                        int separator = key.indexOf('\0');
+                        return separator < 0
+                                ? format(template, key, null)
+                                : format(template, key.substring(0, separator), key.substring(separator + 1));
+                    });
+                }
+            }
+        }
+
+        String render(ParameterMessage message) {
+            int index = message.rule.ordinal();
+            CompiledCache<String> cache = this.rendered[index];
+            if (cache == null || message.argument1 == null) {
+                return this.templates[index];
+            }
+            return cache.get(message.argument2 == null ? message.argument1 : message.argument1 + '\0' + message.argument2);
+        }
+
+        private static String format(String template, String argument1, String argument2) {
+            // 只扫描一遍模板，参数中的{0}、{1}不再替换
+            StringBuilder result = new StringBuilder(template.length() + argument1.length() + (argument2 == null ? 0 : argument2.length()));
+            int length = template.length();
+            for (int i = 0; i < length; i++) {
+                char c = template.charAt(i);
+                if (c == '{' && i + 2 < length && template.charAt(i + 2) == '}') {
+                    char index = template.charAt(i + 1);
+                    if (index == '0') {
+                        result.append(argument1);
+                        i += 2;
+                        continue;
+                    } else if (index == '1' && argument2 != null) {
+                        result.append(argument2);
+                        i += 2;
+                        continue;
+                    }
+                }
+                result.append(c);
+            }
+            return result.toString();
+        }
+
+    }
+
+}
@@ -0,0 +1,240 @@
+package com.ejobim.spring;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 参数验证规则注解
+ * 标注在参数对象的字段上，规则与ParameterValidator的同名方法相同，参数名为字段名
+ * 每个参数对象类首次验证时编译为ValidationPlan，之后不再反射
+ * @author zch
+ */
+public final class ParameterRules {
+
+    /**
+     * 参数必填，对应ParameterValidator.required
+     */
+    @Documented
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target(ElementType.FIELD)
+    public @interface Required {
+
+        /**
+         * 参数描述
+         */
+        String desc();
+
+    }
+
+    /**
+     * 参数不能为空，对应ParameterValidator.notEmpty，字段为String或Collection
+     */
+    @Documented
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target(ElementType.FIELD)
+    public @interface NotEmpty {
+
+        /**
+         * 参数描述
+         */
+        String desc();
+
+    }
+
+    /**
+     * 参数不能为空白，对应ParameterValidator.notBlank，字段为String
+     */
+    @Documented
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target(ElementType.FIELD)
+    public @interface NotBlank {
+
+        /**
+         * 参数描述
+         */
+        String desc();
+
+    }
+
+    /**
+     * 参数长度在范围内，对应ParameterValidator.lengthInRange，字段为String
+     */
+    @Documented
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target(ElementType.FIELD)
+    public @interface LengthInRange {
+
+        /**
+         * 最小长度，小于0表示不限
+         */
+        int min() default -1;
+
+        /**
+         * 最大长度，小于0表示不限
+         */
+        int max() default -1;
+
+        /**
+         * 参数描述
+         */
+        String desc();
+
+    }
+
+    /**
+     * 参数匹配正则表达式，对应ParameterValidator.matched，字段为String
+     */
+    @Documented
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target(ElementType.FIELD)
+    public @interface Matched {
+
+        /**
+         * 正则表达式
+         */
+        String pattern();
+
+        /**
+         * 参数描述
+         */
+        String desc();
+
+    }
+
+    /**
+     * 参数是电子邮件地址，对应ParameterValidator.isEmail，字段为String
+     */
+    @Documented
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target(ElementType.FIELD)
+    public @interface Email {
+
+        /**
+         * 参数描述
+         */
+        String desc();
+
+    }
+
+    /**
+     * 参数是IPv4地址，对应ParameterValidator.isIPv4，字段为String
+     */
+    @Documented
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target(ElementType.FIELD)
+    public @interface IPv4 {
+
+        /**
+         * 参数描述
+         */
+        String desc();
+
+    }
+
+    /**
+     * 参数是域名，对应ParameterValidator.isDomain，字段为String
+     */
+    @Documented
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target(ElementType.FIELD)
+    public @interface Domain {
+
+        /**
+         * 参数描述
+         */
+        String desc();
+
+    }
+
+    /**
+     * 参数是主机名，对应ParameterValidator.isHost，字段为String
+     */
+    @Documented
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target(ElementType.FIELD)
+    public @interface Host {
+
+        /**
+         * 参数描述
+         */
+        String desc();
+
+    }
+
+    /**
+     * 参数是手机号，对应ParameterValidator.isMobile，字段为String
+     */
+    @Documented
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target(ElementType.FIELD)
+    public @interface Mobile {
+
+        /**
+         * 参数描述
+         */
+        String desc();
+
+    }
+
+    /**
+     * 参数是HTML颜色，对应ParameterValidator.isHtmlColor，字段为String
+     */
+    @Documented
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target(ElementType.FIELD)
+    public @interface HtmlColor {
+
+        /**
+         * 参数描述
+         */
+        String desc();
+
+    }
+
+    /**
+     * 参数在范围内，对应ParameterValidator.inRange
+     * 字段为数字（基本类型、包装类、BigInteger、BigDecimal）或String，范围值按字段类型解析
+     */
+    @Documented
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target(ElementType.FIELD)
+    public @interface InRange {
+
+        /**
+         * 最小值，为空表示不限
+         */
+        String min() default "";
+
+        /**
+         * 最大值，为空表示不限
+         */
+        String max() default "";
+
+        /**
+         * 参数描述
+         */
+        String desc();
+
+    }
+
+    /**
+     * 参数是排序方式，对应ParameterValidator.isSort，字段为String
+     */
+    @Documented
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target(ElementType.FIELD)
+    public @interface Sort {
+
+        /**
+         * 可排序属性，为空表示不限
+         */
+        String[] value() default {};
+
+    }
+
+    private ParameterRules() {}
+
+}
@@ -1,11 +1,16 @@
 package com.ejobim.spring;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
 import lombok.NonNull;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.stereotype.Component;
@@ -13,11 +18,164 @@ import org.springframework.stereotype.Component;
 /**
  * 参数验证器
  * 验证参数，如果不符合则抛出参数异常ParameterException
+ * 错误消息记录为ParameterMessage（规则和参数描述），序列化响应时才生成文本
  * @author zch
  */
 @Component
 public class ParameterValidator {
 
+    /**
+     * email格式
+     * 内置的isEmail等校验使用与下列模式等价的FormatScanner，模式供需要正则的调用方使用
+     */
+    public static final Pattern EMAIL_PATTERN = Pattern.compile("^\\w+([-+.]\\w+)*@\\w+([-.]\\w+)*\\.\\w+([-.]\\w+)*$");
+
+    /**
+     * IP（v4）格式
+     */
+    public static final Pattern IPV4_PATTERN = Pattern.compile("((25[0-5])|(2[0-4]\\d)|(1\\d\\d)|([1-9]\\d)|\\d)(\\.((25[0-5])|(2[0-4]\\d)|(1\\d\\d)|([1-9]\\d)|\\d)){3}");
+
+    /**
+     * 域名格式
+     */
+    public static final Pattern DOMAIN_PATTERN = Pattern.compile("[a-zA-Z0-9][-a-zA-Z0-9]{0,62}(\\.[a-zA-Z0-9][-a-zA-Z0-9]{0,62})+\\.?");
+
+    /**
+     * 手机号格式
+     */
+    public static final Pattern MOBILE_PATTERN = Pattern.compile("^((13[0-9])|(14[0-9])|(15[0-9])|(17[0-9])|(18[0-9])|(19[0-9]))\\d{8}$");
+
+    /**
+     * Html颜色值格式
+     */
+    public static final Pattern HTML_COLOR_PATTERN = Pattern.compile("^#[0-9a-fA-F]{6}$");
+
+    static final ParameterMessage INTEGER_FORMAT_MESSAGE = ParameterMessage.of(ParameterMessage.Rule.INTEGER_FORMAT);
+
+    static final ParameterMessage FLOAT_FORMAT_MESSAGE = ParameterMessage.of(ParameterMessage.Rule.FLOAT_FORMAT);
+
+    static final ParameterMessage DATE_FORMAT_MESSAGE = ParameterMessage.of(ParameterMessage.Rule.DATE_FORMAT);
+
+    static final ParameterMessage SORT_FORMAT_MESSAGE = ParameterMessage.of(ParameterMessage.Rule.SORT_FORMAT);
+
+    static final ParameterMessage BOOLEAN_FORMAT_MESSAGE = ParameterMessage.of(ParameterMessage.Rule.BOOLEAN_FORMAT);
+
+    /**
+     * 正则模式缓存的默认容量
+     */
+    private static final int DEFAULT_PATTERN_CACHE_SIZE = 256;
+
+    /**
+     * 回退到JDK正则时的默认最大步数
+     */
+    private static final long DEFAULT_REGEX_MAX_STEPS = 1000000L;
+
+    /**
+     * 回退到JDK正则时的默认最长时间（毫秒）
+     */
+    private static final long DEFAULT_REGEX_MAX_MILLIS = 50L;
+
+    /**
+     * 日期时间解析器缓存的默认容量
+     */
+    private static final int DEFAULT_DATE_TIME_PARSER_CACHE_SIZE = 64;
+
+    /**
+     * 集合元素验证的默认并行阈值
+     */
+    private static final int DEFAULT_ELEMENT_PARALLEL_THRESHOLD = 2048;
+
+    /**
+     * 集合元素验证默认最多报告的错误数
+     */
+    private static final int DEFAULT_MAX_ELEMENT_ERRORS = 100;
+
+    static final Predicate<Object> REQUIRED_ELEMENT = value -> checkRequired(value, "") == null;
+
+    static final Predicate<String> EMAIL_ELEMENT = value -> value == null || value.isEmpty() || FormatScanner.isEmail(value);
+
+    static final Predicate<String> IPV4_ELEMENT = value -> value == null || value.isEmpty() || FormatScanner.isIPv4(value);
+
+    static final Predicate<String> DOMAIN_ELEMENT = value -> value == null || value.isEmpty() || FormatScanner.isDomain(value);
+
+    static final Predicate<String> HOST_ELEMENT = value -> value == null || value.isEmpty() || FormatScanner.isHost(value);
+
+    static final Predicate<String> MOBILE_ELEMENT = value -> value == null || value.isEmpty() || FormatScanner.isMobile(value);
+
+    static final Predicate<String> HTML_COLOR_ELEMENT = value -> value == null || value.isEmpty() || FormatScanner.isHtmlColor(value);
+
+    private final CompiledCache<SafePattern> patternCache = new CompiledCache<>(DEFAULT_PATTERN_CACHE_SIZE, SafePattern::compile);
+
+    private final CompiledCache<DateTimeParser> dateTimeParserCache = new CompiledCache<>(DEFAULT_DATE_TIME_PARSER_CACHE_SIZE, DateTimeParser::compile);
+
+    private volatile long regexMaxSteps = DEFAULT_REGEX_MAX_STEPS;
+
+    private volatile long regexMaxNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_REGEX_MAX_MILLIS);
+
+    private volatile int elementParallelThreshold = DEFAULT_ELEMENT_PARALLEL_THRESHOLD;
+
+    private volatile int maxElementErrors = DEFAULT_MAX_ELEMENT_ERRORS;
+
+    /**
+     * 获取正则模式缓存
+     * @return 正则模式缓存
+     */
+    public CompiledCache<SafePattern> getPatternCache() {
+        return this.patternCache;
+    }
+
+    /**
+     * 获取日期时间解析器缓存
+     * @return 日期时间解析器缓存
+     */
+    public CompiledCache<DateTimeParser> getDateTimeParserCache() {
+        return this.dateTimeParserCache;
+    }
+
+    /**
+     * 设置正则匹配预算
+     * 仅对不在线性时间子集内的模式生效，超出预算视为参数不是有效值
+     * @param maxSteps 最大步数（读取字符的次数）
+     * @param maxMillis 最长时间（毫秒）
+     */
+    public void setRegexBudget(long maxSteps, long maxMillis) {
+        this.regexMaxSteps = maxSteps;
+        this.regexMaxNanos = TimeUnit.MILLISECONDS.toNanos(maxMillis);
+    }
+
+    /**
+     * 设置集合元素验证参数
+     * @param parallelThreshold 元素数超过该值时拆分到ForkJoin公共池中并行检查，同时也是每个子任务的最大元素数
+     * @param maxErrors 最多报告的错误数（下标最小的若干个）
+     */
+    public void setElementValidation(int parallelThreshold, int maxErrors) {
+        if (parallelThreshold <= 0 || maxErrors <= 0) {
+            throw new IllegalArgumentException("parallelThreshold and maxErrors must be positive");
+        }
+        this.elementParallelThreshold = parallelThreshold;
+        this.maxElementErrors = maxErrors;
+    }
+
+    /**
+     * 开始收集式验证
+     * 依次记录所有验证失败，最后统一抛出或返回一个参数异常，验证通过时不创建异常
+     * @return 参数验证收集器
+     */
+    public ParameterCollector begin() {
+        return new ParameterCollector(this);
+    }
+
+    /**
+     * 按参数对象字段上的ParameterRules注解验证，报告所有失败
+     * 每个参数对象类的规则只在首次验证时编译一次
+     * @param target 参数对象
+     * @throws ParameterException 包含所有失败的参数异常
+     * @throws IllegalArgumentException 注解与字段类型不匹配
+     */
+    public void validate(@NonNull Object target) throws ParameterException {
+        this.begin().validate(target).end();
+    }
+
     /**
      * 参数必填
      * @param parameterName 参数名
@@ -26,15 +184,7 @@ public class ParameterValidator {
      * @throws ParameterException 参数异常
      */
     public void required(@NonNull String parameterName, Object parameterValue, @NonNull String parameterDesc) throws ParameterException {
-        if (parameterValue == null) {
-            throw new ParameterException(parameterName, parameterDesc + "不能为空");
-        }
-        if ((parameterValue instanceof String)) {
-            this.notEmpty(parameterName, (String) parameterValue, parameterDesc);
-        }
-        if ((parameterValue instanceof Collection)) {
-            this.notEmpty(parameterName, (Collection) parameterValue, parameterDesc);
-        }
+        fail(parameterName, checkRequired(parameterValue, parameterDesc));
     }
 
     /**
@@ -45,12 +195,7 @@ public class ParameterValidator {
      * @throws ParameterException 参数异常
      */
     public void notEmpty(@NonNull String parameterName, String parameterValue, @NonNull String parameterDesc) throws ParameterException {
-        if (parameterValue == null) {
-            return;
-        }
-        if (parameterValue.isEmpty()) {
-            throw new ParameterException(parameterName, parameterDesc + "不能为空");
-        }
+        fail(parameterName, checkNotEmpty(parameterValue, parameterDesc));
     }
 
     /**
@@ -74,12 +219,7 @@ public class ParameterValidator {
      * @throws ParameterException 参数异常
      */
     public void notBlank(@NonNull String parameterName, String parameterValue, @NonNull String parameterDesc) throws ParameterException {
-        if (parameterValue == null) {
-            return;
-        }
-        if (StringUtils.isBlank(parameterValue)) {
-            throw new ParameterException(parameterName, parameterDesc + "不能为空");
-        }
+        fail(parameterName, checkNotBlank(parameterValue, parameterDesc));
     }
 
     /**
@@ -122,12 +262,7 @@ public class ParameterValidator {
      * @throws ParameterException 参数异常
      */
     public void notEmpty(@NonNull String parameterName, Collection parameterValue, @NonNull String parameterDesc) throws ParameterException {
-        if (parameterValue == null) {
-            return;
-        }
-        if (parameterValue.isEmpty()) {
-            throw new ParameterException(parameterName, parameterDesc + "不能为空");
-        }
+        fail(parameterName, checkNotEmpty(parameterValue, parameterDesc));
     }
 
     /**
@@ -140,19 +275,12 @@ public class ParameterValidator {
      * @throws ParameterException 参数异常
      */
     public void lengthInRange(@NonNull String parameterName, String parameterValue, Integer minLength, Integer maxLength, @NonNull String parameterDesc) throws ParameterException {
-        if (parameterValue == null) {
-            return;
-        }
-        if (minLength != null && parameterValue.length() < minLength) {
-            throw new ParameterException(parameterName, parameterDesc + "长度超出范围");
-        }
-        if (maxLength != null && parameterValue.length() > maxLength) {
-            throw new ParameterException(parameterName, parameterDesc + "长度超出范围");
-        }
+        fail(parameterName, checkLengthInRange(parameterValue, minLength, maxLength, parameterDesc));
     }
 
     /**
      * 参数正则匹配
+     * 常用正则子集以线性时间匹配，其余模式在预算内匹配
      * @param parameterName 参数名
      * @param parameterValue 参数值
      * @param pattern 正则模式
@@ -160,12 +288,20 @@ public class ParameterValidator {
      * @throws ParameterException 参数异常
      */
     public void matched(@NonNull String parameterName, String parameterValue, @NonNull String pattern, @NonNull String parameterDesc) throws ParameterException {
-        if (parameterValue == null || parameterValue.isEmpty()) {
-            return;
-        }
-        if (!parameterValue.matches(pattern)) {
-            throw new ParameterException(parameterName, parameterDesc + "不是有效值");
-        }
+        fail(parameterName, this.checkMatched(parameterValue, pattern, parameterDesc));
+    }
+
+    /**
+     * 参数正则匹配
+     * 在预算内匹配
+     * @param parameterName 参数名
+     * @param parameterValue 参数值
+     * @param pattern 已编译的正则模式
+     * @param parameterDesc 参数描述
+     * @throws ParameterException 参数异常
+     */
+    public void matched(@NonNull String parameterName, String parameterValue, @NonNull Pattern pattern, @NonNull String parameterDesc) throws ParameterException {
+        fail(parameterName, this.checkMatched(parameterValue, pattern, parameterDesc));
     }
 
     /**
@@ -176,8 +312,7 @@ public class ParameterValidator {
      * @throws ParameterException 参数异常
      */
     public void isEmail(@NonNull String parameterName, String parameterValue, @NonNull String parameterDesc) throws ParameterException {
-        String pattern = "^\\w+([-+.]\\w+)*@\\w+([-.]\\w+)*\\.\\w+([-.]\\w+)*$";
-        this.matched(parameterName, parameterValue, pattern, parameterDesc);
+        fail(parameterName, checkEmail(parameterValue, parameterDesc));
     }
 
     /**
@@ -188,8 +323,7 @@ public class ParameterValidator {
      * @throws ParameterException 参数异常
      */
     public void isIPv4(@NonNull String parameterName, String parameterValue, @NonNull String parameterDesc) throws ParameterException {
-        String pattern = "((25[0-5])|(2[0-4]\\d)|(1\\d\\d)|([1-9]\\d)|\\d)(\\.((25[0-5])|(2[0-4]\\d)|(1\\d\\d)|([1-9]\\d)|\\d)){3}";
-        this.matched(parameterName, parameterValue, pattern, parameterDesc);
+        fail(parameterName, checkIPv4(parameterValue, parameterDesc));
     }
 
     /**
@@ -200,8 +334,7 @@ public class ParameterValidator {
      * @throws ParameterException 参数异常
      */
     public void isDomain(@NonNull String parameterName, String parameterValue, @NonNull String parameterDesc) throws ParameterException {
-        String pattern = "[a-zA-Z0-9][-a-zA-Z0-9]{0,62}(\\.[a-zA-Z0-9][-a-zA-Z0-9]{0,62})+\\.?";
-        this.matched(parameterName, parameterValue, pattern, parameterDesc);
+        fail(parameterName, checkDomain(parameterValue, parameterDesc));
     }
 
     /**
@@ -212,14 +345,7 @@ public class ParameterValidator {
      * @throws ParameterException 参数异常
      */
     public void isHost(@NonNull String parameterName, String parameterValue, @NonNull String parameterDesc) throws ParameterException {
-        if (parameterValue == null || parameterValue.isEmpty()) {
-            return;
-        }
-        String ipPattern = "((25[0-5])|(2[0-4]\\d)|(1\\d\\d)|([1-9]\\d)|\\d)(\\.((25[0-5])|(2[0-4]\\d)|(1\\d\\d)|([1-9]\\d)|\\d)){3}";
-        String domainPattern = "[a-zA-Z0-9][-a-zA-Z0-9]{0,62}(\\.[a-zA-Z0-9][-a-zA-Z0-9]{0,62})+\\.?";
-        if (!parameterValue.matches(ipPattern) && !parameterValue.matches(domainPattern)) {
-            throw new ParameterException(parameterName, parameterDesc + "不是有效值");
-        }
+        fail(parameterName, checkHost(parameterValue, parameterDesc));
     }
 
     /**
@@ -230,8 +356,7 @@ public class ParameterValidator {
      * @throws ParameterException 参数异常
      */
     public void isMobile(@NonNull String parameterName, String parameterValue, @NonNull String parameterDesc) throws ParameterException {
-        String pattern = "^((13[0-9])|(14[0-9])|(15[0-9])|(17[0-9])|(18[0-9])|(19[0-9]))\\d{8}$";
-        this.matched(parameterName, parameterValue, pattern, parameterDesc);
+        fail(parameterName, checkMobile(parameterValue, parameterDesc));
     }
 
     /**
@@ -242,8 +367,7 @@ public class ParameterValidator {
      * @throws ParameterException 参数异常
      */
     public void isHtmlColor(@NonNull String parameterName, String parameterValue, @NonNull String parameterDesc) throws ParameterException {
-        String pattern = "^#[0-9a-fA-F]{6}$";
-        this.matched(parameterName, parameterValue, pattern, parameterDesc);
+        fail(parameterName, checkHtmlColor(parameterValue, parameterDesc));
     }
 
     /**
@@ -258,12 +382,9 @@ public class ParameterValidator {
      * @throws ParameterException 参数异常
      */
     public <T extends Comparable> void isRange(@NonNull String parameter1Name, T parameter1Value, @NonNull String parameter1Desc, @NonNull String parameter2Name, T parameter2Value, @NonNull String parameter2Desc) throws ParameterException {
-        if (parameter1Value == null || parameter2Value == null) {
-            return;
-        }
-        if (parameter1Value.compareTo(parameter2Value) > 0) {
-            ParameterException ex = new ParameterException(parameter1Name, parameter1Desc + "不能大于" + parameter2Desc);
-            throw ex.add(parameter2Name, parameter2Desc + "不能小于" + parameter1Desc);
+        if (isReversed(parameter1Value, parameter2Value)) {
+            ParameterException ex = new ParameterException(parameter1Name, ParameterMessage.of(ParameterMessage.Rule.NOT_GREATER_THAN, parameter1Desc, parameter2Desc));
+            throw ex.add(parameter2Name, ParameterMessage.of(ParameterMessage.Rule.NOT_LESS_THAN, parameter2Desc, parameter1Desc));
         }
     }
 
@@ -278,15 +399,7 @@ public class ParameterValidator {
      * @throws ParameterException 参数异常
      */
     public <T extends Comparable> void inRange(@NonNull String parameterName, T parameterValue, T min, T max, @NonNull String parameterDesc) throws ParameterException {
-        if (parameterValue == null) {
-            return;
-        }
-        if (min != null && parameterValue.compareTo(min) < 0) {
-            throw new ParameterException(parameterName, parameterDesc + "超出范围");
-        }
-        if (max != null && parameterValue.compareTo(max) > 0) {
-            throw new ParameterException(parameterName, parameterDesc + "超出范围");
-        }
+        fail(parameterName, checkInRange(parameterValue, min, max, parameterDesc));
     }
 
     /**
@@ -297,27 +410,122 @@ public class ParameterValidator {
      * @throws ParameterException 参数异常
      */
     public void isSort(@NonNull String parameterName, String parameterValue, String... sortableProperties) throws ParameterException {
-        if (parameterValue == null) {
-            return;
-        }
-        List<String> properties = Arrays.asList(sortableProperties);
-        String[] entries = parameterValue.split(",");
-        for (String entry : entries) {
-            String[] parts = entry.trim().split("\\s");
-            if (parts.length > 2) {
-                throw new ParameterException(parameterName, "排序格式不正确");
-            }
-            String property = parts[0].trim();
-            if (parts.length > 1) {
-                if ("DESC".equalsIgnoreCase(parts[1].trim())) {
-                } else if ("ASC".equalsIgnoreCase(parts[1].trim())) {
-                } else {
-                    throw new ParameterException(parameterName, "排序格式不正确");
-                }
-            }
-            if (!properties.isEmpty() && !properties.contains(property)) {
-                throw new ParameterException(parameterName, property + "不是可排序属性");
+        fail(parameterName, checkSort(parameterValue, sortableProperties));
+    }
+
+    /**
+     * 集合的每个元素都必填（不为null、空字符串或空集合）
+     * 错误的参数名为“参数名[下标]”，以下集合元素验证相同
+     * @param parameterName 参数名
+     * @param parameterValues 参数值集合
+     * @param parameterDesc 参数描述
+     * @throws ParameterException 参数异常
+     */
+    public void eachRequired(@NonNull String parameterName, Collection<?> parameterValues, @NonNull String parameterDesc) throws ParameterException {
+        this.failElements(parameterName, parameterValues, REQUIRED_ELEMENT, ParameterMessage.of(ParameterMessage.Rule.REQUIRED, parameterDesc));
+    }
+
+    /**
+     * 集合的每个元素都是电子邮件地址，空元素不检查
+     * @param parameterName 参数名
+     * @param parameterValues 参数值集合
+     * @param parameterDesc 参数描述
+     * @throws ParameterException 参数异常
+     */
+    public void eachEmail(@NonNull String parameterName, Collection<String> parameterValues, @NonNull String parameterDesc) throws ParameterException {
+        this.each(parameterName, parameterValues, EMAIL_ELEMENT, parameterDesc);
+    }
+
+    /**
+     * 集合的每个元素都是IP（v4）地址，空元素不检查
+     * @param parameterName 参数名
+     * @param parameterValues 参数值集合
+     * @param parameterDesc 参数描述
+     * @throws ParameterException 参数异常
+     */
+    public void eachIPv4(@NonNull String parameterName, Collection<String> parameterValues, @NonNull String parameterDesc) throws ParameterException {
+        this.each(parameterName, parameterValues, IPV4_ELEMENT, parameterDesc);
+    }
+
+    /**
+     * 集合的每个元素都是域名，空元素不检查
+     * @param parameterName 参数名
+     * @param parameterValues 参数值集合
+     * @param parameterDesc 参数描述
+     * @throws ParameterException 参数异常
+     */
+    public void eachDomain(@NonNull String parameterName, Collection<String> parameterValues, @NonNull String parameterDesc) throws ParameterException {
+        this.each(parameterName, parameterValues, DOMAIN_ELEMENT, parameterDesc);
+    }
+
+    /**
+     * 集合的每个元素都是主机名，空元素不检查
+     * @param parameterName 参数名
+     * @param parameterValues 参数值集合
+     * @param parameterDesc 参数描述
+     * @throws ParameterException 参数异常
+     */
+    public void eachHost(@NonNull String parameterName, Collection<String> parameterValues, @NonNull String parameterDesc) throws ParameterException {
+        this.each(parameterName, parameterValues, HOST_ELEMENT, parameterDesc);
+    }
+
+    /**
+     * 集合的每个元素都是手机号，空元素不检查
+     * @param parameterName 参数名
+     * @param parameterValues 参数值集合
+     * @param parameterDesc 参数描述
+     * @throws ParameterException 参数异常
+     */
+    public void eachMobile(@NonNull String parameterName, Collection<String> parameterValues, @NonNull String parameterDesc) throws ParameterException {
+        this.each(parameterName, parameterValues, MOBILE_ELEMENT, parameterDesc);
+    }
+
+    /**
+     * 集合的每个元素都是Html颜色值，空元素不检查
+     * @param parameterName 参数名
+     * @param parameterValues 参数值集合
+     * @param parameterDesc 参数描述
+     * @throws ParameterException 参数异常
+     */
+    public void eachHtmlColor(@NonNull String parameterName, Collection<String> parameterValues, @NonNull String parameterDesc) throws ParameterException {
+        this.each(parameterName, parameterValues, HTML_COLOR_ELEMENT, parameterDesc);
+    }
+
+    /**
+     * 集合的每个元素都匹配正则表达式，空元素不检查
+     * @param parameterName 参数名
+     * @param parameterValues 参数值集合
+     * @param pattern 正则表达式
+     * @param parameterDesc 参数描述
+     * @throws ParameterException 参数异常
+     */
+    public void eachMatched(@NonNull String parameterName, Collection<String> parameterValues, @NonNull String pattern, @NonNull String parameterDesc) throws ParameterException {
+        this.each(parameterName, parameterValues, this.matchedElement(pattern), parameterDesc);
+    }
+
+    /**
+     * 集合的每个元素都符合规则
+     * @param <T> 元素类型
+     * @param parameterName 参数名
+     * @param parameterValues 参数值集合
+     * @param valid 元素是否符合规则，大集合会在多个线程中并行调用，需要线程安全
+     * @param parameterDesc 参数描述
+     * @throws ParameterException 参数异常
+     */
+    public <T> void each(@NonNull String parameterName, Collection<? extends T> parameterValues, @NonNull Predicate<? super T> valid, @NonNull String parameterDesc) throws ParameterException {
+        this.failElements(parameterName, parameterValues, valid, ParameterMessage.of(ParameterMessage.Rule.INVALID_VALUE, parameterDesc));
+    }
+
+    private <T> void failElements(String parameterName, Collection<? extends T> parameterValues, Predicate<? super T> valid, ParameterMessage message) throws ParameterException {
+        int[] indexes = this.findInvalid(parameterValues, valid);
+        if (indexes.length > 0) {
+            String[] names = new String[indexes.length];
+            Object[] messages = new Object[indexes.length];
+            for (int i = 0; i < indexes.length; i++) {
+                names[i] = elementName(parameterName, indexes[i]);
+                messages[i] = message;
             }
+            throw new ParameterException(names, messages, indexes.length);
         }
     }
 
@@ -329,14 +537,29 @@ public class ParameterValidator {
      * @throws ParameterException 参数异常
      */
     public Integer parseInt(@NonNull String parameterName, String parameterValue) throws ParameterException {
-        if (parameterValue == null || parameterValue.isEmpty()) {
+        if (isEmpty(parameterValue)) {
             return null;
         }
-        try {
-            return Integer.parseInt(parameterValue);
-        } catch (NumberFormatException ex) {
-            throw new ParameterException(parameterName, "整数格式不正确");
+        return this.parseInt(parameterName, parameterValue, 0);
+    }
+
+    /**
+     * 解析整数
+     * @param parameterName 参数名
+     * @param parameterValue 参数值
+     * @param defaultValue 参数值为空时的默认值
+     * @return 整数或默认值
+     * @throws ParameterException 参数异常
+     */
+    public int parseInt(@NonNull String parameterName, String parameterValue, int defaultValue) throws ParameterException {
+        if (isEmpty(parameterValue)) {
+            return defaultValue;
         }
+        long value = toInt(parameterValue);
+        if (value == NumberParser.INVALID_INT) {
+            throw new ParameterException(parameterName, INTEGER_FORMAT_MESSAGE);
+        }
+        return (int) value;
     }
 
     /**
@@ -347,14 +570,29 @@ public class ParameterValidator {
      * @throws ParameterException 参数异常
      */
     public Long parseLong(@NonNull String parameterName, String parameterValue) throws ParameterException {
-        if (parameterValue == null || parameterValue.isEmpty()) {
+        if (isEmpty(parameterValue)) {
             return null;
         }
-        try {
-            return Long.parseLong(parameterValue);
-        } catch (NumberFormatException ex) {
-            throw new ParameterException(parameterName, "整数格式不正确");
+        return this.parseLong(parameterName, parameterValue, 0L);
+    }
+
+    /**
+     * 解析长整数
+     * @param parameterName 参数名
+     * @param parameterValue 参数值
+     * @param defaultValue 参数值为空时的默认值
+     * @return 长整数或默认值
+     * @throws ParameterException 参数异常
+     */
+    public long parseLong(@NonNull String parameterName, String parameterValue, long defaultValue) throws ParameterException {
+        if (isEmpty(parameterValue)) {
+            return defaultValue;
+        }
+        long value = toLong(parameterValue);
+        if (isInvalidLong(parameterValue, value)) {
+            throw new ParameterException(parameterName, INTEGER_FORMAT_MESSAGE);
         }
+        return value;
     }
 
     /**
@@ -365,14 +603,29 @@ public class ParameterValidator {
      * @throws ParameterException 参数异常
      */
     public Float parseFloat(@NonNull String parameterName, String parameterValue) throws ParameterException {
-        if (parameterValue == null || parameterValue.isEmpty()) {
+        if (isEmpty(parameterValue)) {
             return null;
         }
-        try {
-            return Float.parseFloat(parameterValue);
-        } catch (NumberFormatException ex) {
-            throw new ParameterException(parameterName, "浮点数格式不正确");
+        return this.parseFloat(parameterName, parameterValue, 0f);
+    }
+
+    /**
+     * 解析浮点数
+     * @param parameterName 参数名
+     * @param parameterValue 参数值
+     * @param defaultValue 参数值为空时的默认值
+     * @return 浮点数或默认值
+     * @throws ParameterException 参数异常
+     */
+    public float parseFloat(@NonNull String parameterName, String parameterValue, float defaultValue) throws ParameterException {
+        if (isEmpty(parameterValue)) {
+            return defaultValue;
+        }
+        float value = toFloat(parameterValue);
+        if (isInvalidFloatingPoint(parameterValue, value)) {
+            throw new ParameterException(parameterName, FLOAT_FORMAT_MESSAGE);
         }
+        return value;
     }
 
     /**
@@ -383,18 +636,130 @@ public class ParameterValidator {
      * @throws ParameterException 参数异常
      */
     public Double parseDouble(@NonNull String parameterName, String parameterValue) throws ParameterException {
-        if (parameterValue == null || parameterValue.isEmpty()) {
+        if (isEmpty(parameterValue)) {
             return null;
         }
-        try {
-            return Double.parseDouble(parameterValue);
-        } catch (NumberFormatException ex) {
-            throw new ParameterException(parameterName, "浮点数格式不正确");
+        return this.parseDouble(parameterName, parameterValue, 0d);
+    }
+
+    /**
+     * 解析双精度数
+     * @param parameterName 参数名
+     * @param parameterValue 参数值
+     * @param defaultValue 参数值为空时的默认值
+     * @return 双精度数或默认值
+     * @throws ParameterException 参数异常
+     */
+    public double parseDouble(@NonNull String parameterName, String parameterValue, double defaultValue) throws ParameterException {
+        if (isEmpty(parameterValue)) {
+            return defaultValue;
+        }
+        double value = toDouble(parameterValue);
+        if (isInvalidFloatingPoint(parameterValue, value)) {
+            throw new ParameterException(parameterName, FLOAT_FORMAT_MESSAGE);
+        }
+        return value;
+    }
+
+    /**
+     * 解析布尔值，只接受true、false（不区分大小写）
+     * @param parameterName 参数名
+     * @param parameterValue 参数值
+     * @return 布尔值或null
+     * @throws ParameterException 参数异常
+     */
+    public Boolean parseBoolean(@NonNull String parameterName, String parameterValue) throws ParameterException {
+        if (isEmpty(parameterValue)) {
+            return null;
+        }
+        return this.parseBoolean(parameterName, parameterValue, false);
+    }
+
+    /**
+     * 解析布尔值，只接受true、false（不区分大小写）
+     * @param parameterName 参数名
+     * @param parameterValue 参数值
+     * @param defaultValue 参数值为空时的默认值
+     * @return 布尔值或默认值
+     * @throws ParameterException 参数异常
+     */
+    public boolean parseBoolean(@NonNull String parameterName, String parameterValue, boolean defaultValue) throws ParameterException {
+        if (isEmpty(parameterValue)) {
+            return defaultValue;
+        }
+        Boolean value = toBoolean(parameterValue);
+        if (value == null) {
+            throw new ParameterException(parameterName, BOOLEAN_FORMAT_MESSAGE);
         }
+        return value;
+    }
+
+    /**
+     * 参数值是否为空，为空时不解析、不报错
+     * 以下解析方法（to开头）由ParameterValidator和ParameterCollector共用，参数值不能为空，格式不正确时返回标记值而不抛出异常
+     */
+    static boolean isEmpty(String parameterValue) {
+        return parameterValue == null || parameterValue.isEmpty();
+    }
+
+    /**
+     * 解析整数，格式不正确或溢出时返回NumberParser.INVALID_INT
+     */
+    static long toInt(String parameterValue) {
+        return NumberParser.parseInt(parameterValue);
+    }
+
+    /**
+     * 解析长整数，格式不正确时返回Long.MIN_VALUE，需要用isInvalidLong区分
+     */
+    static long toLong(String parameterValue) {
+        return NumberParser.parseLong(parameterValue, 0, parameterValue.length(), Long.MIN_VALUE);
+    }
+
+    /**
+     * toLong的结果是否表示格式不正确
+     */
+    static boolean isInvalidLong(String parameterValue, long value) {
+        return value == Long.MIN_VALUE && !NumberParser.isLong(parameterValue, 0, parameterValue.length());
+    }
+
+    /**
+     * 解析浮点数，格式不正确时返回NaN，需要用isInvalidFloatingPoint区分
+     */
+    static float toFloat(String parameterValue) {
+        return NumberParser.parseFloat(parameterValue, 0, parameterValue.length());
+    }
+
+    /**
+     * 解析双精度数，格式不正确时返回NaN，需要用isInvalidFloatingPoint区分
+     */
+    static double toDouble(String parameterValue) {
+        return NumberParser.parseDouble(parameterValue, 0, parameterValue.length());
+    }
+
+    /**
+     * toFloat、toDouble的结果是否表示格式不正确
+     */
+    static boolean isInvalidFloatingPoint(String parameterValue, double value) {
+        return Double.isNaN(value) && !NumberParser.isFloatingPoint(parameterValue, 0, parameterValue.length());
+    }
+
+    /**
+     * 把true、false（不区分大小写）转换为布尔值，其他值返回null
+     */
+    static Boolean toBoolean(String parameterValue) {
+        if ("true".equalsIgnoreCase(parameterValue)) {
+            return Boolean.TRUE;
+        }
+        if ("false".equalsIgnoreCase(parameterValue)) {
+            return Boolean.FALSE;
+        }
+        return null;
     }
 
     /**
      * 解析日期
+     * 日期格式使用DateTimeFormatter的模式语法，常用的yyyy、MM、dd、HH、mm、ss与SimpleDateFormat相同，按严格模式解析
      * @param parameterName 参数名
      * @param parameterValue 参数值
      * @param dateFormat 日期格式
@@ -402,14 +767,295 @@ public class ParameterValidator {
      * @throws ParameterException 参数异常
      */
     public Date parseDate(@NonNull String parameterName, String parameterValue, @NonNull String dateFormat) throws ParameterException {
+        Instant instant = this.parseInstant(parameterName, parameterValue, dateFormat);
+        return instant == null ? null : Date.from(instant);
+    }
+
+    /**
+     * 解析本地日期
+     * @param parameterName 参数名
+     * @param parameterValue 参数值
+     * @param dateFormat 日期格式
+     * @return 本地日期或null
+     * @throws ParameterException 参数异常
+     */
+    public LocalDate parseLocalDate(@NonNull String parameterName, String parameterValue, @NonNull String dateFormat) throws ParameterException {
+        if (isEmpty(parameterValue)) {
+            return null;
+        }
+        LocalDate date = this.toLocalDate(parameterValue, dateFormat);
+        if (date == null) {
+            throw new ParameterException(parameterName, DATE_FORMAT_MESSAGE);
+        }
+        return date;
+    }
+
+    /**
+     * 解析本地日期时间
+     * @param parameterName 参数名
+     * @param parameterValue 参数值
+     * @param dateFormat 日期格式
+     * @return 本地日期时间或null
+     * @throws ParameterException 参数异常
+     */
+    public LocalDateTime parseLocalDateTime(@NonNull String parameterName, String parameterValue, @NonNull String dateFormat) throws ParameterException {
+        if (isEmpty(parameterValue)) {
+            return null;
+        }
+        LocalDateTime dateTime = this.toLocalDateTime(parameterValue, dateFormat);
+        if (dateTime == null) {
+            throw new ParameterException(parameterName, DATE_FORMAT_MESSAGE);
+        }
+        return dateTime;
+    }
+
+    /**
+     * 解析时刻
+     * 参数值不含时区或偏移时按系统默认时区解析
+     * @param parameterName 参数名
+     * @param parameterValue 参数值
+     * @param dateFormat 日期格式
+     * @return 时刻或null
+     * @throws ParameterException 参数异常
+     */
+    public Instant parseInstant(@NonNull String parameterName, String parameterValue, @NonNull String dateFormat) throws ParameterException {
+        if (isEmpty(parameterValue)) {
+            return null;
+        }
+        Instant instant = this.toInstant(parameterValue, dateFormat);
+        if (instant == null) {
+            throw new ParameterException(parameterName, DATE_FORMAT_MESSAGE);
+        }
+        return instant;
+    }
+
+    /**
+     * 解析本地日期，格式不正确时返回null
+     */
+    LocalDate toLocalDate(String parameterValue, String dateFormat) {
+        return this.dateTimeParserCache.get(dateFormat).parseLocalDate(parameterValue);
+    }
+
+    /**
+     * 解析本地日期时间，格式不正确时返回null
+     */
+    LocalDateTime toLocalDateTime(String parameterValue, String dateFormat) {
+        return this.dateTimeParserCache.get(dateFormat).parseLocalDateTime(parameterValue);
+    }
+
+    /**
+     * 解析时刻，不含时区或偏移时按系统默认时区，格式不正确时返回null
+     */
+    Instant toInstant(String parameterValue, String dateFormat) {
+        return this.dateTimeParserCache.get(dateFormat).parseInstant(parameterValue, ZoneId.systemDefault());
+    }
+
+    /**
+     * 查找集合中不符合规则的元素下标，按设置决定是否并行
+     */
+    <T> int[] findInvalid(Collection<? extends T> parameterValues, Predicate<? super T> valid) {
+        return ElementValidation.findInvalid(parameterValues, valid, this.elementParallelThreshold, this.maxElementErrors);
+    }
+
+    /**
+     * 元素匹配正则表达式的规则，模式只从缓存中取一次
+     */
+    Predicate<String> matchedElement(String pattern) {
+        SafePattern safePattern = this.patternCache.get(pattern);
+        long maxSteps = this.regexMaxSteps;
+        long maxNanos = this.regexMaxNanos;
+        return value -> {
+            if (value == null || value.isEmpty()) {
+                return true;
+            }
+            try {
+                return safePattern.matches(value, maxSteps, maxNanos);
+            } catch (RegexBudgetExceededException ex) {
+                // 超出预算视为不匹配
+                return false;
+            }
+        };
+    }
+
+    /**
+     * 集合元素的参数名
+     */
+    static String elementName(String parameterName, int index) {
+        return parameterName + "[" + index + "]";
+    }
+
+    /**
+     * 有错误消息时抛出参数异常
+     * @param parameterName 参数名
+     * @param message 错误消息，null表示验证通过
+     * @throws ParameterException 参数异常
+     */
+    private static void fail(String parameterName, ParameterMessage message) throws ParameterException {
+        if (message != null) {
+            throw new ParameterException(parameterName, message);
+        }
+    }
+
+    // 以下检查方法不抛出异常，验证通过返回null，否则返回错误消息（消息文本延迟生成）
+
+    static ParameterMessage checkRequired(Object parameterValue, String parameterDesc) {
+        if (parameterValue == null) {
+            return ParameterMessage.of(ParameterMessage.Rule.REQUIRED, parameterDesc);
+        }
+        if ((parameterValue instanceof String)) {
+            return checkNotEmpty((String) parameterValue, parameterDesc);
+        }
+        if ((parameterValue instanceof Collection)) {
+            return checkNotEmpty((Collection) parameterValue, parameterDesc);
+        }
+        return null;
+    }
+
+    static ParameterMessage checkNotEmpty(String parameterValue, String parameterDesc) {
+        if (parameterValue == null || !parameterValue.isEmpty()) {
+            return null;
+        }
+        return ParameterMessage.of(ParameterMessage.Rule.REQUIRED, parameterDesc);
+    }
+
+    static ParameterMessage checkNotBlank(String parameterValue, String parameterDesc) {
+        if (parameterValue == null || !StringUtils.isBlank(parameterValue)) {
+            return null;
+        }
+        return ParameterMessage.of(ParameterMessage.Rule.REQUIRED, parameterDesc);
+    }
+
+    static ParameterMessage checkNotEmpty(Collection parameterValue, String parameterDesc) {
+        if (parameterValue == null || !parameterValue.isEmpty()) {
+            return null;
+        }
+        return ParameterMessage.of(ParameterMessage.Rule.REQUIRED, parameterDesc);
+    }
+
+    static ParameterMessage checkLengthInRange(String parameterValue, Integer minLength, Integer maxLength, String parameterDesc) {
+        if (parameterValue == null) {
+            return null;
+        }
+        if (minLength != null && parameterValue.length() < minLength) {
+            return ParameterMessage.of(ParameterMessage.Rule.LENGTH_OUT_OF_RANGE, parameterDesc);
+        }
+        if (maxLength != null && parameterValue.length() > maxLength) {
+            return ParameterMessage.of(ParameterMessage.Rule.LENGTH_OUT_OF_RANGE, parameterDesc);
+        }
+        return null;
+    }
+
+    ParameterMessage checkMatched(String parameterValue, String pattern, String parameterDesc) {
+        if (parameterValue == null || parameterValue.isEmpty()) {
+            return null;
+        }
+        try {
+            if (this.patternCache.get(pattern).matches(parameterValue, this.regexMaxSteps, this.regexMaxNanos)) {
+                return null;
+            }
+        } catch (RegexBudgetExceededException ex) {
+            // 超出预算视为不匹配
+        }
+        return ParameterMessage.of(ParameterMessage.Rule.INVALID_VALUE, parameterDesc);
+    }
+
+    ParameterMessage checkMatched(String parameterValue, Pattern pattern, String parameterDesc) {
         if (parameterValue == null || parameterValue.isEmpty()) {
             return null;
         }
         try {
-            return new SimpleDateFormat(dateFormat).parse(parameterValue);
-        } catch (ParseException ex) {
-            throw new ParameterException(parameterName, "日期或时间格式不正确");
+            if (SafePattern.matches(pattern, parameterValue, this.regexMaxSteps, this.regexMaxNanos)) {
+                return null;
+            }
+        } catch (RegexBudgetExceededException ex) {
+            // 超出预算视为不匹配
+        }
+        return ParameterMessage.of(ParameterMessage.Rule.INVALID_VALUE, parameterDesc);
+    }
+
+    static ParameterMessage checkEmail(String parameterValue, String parameterDesc) {
+        if (parameterValue == null || parameterValue.isEmpty() || FormatScanner.isEmail(parameterValue)) {
+            return null;
+        }
+        return ParameterMessage.of(ParameterMessage.Rule.INVALID_VALUE, parameterDesc);
+    }
+
+    static ParameterMessage checkIPv4(String parameterValue, String parameterDesc) {
+        if (parameterValue == null || parameterValue.isEmpty() || FormatScanner.isIPv4(parameterValue)) {
+            return null;
+        }
+        return ParameterMessage.of(ParameterMessage.Rule.INVALID_VALUE, parameterDesc);
+    }
+
+    static ParameterMessage checkDomain(String parameterValue, String parameterDesc) {
+        if (parameterValue == null || parameterValue.isEmpty() || FormatScanner.isDomain(parameterValue)) {
+            return null;
+        }
+        return ParameterMessage.of(ParameterMessage.Rule.INVALID_VALUE, parameterDesc);
+    }
+
+    static ParameterMessage checkHost(String parameterValue, String parameterDesc) {
+        if (parameterValue == null || parameterValue.isEmpty() || FormatScanner.isHost(parameterValue)) {
+            return null;
+        }
+        return ParameterMessage.of(ParameterMessage.Rule.INVALID_VALUE, parameterDesc);
+    }
+
+    static ParameterMessage checkMobile(String parameterValue, String parameterDesc) {
+        if (parameterValue == null || parameterValue.isEmpty() || FormatScanner.isMobile(parameterValue)) {
+            return null;
+        }
+        return ParameterMessage.of(ParameterMessage.Rule.INVALID_VALUE, parameterDesc);
+    }
+
+    static ParameterMessage checkHtmlColor(String parameterValue, String parameterDesc) {
+        if (parameterValue == null || parameterValue.isEmpty() || FormatScanner.isHtmlColor(parameterValue)) {
+            return null;
+        }
+        return ParameterMessage.of(ParameterMessage.Rule.INVALID_VALUE, parameterDesc);
+    }
+
+    static <T extends Comparable> boolean isReversed(T parameter1Value, T parameter2Value) {
+        return parameter1Value != null && parameter2Value != null && parameter1Value.compareTo(parameter2Value) > 0;
+    }
+
+    static <T extends Comparable> ParameterMessage checkInRange(T parameterValue, T min, T max, String parameterDesc) {
+        if (parameterValue == null) {
+            return null;
+        }
+        if (min != null && parameterValue.compareTo(min) < 0) {
+            return ParameterMessage.of(ParameterMessage.Rule.OUT_OF_RANGE, parameterDesc);
+        }
+        if (max != null && parameterValue.compareTo(max) > 0) {
+            return ParameterMessage.of(ParameterMessage.Rule.OUT_OF_RANGE, parameterDesc);
+        }
+        return null;
+    }
+
+    static ParameterMessage checkSort(String parameterValue, String... sortableProperties) {
+        if (parameterValue == null) {
+            return null;
+        }
+        List<String> properties = Arrays.asList(sortableProperties);
+        String[] entries = parameterValue.split(",");
+        for (String entry : entries) {
+            String[] parts = entry.trim().split("\\s");
+            if (parts.length > 2) {
+                return SORT_FORMAT_MESSAGE;
+            }
+            String property = parts[0].trim();
+            if (parts.length > 1) {
+                if ("DESC".equalsIgnoreCase(parts[1].trim())) {
+                } else if ("ASC".equalsIgnoreCase(parts[1].trim())) {
+                } else {
+                    return SORT_FORMAT_MESSAGE;
+                }
+            }
+            if (!properties.isEmpty() && !properties.contains(property)) {
+                return ParameterMessage.of(ParameterMessage.Rule.NOT_SORTABLE, property);
+            }
         }
+        return null;
     }
 
 }
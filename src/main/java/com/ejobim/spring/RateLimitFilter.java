@@ -0,0 +1,90 @@
+package com.ejobim.spring;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * 限流过滤器
+ * 仅当ejobim.rate-limit.enabled为true时注册；在进入Spring MVC之前按客户端限流，
+ * 超出限制时直接写出常量错误响应DoubtRobot，并在Retry-After中给出需要等待的秒数
+ * 默认在设置了可信代理（ServletUtils.setTrustedProxies）时按ServletUtils.getRealIP限流，
+ * 否则按直接连接方地址限流，避免客户端伪造X-Forwarded-For绕过限制或占满客户端数量上限；
+ * 注册RateLimitKeyResolver组件可以改为其他键
+ * @author zch
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "ejobim.rate-limit.enabled", havingValue = "true")
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimiter limiter;
+
+    private final RateLimitKeyResolver keyResolver;
+
+    private final ErrorMetrics metrics;
+
+    /**
+     * 构造函数
+     * @param permitsPerSecond 每个客户端每秒补充的请求数
+     * @param burst 每个客户端允许的突发请求数
+     * @param maxKeys 分别限流的客户端数量上限
+     * @param idleSeconds 清理空闲客户端的间隔（秒）
+     * @param keyResolver 限流键解析
+     * @param metrics 错误统计
+     */
+    public RateLimitFilter(@Value("${ejobim.rate-limit.permits-per-second:20}") double permitsPerSecond,
+            @Value("${ejobim.rate-limit.burst:40}") int burst,
+            @Value("${ejobim.rate-limit.max-keys:65536}") int maxKeys,
+            @Value("${ejobim.rate-limit.idle-seconds:60}") long idleSeconds,
+            ObjectProvider<RateLimitKeyResolver> keyResolver,
+            ErrorMetrics metrics) {
+        this.limiter = new RateLimiter(permitsPerSecond, burst, maxKeys, idleSeconds);
+        RateLimitKeyResolver resolver = keyResolver.getIfAvailable();
+        if (resolver == null && !ServletUtils.hasTrustedProxies()) {
+            log.warn("No trusted proxies set, rate limiting by remote address; behind a proxy call ServletUtils.setTrustedProxies");
+        }
+        this.keyResolver = resolver != null ? resolver : RateLimitFilter::clientAddress;
+        this.metrics = metrics;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        String key = this.keyResolver.resolve(request);
+        long waitNanos = key == null ? 0 : this.limiter.tryAcquire(key);
+        if (waitNanos == 0) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        long start = this.metrics.start();
+        long seconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        response.setHeader("Retry-After", Long.toString(seconds));
+        ErrorResponses.write(request, response, ErrorType.DoubtRobot);
+        this.metrics.record(ErrorType.DoubtRobot, start);
+    }
+
+    /**
+     * 默认限流键，未设置可信代理时不信任请求头
+     */
+    private static String clientAddress(HttpServletRequest request) {
+        return ServletUtils.hasTrustedProxies() ? ServletUtils.getRealIP(request) : request.getRemoteAddr();
+    }
+
+    @Override
+    public void destroy() {
+        this.limiter.close();
+    }
+
+}
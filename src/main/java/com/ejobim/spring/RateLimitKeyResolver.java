@@ -0,0 +1,20 @@
+package com.ejobim.spring;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * 限流键解析
+ * 注册为Spring组件后替换RateLimitFilter默认的按客户端实际IP限流
+ * @author zch
+ */
+@FunctionalInterface
+public interface RateLimitKeyResolver {
+
+    /**
+     * 解析限流键
+     * @param request servlet请求
+     * @return 限流键，为null时不限流
+     */
+    String resolve(HttpServletRequest request);
+
+}
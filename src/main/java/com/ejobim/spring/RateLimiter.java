@@ -0,0 +1,138 @@
+package com.ejobim.spring;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.NonNull;
+
+/**
+ * 按键限流
+ * 每个键一个令牌桶，用GCRA算法实现：桶只保存一个理论到达时间，获取令牌时CAS更新，不加锁
+ * 桶分散在多个分段中，每个分段的键数量有上限，超出后新键共用分段的溢出桶；
+ * 后台线程定期删除已经装满（长时间空闲）的桶，删除后再次出现的键得到一个新的满桶，效果相同
+ * @author zch
+ */
+public class RateLimiter implements AutoCloseable {
+
+    private static final int STRIPES = 16;
+
+    private static final String OVERFLOW = "*";
+
+    private final long intervalNanos;
+
+    /**
+     * 允许理论到达时间超前当前时间的最大值，即突发容量
+     */
+    private final long toleranceNanos;
+
+    private final int maxKeysPerStripe;
+
+    private final long idleNanos;
+
+    @SuppressWarnings("unchecked")
+    private final Map<String, AtomicLong>[] stripes = new Map[STRIPES];
+
+    private final ScheduledExecutorService executor;
+
+    /**
+     * 构造函数
+     * @param permitsPerSecond 每秒补充的令牌数
+     * @param burst 桶容量（允许的突发请求数）
+     * @param maxKeys 分别限流的键数量上限
+     * @param idleSeconds 清理空闲桶的间隔（秒）
+     */
+    public RateLimiter(double permitsPerSecond, int burst, int maxKeys, long idleSeconds) {
+        if (permitsPerSecond <= 0 || burst <= 0 || maxKeys <= 0 || idleSeconds <= 0) {
+            throw new IllegalArgumentException("Invalid rate limit settings");
+        }
+        this.intervalNanos = Math.max(1L, (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond));
+        this.toleranceNanos = this.intervalNanos * burst;
+        this.maxKeysPerStripe = Math.max(1, maxKeys / STRIPES);
+        this.idleNanos = TimeUnit.SECONDS.toNanos(idleSeconds);
+        for (int i = 0; i < STRIPES; i++) {
+            this.stripes[i] = new ConcurrentHashMap<>();
+        }
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ejobim-rate-limit-cleanup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.scheduleWithFixedDelay(this::cleanup, idleSeconds, idleSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 获取一个令牌
+     * @param key 键
+     * @return 0表示允许，否则为需要等待的纳秒数
+     */
+    public long tryAcquire(@NonNull String key) {
+        Map<String, AtomicLong> stripe = this.stripes[stripe(key)];
+        long now = System.nanoTime();
+        AtomicLong arrival = stripe.get(key);
+        if (arrival == null) {
+            if (stripe.size() >= this.maxKeysPerStripe) {
+                key = OVERFLOW;
+            }
+            arrival = stripe.computeIfAbsent(key, k -> new AtomicLong(now - this.toleranceNanos));
+        }
+        for (;;) {
+            long current = arrival.get();
+            // 桶已满时从当前时间开始计算
+            long base = current - now < 0 ? now : current;
+            long next = base + this.intervalNanos;
+            long ahead = next - now;
+            if (ahead > this.toleranceNanos) {
+                return ahead - this.toleranceNanos;
+            }
+            if (arrival.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * 当前分别限流的键数量（含溢出桶）
+     * @return 键数量
+     */
+    public int size() {
+        int size = 0;
+        for (Map<String, AtomicLong> stripe : this.stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    /**
+     * 删除空闲的桶
+     */
+    void cleanup() {
+        long now = System.nanoTime();
+        for (Map<String, AtomicLong> stripe : this.stripes) {
+            Iterator<Map.Entry<String, AtomicLong>> iterator = stripe.entrySet().iterator();
+            while (iterator.hasNext()) {
+                // 理论到达时间早于当前时间说明桶已满，再空闲一段时间后删除
+                if (now - iterator.next().getValue().get() >= this.idleNanos) {
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * 停止清理线程
+     */
+    @Override
+    public void close() {
+        this.executor.shutdownNow();
+    }
+
+    private static int stripe(String key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (STRIPES - 1);
+    }
+
+}
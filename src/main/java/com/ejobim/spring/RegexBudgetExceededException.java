@@ -0,0 +1,16 @@
+package com.ejobim.spring;
+
+/**
+ * 正则匹配超出步数或时间预算
+ * @author zch
+ */
+public class RegexBudgetExceededException extends RuntimeException {
+
+    /**
+     * 构造函数
+     * @param message 错误消息
+     */
+    public RegexBudgetExceededException(String message) {
+        super(message, null, false, false);
+    }
+}
@@ -0,0 +1,53 @@
+package com.ejobim.spring;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 请求参数类
+ * 编译时由ejobim-common-processor为标注的类生成同一包下的“类名_Binder”类，
+ * 一次读取每个请求参数，按字段类型解析并按字段上的ParameterRules注解验证，所有错误汇总为一个参数异常
+ * 字段类型可以是String、String[]、int、long、float、double、boolean及其包装类、LocalDate、LocalDateTime、Instant、Date，
+ * 日期时间类型需要标注DateFormat；字段不能是private（或者需要有setter方法），transient字段忽略
+ * 类需要有非private的无参构造函数
+ * @author zch
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface RequestParameters {
+
+    /**
+     * 请求参数名，默认为字段名
+     */
+    @Documented
+    @Retention(RetentionPolicy.CLASS)
+    @Target(ElementType.FIELD)
+    @interface Name {
+
+        /**
+         * 请求参数名
+         */
+        String value();
+
+    }
+
+    /**
+     * 日期时间格式，使用DateTimeFormatter的模式语法
+     */
+    @Documented
+    @Retention(RetentionPolicy.CLASS)
+    @Target(ElementType.FIELD)
+    @interface DateFormat {
+
+        /**
+         * 日期时间格式
+         */
+        String value();
+
+    }
+
+}
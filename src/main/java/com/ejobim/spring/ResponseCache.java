@@ -0,0 +1,294 @@
+package com.ejobim.spring;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.NonNull;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+/**
+ * 响应缓存
+ * 保存序列化后的响应字节及其ETag，条目数和总字节数都有上限，超出时先淘汰过期条目，再按ConcurrentHashMap的遍历顺序淘汰其他条目（与放入顺序无关）
+ * 同一个键同时只有一个计算：第一个未命中的请求登记计算，其他请求等待它完成
+ * @author zch
+ */
+@Component
+@ManagedResource(objectName = "com.ejobim:type=ResponseCache", description = "响应缓存")
+public class ResponseCache {
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private final Map<String, CompletableFuture<Entry>> computations = new ConcurrentHashMap<>();
+
+    private final AtomicLong totalBytes = new AtomicLong();
+
+    private final int maxEntries;
+
+    private final long maxBytes;
+
+    private final int maxEntryBytes;
+
+    private final long waitMillis;
+
+    private final LongAdder hitCount = new LongAdder();
+
+    private final LongAdder missCount = new LongAdder();
+
+    private final LongAdder coalescedCount = new LongAdder();
+
+    private final LongAdder evictionCount = new LongAdder();
+
+    /**
+     * 构造函数
+     * @param maxEntries 最大条目数
+     * @param maxBytes 所有条目的最大总字节数
+     * @param maxEntryBytes 单个条目的最大字节数，更大的响应不缓存
+     * @param waitMillis 等待同一个键的计算结果的最长时间（毫秒），超时后自行计算
+     */
+    public ResponseCache(@Value("${ejobim.response-cache.max-entries:1024}") int maxEntries,
+            @Value("${ejobim.response-cache.max-bytes:67108864}") long maxBytes,
+            @Value("${ejobim.response-cache.max-entry-bytes:1048576}") int maxEntryBytes,
+            @Value("${ejobim.response-cache.wait-millis:3000}") long waitMillis) {
+        if (maxEntries <= 0 || maxBytes <= 0 || maxEntryBytes <= 0 || waitMillis < 0) {
+            throw new IllegalArgumentException("Invalid response cache settings");
+        }
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        this.maxEntryBytes = maxEntryBytes;
+        this.waitMillis = waitMillis;
+    }
+
+    /**
+     * 获取未过期的条目
+     * @param key 键
+     * @return 条目，没有或已过期时返回null
+     */
+    Entry get(@NonNull String key) {
+        Entry entry = this.entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.isExpired(System.nanoTime())) {
+            this.remove(key, entry);
+            return null;
+        }
+        return entry;
+    }
+
+    /**
+     * 查找缓存，未命中时登记计算或等待正在进行的计算
+     * @param key 键
+     * @param computation 登记的计算，调用方成为计算者时需要用complete完成
+     * @return 命中或等待得到的条目；为null时调用方应当执行计算，computation是否已登记由isRegistered判断
+     */
+    Entry lookup(@NonNull String key, @NonNull CompletableFuture<Entry> computation) {
+        Entry entry = this.get(key);
+        if (entry != null) {
+            this.hitCount.increment();
+            return entry;
+        }
+        CompletableFuture<Entry> existing = this.computations.putIfAbsent(key, computation);
+        if (existing == null) {
+            // 登记前其他计算可能刚刚完成
+            entry = this.get(key);
+            if (entry != null) {
+                this.computations.remove(key, computation);
+                computation.complete(entry);
+                this.hitCount.increment();
+                return entry;
+            }
+            this.missCount.increment();
+            return null;
+        }
+        this.coalescedCount.increment();
+        try {
+            return existing.get(this.waitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException ex) {
+            // 自行计算
+        }
+        return null;
+    }
+
+    /**
+     * 计算是否由调用方登记
+     * @param key 键
+     * @param computation 计算
+     * @return 是否已登记
+     */
+    boolean isRegistered(String key, CompletableFuture<Entry> computation) {
+        return this.computations.get(key) == computation;
+    }
+
+    /**
+     * 完成计算并唤醒等待的请求
+     * @param key 键
+     * @param computation lookup中登记的计算
+     * @param body 响应字节，为null表示结果不可缓存
+     * @param contentType 响应内容类型
+     * @param ttlSeconds 有效期（秒）
+     * @return 放入缓存的条目，不可缓存时返回null
+     */
+    Entry complete(@NonNull String key, @NonNull CompletableFuture<Entry> computation, byte[] body, MediaType contentType, int ttlSeconds) {
+        Entry entry = null;
+        if (body != null && body.length <= this.maxEntryBytes && ttlSeconds > 0) {
+            entry = new Entry(body, contentType, System.nanoTime() + TimeUnit.SECONDS.toNanos(ttlSeconds));
+            this.put(key, entry);
+        }
+        this.computations.remove(key, computation);
+        computation.complete(entry);
+        return entry;
+    }
+
+    private void put(String key, Entry entry) {
+        Entry previous = this.entries.put(key, entry);
+        this.totalBytes.addAndGet(entry.body.length - (previous == null ? 0 : previous.body.length));
+        if (this.entries.size() > this.maxEntries || this.totalBytes.get() > this.maxBytes) {
+            this.evict(key);
+        }
+    }
+
+    /**
+     * 先淘汰过期条目，再按遍历顺序淘汰条目直到不超过上限，刚放入的条目不淘汰
+     * @param keep 保留的键
+     */
+    private void evict(String keep) {
+        long now = System.nanoTime();
+        for (Map.Entry<String, Entry> entry : this.entries.entrySet()) {
+            if (entry.getValue().isExpired(now)) {
+                this.remove(entry.getKey(), entry.getValue());
+            }
+        }
+        Iterator<Map.Entry<String, Entry>> iterator = this.entries.entrySet().iterator();
+        while ((this.entries.size() > this.maxEntries || this.totalBytes.get() > this.maxBytes) && iterator.hasNext()) {
+            Map.Entry<String, Entry> entry = iterator.next();
+            if (!entry.getKey().equals(keep) && this.remove(entry.getKey(), entry.getValue())) {
+                this.evictionCount.increment();
+            }
+        }
+    }
+
+    private boolean remove(String key, Entry entry) {
+        if (this.entries.remove(key, entry)) {
+            this.totalBytes.addAndGet(-entry.body.length);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 清空缓存，统计值不清零
+     */
+    @ManagedOperation(description = "清空缓存")
+    public void clear() {
+        for (Map.Entry<String, Entry> entry : this.entries.entrySet()) {
+            this.remove(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * 当前条目数
+     * @return 条目数
+     */
+    @ManagedAttribute(description = "条目数")
+    public int getSize() {
+        return this.entries.size();
+    }
+
+    /**
+     * 当前总字节数
+     * @return 字节数
+     */
+    @ManagedAttribute(description = "总字节数")
+    public long getTotalBytes() {
+        return this.totalBytes.get();
+    }
+
+    /**
+     * 命中次数
+     * @return 命中次数
+     */
+    @ManagedAttribute(description = "命中次数")
+    public long getHitCount() {
+        return this.hitCount.sum();
+    }
+
+    /**
+     * 未命中（执行计算）次数
+     * @return 未命中次数
+     */
+    @ManagedAttribute(description = "未命中次数")
+    public long getMissCount() {
+        return this.missCount.sum();
+    }
+
+    /**
+     * 等待其他请求计算结果的次数
+     * @return 等待次数
+     */
+    @ManagedAttribute(description = "合并计算次数")
+    public long getCoalescedCount() {
+        return this.coalescedCount.sum();
+    }
+
+    /**
+     * 淘汰次数（不含过期）
+     * @return 淘汰次数
+     */
+    @ManagedAttribute(description = "淘汰次数")
+    public long getEvictionCount() {
+        return this.evictionCount.sum();
+    }
+
+    /**
+     * 缓存条目
+     */
+    static final class Entry {
+
+        private final byte[] body;
+
+        private final MediaType contentType;
+
+        private final String etag;
+
+        private final long expiresAt;
+
+        Entry(byte[] body, MediaType contentType, long expiresAt) {
+            this.body = body;
+            this.contentType = contentType;
+            this.etag = "\"" + DigestUtils.md5DigestAsHex(body) + "\"";
+            this.expiresAt = expiresAt;
+        }
+
+        byte[] getBody() {
+            return this.body;
+        }
+
+        MediaType getContentType() {
+            return this.contentType;
+        }
+
+        String getEtag() {
+            return this.etag;
+        }
+
+        boolean isExpired(long now) {
+            return now - this.expiresAt >= 0;
+        }
+
+    }
+
+}
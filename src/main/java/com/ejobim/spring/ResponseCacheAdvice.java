@@ -0,0 +1,265 @@
+package com.ejobim.spring;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Enumeration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.GenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+import org.springframework.web.util.UrlPathHelper;
+
+/**
+ * 响应缓存处理，实现CachedResponse
+ * 拦截器在执行控制器方法之前查找缓存，命中时直接写出缓存内容（或304）；未命中时登记计算，
+ * 控制器方法返回成功的ResponseResult后用Spring选中的消息转换器实例（及其配置，如FastJsonConfig）序列化一次，
+ * 放入缓存并直接写出，缓存内容与不使用缓存时的输出相同
+ * 失败的结果、异常和非JSON响应不缓存，等待的请求随后自行执行控制器方法
+ * 缓存内容是JSON，内容协商不会选择JSON的请求（如Accept为application/cbor、application/xml）不使用缓存，由消息转换器处理
+ * @author zch
+ */
+@RestControllerAdvice
+public class ResponseCacheAdvice implements ResponseBodyAdvice<Object>, HandlerInterceptor, WebMvcConfigurer {
+
+    private static final String COMPUTATION_ATTRIBUTE = ResponseCacheAdvice.class.getName() + ".computation";
+
+    private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+
+    private final ResponseCache cache;
+
+    private final ObjectProvider<RequestMappingHandlerAdapter> handlerAdapter;
+
+    /**
+     * 构造函数
+     * @param cache 响应缓存
+     * @param handlerAdapter 提供消息转换器实例，延迟获取以免循环依赖
+     */
+    public ResponseCacheAdvice(ResponseCache cache, ObjectProvider<RequestMappingHandlerAdapter> handlerAdapter) {
+        this.cache = cache;
+        this.handlerAdapter = handlerAdapter;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(this);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        // 返回Callable、DeferredResult时，异步分派再次经过拦截器，计算已在第一次分派时登记，不能再查找（会等待自己的计算）
+        if (!(handler instanceof HandlerMethod) || !"GET".equals(request.getMethod()) || request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+        CachedResponse cached = ((HandlerMethod) handler).getMethodAnnotation(CachedResponse.class);
+        if (cached == null || !ErrorResponses.acceptsJson(request)) {
+            return true;
+        }
+        String key = this.key(request);
+        CompletableFuture<ResponseCache.Entry> computation = new CompletableFuture<>();
+        ResponseCache.Entry entry = this.cache.lookup(key, computation);
+        if (entry != null) {
+            write(request, new ServletServerHttpResponse(response), entry);
+            return false;
+        }
+        if (this.cache.isRegistered(key, computation)) {
+            request.setAttribute(COMPUTATION_ATTRIBUTE, new Computation(key, computation, cached.ttlSeconds()));
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        // 控制器方法抛出异常或没有返回可缓存的结果时结束计算，等待的请求自行执行
+        Computation computation = (Computation) request.getAttribute(COMPUTATION_ATTRIBUTE);
+        if (computation != null) {
+            request.removeAttribute(COMPUTATION_ATTRIBUTE);
+            this.cache.complete(computation.key, computation.future, null, null, 0);
+        }
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return returnType.hasMethodAnnotation(CachedResponse.class);
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+            Class<? extends HttpMessageConverter<?>> selectedConverterType, ServerHttpRequest request, ServerHttpResponse response) {
+        if (!(request instanceof ServletServerHttpRequest)) {
+            return body;
+        }
+        HttpServletRequest servletRequest = ((ServletServerHttpRequest) request).getServletRequest();
+        Computation computation = (Computation) servletRequest.getAttribute(COMPUTATION_ATTRIBUTE);
+        if (computation == null) {
+            return body;
+        }
+        servletRequest.removeAttribute(COMPUTATION_ATTRIBUTE);
+        BufferedOutputMessage output = null;
+        if (body instanceof ResponseResult && ((ResponseResult<?>) body).success
+                && MediaType.APPLICATION_JSON.isCompatibleWith(selectedContentType)) {
+            output = this.serialize(body, returnType, selectedContentType, selectedConverterType);
+        }
+        ResponseCache.Entry entry = output == null
+                ? this.cache.complete(computation.key, computation.future, null, null, 0)
+                : this.cache.complete(computation.key, computation.future, output.body.toByteArray(), output.contentType(selectedContentType), computation.ttlSeconds);
+        if (entry == null) {
+            return body;
+        }
+        try {
+            write(servletRequest, response, entry);
+        } catch (IOException ex) {
+            throw new IllegalStateException("Failed to write cached response", ex);
+        }
+        // 已经写出，消息转换器不再写出
+        return null;
+    }
+
+    /**
+     * 用选中的消息转换器实例序列化
+     * @return 序列化结果，找不到转换器实例或序列化失败时返回null（不缓存，由消息转换器照常写出）
+     */
+    @SuppressWarnings("unchecked")
+    private BufferedOutputMessage serialize(Object body, MethodParameter returnType, MediaType contentType, Class<? extends HttpMessageConverter<?>> converterType) {
+        RequestMappingHandlerAdapter adapter = this.handlerAdapter.getIfUnique();
+        if (adapter == null) {
+            return null;
+        }
+        for (HttpMessageConverter<?> converter : adapter.getMessageConverters()) {
+            if (converter.getClass() != converterType) {
+                continue;
+            }
+            BufferedOutputMessage output = new BufferedOutputMessage();
+            try {
+                if (converter instanceof GenericHttpMessageConverter) {
+                    ((GenericHttpMessageConverter<Object>) converter).write(body, returnType.getGenericParameterType(), contentType, output);
+                } else {
+                    ((HttpMessageConverter<Object>) converter).write(body, contentType, output);
+                }
+            } catch (IOException | RuntimeException ex) {
+                return null;
+            }
+            return output;
+        }
+        return null;
+    }
+
+    /**
+     * 缓存键：请求路径及按名称排序的请求参数
+     */
+    private String key(HttpServletRequest request) {
+        StringBuilder key = new StringBuilder(this.urlPathHelper.getPathWithinApplication(request));
+        Map<String, String[]> parameters = request.getParameterMap();
+        if (!parameters.isEmpty()) {
+            for (Map.Entry<String, String[]> parameter : new TreeMap<>(parameters).entrySet()) {
+                key.append('\0').append(parameter.getKey());
+                for (String value : parameter.getValue()) {
+                    key.append('\1').append(value);
+                }
+            }
+        }
+        return key.toString();
+    }
+
+    private static void write(HttpServletRequest request, ServerHttpResponse response, ResponseCache.Entry entry) throws IOException {
+        HttpHeaders headers = response.getHeaders();
+        headers.setETag(entry.getEtag());
+        if (matches(request, entry.getEtag())) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            response.flush();
+            return;
+        }
+        headers.setContentType(entry.getContentType());
+        headers.setContentLength(entry.getBody().length);
+        response.getBody().write(entry.getBody());
+    }
+
+    /**
+     * If-None-Match是否包含ETag（弱比较）
+     */
+    private static boolean matches(HttpServletRequest request, String etag) {
+        Enumeration<String> values = request.getHeaders(HttpHeaders.IF_NONE_MATCH);
+        while (values.hasMoreElements()) {
+            for (String value : values.nextElement().split(",")) {
+                value = value.trim();
+                if (value.startsWith("W/")) {
+                    value = value.substring(2);
+                }
+                if (value.equals(etag) || value.equals("*")) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 写入内存的输出消息
+     */
+    private static final class BufferedOutputMessage implements HttpOutputMessage {
+
+        private final HttpHeaders headers = new HttpHeaders();
+
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream(256);
+
+        @Override
+        public OutputStream getBody() {
+            return this.body;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return this.headers;
+        }
+
+        /**
+         * 转换器写入的内容类型，没有时使用选中的内容类型
+         */
+        MediaType contentType(MediaType selected) {
+            MediaType contentType = this.headers.getContentType();
+            return contentType != null ? contentType : selected;
+        }
+
+    }
+
+    /**
+     * 请求登记的计算
+     */
+    private static final class Computation {
+
+        private final String key;
+
+        private final CompletableFuture<ResponseCache.Entry> future;
+
+        private final int ttlSeconds;
+
+        Computation(String key, CompletableFuture<ResponseCache.Entry> future, int ttlSeconds) {
+            this.key = key;
+            this.future = future;
+            this.ttlSeconds = ttlSeconds;
+        }
+
+    }
+
+}
@@ -0,0 +1,180 @@
+package com.ejobim.spring;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import lombok.NonNull;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * 响应结果的CBOR编解码，服务端（ResponseResultCborConverter）和Java客户端共用
+ * 信封字段名与JSON相同，null字段省略；errorType编码为ErrorType的序号（整数），解码时也接受名称
+ * 返回对象由Jackson编解码
+ * 需要jackson-dataformat-cbor
+ * @author zch
+ */
+public final class ResponseResultCbor {
+
+    private static final String ERROR_CODE = "errorCode";
+
+    private static final String ERROR_MESSAGE = "errorMessage";
+
+    private static final String ERROR_TYPE = "errorType";
+
+    private static final String ROOT = "root";
+
+    private static final String SUCCESS = "success";
+
+    private static final ErrorType[] ERROR_TYPES = ErrorType.values();
+
+    private final ObjectMapper mapper;
+
+    /**
+     * 构造函数，使用Spring默认配置的CBOR ObjectMapper，返回对象中的null字段省略
+     */
+    public ResponseResultCbor() {
+        this(Jackson2ObjectMapperBuilder.cbor().serializationInclusion(JsonInclude.Include.NON_NULL).build());
+    }
+
+    /**
+     * 构造函数
+     * @param mapper 使用CBORFactory的ObjectMapper，用于编解码返回对象
+     */
+    public ResponseResultCbor(@NonNull ObjectMapper mapper) {
+        if (!(mapper.getFactory() instanceof CBORFactory)) {
+            throw new IllegalArgumentException("ObjectMapper must use CBORFactory");
+        }
+        this.mapper = mapper;
+    }
+
+    /**
+     * 编码，不关闭输出流
+     * @param result 响应结果
+     * @param out 输出流
+     * @throws IOException 写出失败
+     */
+    public void write(@NonNull ResponseResult<?> result, @NonNull OutputStream out) throws IOException {
+        JsonGenerator generator = this.mapper.getFactory().createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.writeStartObject();
+        if (result.errorCode != null) {
+            generator.writeNumberField(ERROR_CODE, result.errorCode);
+        }
+        if (result.errorMessage != null) {
+            generator.writeStringField(ERROR_MESSAGE, result.errorMessage);
+        }
+        if (result.errorType != null) {
+            generator.writeNumberField(ERROR_TYPE, result.errorType.ordinal());
+        }
+        if (result.root != null) {
+            generator.writeFieldName(ROOT);
+            this.mapper.writeValue(generator, result.root);
+        }
+        generator.writeBooleanField(SUCCESS, result.success);
+        generator.writeEndObject();
+        generator.close();
+    }
+
+    /**
+     * 编码
+     * @param result 响应结果
+     * @return CBOR字节
+     * @throws IOException 编码失败
+     */
+    public byte[] encode(@NonNull ResponseResult<?> result) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+        this.write(result, out);
+        return out.toByteArray();
+    }
+
+    /**
+     * 解码
+     * @param in 输入流
+     * @param resultType 响应结果类型，如ResponseResult&lt;List&lt;Item&gt;&gt;，由它确定返回对象的类型
+     * @return 响应结果
+     * @throws IOException 读取失败或格式错误
+     */
+    public ResponseResult<?> read(@NonNull InputStream in, @NonNull Type resultType) throws IOException {
+        TypeFactory typeFactory = this.mapper.getTypeFactory();
+        JavaType[] parameters = typeFactory.constructType(resultType).findTypeParameters(ResponseResult.class);
+        JavaType rootType = parameters.length == 1 ? parameters[0] : typeFactory.constructType(Object.class);
+        try (JsonParser parser = this.mapper.getFactory().createParser(in)) {
+            return this.read(parser, rootType);
+        }
+    }
+
+    /**
+     * 解码
+     * @param <T> 返回对象类型
+     * @param bytes CBOR字节
+     * @param rootType 返回对象类型
+     * @return 响应结果
+     * @throws IOException 格式错误
+     */
+    @SuppressWarnings("unchecked")
+    public <T> ResponseResult<T> decode(@NonNull byte[] bytes, @NonNull Class<T> rootType) throws IOException {
+        try (JsonParser parser = this.mapper.getFactory().createParser(new ByteArrayInputStream(bytes))) {
+            return (ResponseResult<T>) this.read(parser, this.mapper.getTypeFactory().constructType(rootType));
+        }
+    }
+
+    private ResponseResult<Object> read(JsonParser parser, JavaType rootType) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new JsonParseException(parser, "ResponseResult must be a map");
+        }
+        ResponseResult<Object> result = new ResponseResult<>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            boolean isNull = parser.nextToken() == JsonToken.VALUE_NULL;
+            switch (name) {
+                case ERROR_CODE:
+                    result.errorCode = isNull ? null : parser.getIntValue();
+                    break;
+                case ERROR_MESSAGE:
+                    result.errorMessage = isNull ? null : parser.getText();
+                    break;
+                case ERROR_TYPE:
+                    result.errorType = isNull ? null : errorType(parser);
+                    break;
+                case ROOT:
+                    result.root = isNull ? null : this.mapper.readValue(parser, rootType);
+                    break;
+                case SUCCESS:
+                    result.success = parser.getBooleanValue();
+                    break;
+                default:
+                    parser.skipChildren();
+                    break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 按序号或名称解析错误类型，未知的序号（服务端版本较新）返回null
+     */
+    private static ErrorType errorType(JsonParser parser) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_STRING) {
+            try {
+                return ErrorType.valueOf(parser.getText());
+            } catch (IllegalArgumentException ex) {
+                return null;
+            }
+        }
+        int ordinal = parser.getIntValue();
+        return ordinal >= 0 && ordinal < ERROR_TYPES.length ? ERROR_TYPES[ordinal] : null;
+    }
+
+}
@@ -0,0 +1,42 @@
+package com.ejobim.spring;
+
+import java.util.List;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * 注册ResponseResultCborConverter
+ * 仅当存在jackson-dataformat-cbor且ejobim.cbor.enabled不为false时注册；添加在所有转换器之后，
+ * 只有请求明确接受application/cbor时才会选中，其他请求仍然输出JSON；
+ * 同时让ErrorResponses直接写出的错误响应（过滤器、错误控制器、通用异常）按同样的规则输出CBOR
+ * @author zch
+ */
+@Configuration
+@ConditionalOnClass(name = "com.fasterxml.jackson.dataformat.cbor.CBORFactory")
+@ConditionalOnProperty(name = "ejobim.cbor.enabled", havingValue = "true", matchIfMissing = true)
+public class ResponseResultCborConfigurer implements WebMvcConfigurer, DisposableBean {
+
+    private final ResponseResultCbor cbor = new ResponseResultCbor();
+
+    /**
+     * 构造函数
+     */
+    public ResponseResultCborConfigurer() {
+        ErrorResponses.setCbor(this.cbor);
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new ResponseResultCborConverter(this.cbor));
+    }
+
+    @Override
+    public void destroy() {
+        ErrorResponses.setCbor(null);
+    }
+
+}
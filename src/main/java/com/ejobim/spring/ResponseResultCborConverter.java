@@ -0,0 +1,76 @@
+package com.ejobim.spring;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import lombok.NonNull;
+import org.springframework.core.GenericTypeResolver;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+/**
+ * 响应结果CBOR转换器
+ * 请求的Accept为application/cbor时以CBOR输出ResponseResult，格式见ResponseResultCbor；
+ * 由ResponseResultCborConfigurer添加在所有转换器之后，Accept为空或*&#47;*时仍然输出JSON
+ * Java客户端可以把它加入RestTemplate的转换器，按ParameterizedTypeReference给出的返回对象类型解码
+ * 需要jackson-dataformat-cbor
+ * @author zch
+ */
+public class ResponseResultCborConverter extends AbstractGenericHttpMessageConverter<ResponseResult<?>> {
+
+    /**
+     * CBOR内容类型
+     */
+    public static final MediaType APPLICATION_CBOR = new MediaType("application", "cbor");
+
+    private final ResponseResultCbor cbor;
+
+    /**
+     * 构造函数
+     */
+    public ResponseResultCborConverter() {
+        this(new ResponseResultCbor());
+    }
+
+    /**
+     * 构造函数
+     * @param cbor CBOR编解码
+     */
+    public ResponseResultCborConverter(@NonNull ResponseResultCbor cbor) {
+        super(APPLICATION_CBOR);
+        this.cbor = cbor;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        // ResponseResultCbor只写出信封字段，子类的额外字段会丢失，交给其他转换器
+        return clazz == ResponseResult.class;
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        // 解码结果是ResponseResult，不能读取为子类
+        Class<?> clazz = ResolvableType.forType(GenericTypeResolver.resolveType(type, contextClass)).resolve();
+        return clazz == ResponseResult.class && this.canRead(mediaType);
+    }
+
+    @Override
+    public ResponseResult<?> read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) throws IOException, HttpMessageNotReadableException {
+        return this.cbor.read(inputMessage.getBody(), GenericTypeResolver.resolveType(type, contextClass));
+    }
+
+    @Override
+    protected ResponseResult<?> readInternal(Class<? extends ResponseResult<?>> clazz, HttpInputMessage inputMessage) throws IOException, HttpMessageNotReadableException {
+        return this.cbor.read(inputMessage.getBody(), clazz);
+    }
+
+    @Override
+    protected void writeInternal(ResponseResult<?> result, Type type, HttpOutputMessage outputMessage) throws IOException, HttpMessageNotWritableException {
+        this.cbor.write(result, outputMessage.getBody());
+    }
+
+}
@@ -0,0 +1,198 @@
+package com.ejobim.spring;
+
+import com.alibaba.fastjson.JSON;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.stereotype.Component;
+
+/**
+ * 业务响应结果转换器
+ * 信封字段（errorCode、errorMessage、errorType、success）使用预先编码的字节片段，不反射ResponseResult，
+ * 只有返回对象和错误消息交给fastjson序列化；整个响应先写入线程本地的缓冲区，再连同Content-Length一次写出
+ * 输出与fastjson序列化同一个ResponseResult的结果相同（返回对象内的循环引用路径除外）
+ * 只处理ResponseResult本身：子类可能有额外字段，信封片段不会输出它们，交给其他转换器（StreamingResponseResult由StreamingResponseResultConverter处理）
+ * 仅当ejobim.response-result-converter.enabled为true时注册：它排在应用配置的FastJsonHttpMessageConverter之前，
+ * 使用fastjson默认的序列化特性，不使用FastJsonConfig中的设置（如SerializerFeature、日期格式）
+ * @author zch
+ */
+@Component
+@ConditionalOnProperty(name = "ejobim.response-result-converter.enabled", havingValue = "true")
+public class ResponseResultMessageConverter extends AbstractHttpMessageConverter<ResponseResult<?>> {
+
+    /**
+     * 线程本地缓冲区保留的最大容量，超出时用后丢弃，避免个别大响应长期占用内存
+     */
+    private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+
+    private static final ThreadLocal<Buffer> BUFFERS = ThreadLocal.withInitial(() -> new Buffer(1024));
+
+    private static final byte[] ERROR_CODE = bytes("\"errorCode\":");
+
+    private static final byte[] ERROR_MESSAGE = bytes("\"errorMessage\":");
+
+    private static final Map<ErrorType, byte[]> ERROR_TYPES = new EnumMap<>(ErrorType.class);
+
+    /**
+     * 错误消息为错误类型描述时的片段
+     */
+    private static final Map<ErrorType, byte[]> DESCRIPTIONS = new EnumMap<>(ErrorType.class);
+
+    private static final byte[] ROOT = bytes("\"root\":");
+
+    private static final byte[] SUCCESS_TRUE = bytes("\"success\":true}");
+
+    private static final byte[] SUCCESS_FALSE = bytes("\"success\":false}");
+
+    static {
+        for (ErrorType errorType : ErrorType.values()) {
+            ERROR_TYPES.put(errorType, bytes("\"errorType\":" + JSON.toJSONString(errorType) + ","));
+            DESCRIPTIONS.put(errorType, bytes("\"errorMessage\":" + JSON.toJSONString(errorType.getDescription()) + ","));
+        }
+    }
+
+    /**
+     * 构造函数
+     */
+    public ResponseResultMessageConverter() {
+        super(StandardCharsets.UTF_8, MediaType.APPLICATION_JSON, new MediaType("application", "*+json"));
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return clazz == ResponseResult.class;
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected ResponseResult<?> readInternal(Class<? extends ResponseResult<?>> clazz, HttpInputMessage inputMessage) throws IOException, HttpMessageNotReadableException {
+        throw new HttpMessageNotReadableException("ResponseResult is write-only");
+    }
+
+    @Override
+    protected void addDefaultHeaders(HttpHeaders headers, ResponseResult<?> result, MediaType contentType) throws IOException {
+        // 常见的application/json直接使用预先格式化的内容类型，不再创建带字符集的MediaType
+        if (headers.getContentType() == null && (contentType == null || contentType.isWildcardType()
+                || contentType.isWildcardSubtype() || MediaType.APPLICATION_JSON.equals(contentType))) {
+            headers.set(HttpHeaders.CONTENT_TYPE, ErrorResponses.CONTENT_TYPE);
+            return;
+        }
+        super.addDefaultHeaders(headers, result, contentType);
+    }
+
+    @Override
+    protected void writeInternal(ResponseResult<?> result, HttpOutputMessage outputMessage) throws IOException, HttpMessageNotWritableException {
+        Buffer buffer = BUFFERS.get();
+        buffer.reset();
+        try {
+            write(result, buffer);
+            outputMessage.getHeaders().setContentLength(buffer.size());
+            buffer.writeTo(outputMessage.getBody());
+        } finally {
+            if (buffer.capacity() > MAX_RETAINED_CAPACITY) {
+                BUFFERS.remove();
+            }
+        }
+    }
+
+    /**
+     * 序列化响应结果，字段按名称排序，null字段省略，success总在最后
+     * @param result 响应结果
+     * @param out 输出流
+     * @throws IOException 写出失败
+     */
+    static void write(ResponseResult<?> result, OutputStream out) throws IOException {
+        out.write('{');
+        if (result.errorCode != null) {
+            out.write(ERROR_CODE);
+            out.write(bytes(result.errorCode.toString()));
+            out.write(',');
+        }
+        if (result.errorType != null && result.errorType.getDescription().equals(result.errorMessage)) {
+            out.write(DESCRIPTIONS.get(result.errorType));
+        } else if (result.errorMessage != null) {
+            out.write(ERROR_MESSAGE);
+            JSON.writeJSONString(out, result.errorMessage);
+            out.write(',');
+        }
+        if (result.errorType != null) {
+            out.write(ERROR_TYPES.get(result.errorType));
+        }
+        if (result.root != null) {
+            out.write(ROOT);
+            JSON.writeJSONString(out, result.root);
+            out.write(',');
+        }
+        out.write(result.success ? SUCCESS_TRUE : SUCCESS_FALSE);
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 可重用的字节缓冲区，不加锁
+     */
+    static final class Buffer extends OutputStream {
+
+        private byte[] bytes;
+
+        private int size;
+
+        Buffer(int capacity) {
+            this.bytes = new byte[capacity];
+        }
+
+        @Override
+        public void write(int b) {
+            this.ensureCapacity(this.size + 1);
+            this.bytes[this.size++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            this.ensureCapacity(this.size + len);
+            System.arraycopy(b, off, this.bytes, this.size, len);
+            this.size += len;
+        }
+
+        void writeTo(OutputStream out) throws IOException {
+            out.write(this.bytes, 0, this.size);
+        }
+
+        void reset() {
+            this.size = 0;
+        }
+
+        int size() {
+            return this.size;
+        }
+
+        int capacity() {
+            return this.bytes.length;
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity > this.bytes.length) {
+                this.bytes = Arrays.copyOf(this.bytes, Math.max(capacity, this.bytes.length * 2));
+            }
+        }
+
+    }
+
+}
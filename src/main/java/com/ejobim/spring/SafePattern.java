@@ -0,0 +1,134 @@
+package com.ejobim.spring;
+
+import java.util.regex.Pattern;
+import lombok.NonNull;
+
+/**
+ * 安全正则
+ * 模式在LinearPattern支持的子集内时用线性时间匹配，否则回退到JDK正则并限制步数和时间
+ * @author zch
+ */
+public final class SafePattern {
+
+    /**
+     * 检查超时的步数间隔
+     */
+    private static final int TIME_CHECK_INTERVAL = 4096;
+
+    private final Pattern pattern;
+
+    private final LinearPattern linearPattern;
+
+    private SafePattern(Pattern pattern, LinearPattern linearPattern) {
+        this.pattern = pattern;
+        this.linearPattern = linearPattern;
+    }
+
+    /**
+     * 编译
+     * @param regex 正则
+     * @return 安全正则
+     * @throws java.util.regex.PatternSyntaxException 正则语法错误
+     */
+    public static SafePattern compile(@NonNull String regex) {
+        Pattern pattern = Pattern.compile(regex);
+        return new SafePattern(pattern, LinearPattern.tryCompile(regex));
+    }
+
+    /**
+     * 整个输入是否匹配
+     * @param input 输入
+     * @param maxSteps 回退到JDK正则时的最大步数（读取字符的次数）
+     * @param maxNanos 回退到JDK正则时的最长时间（纳秒）
+     * @return 是否匹配
+     * @throws RegexBudgetExceededException 超出预算
+     */
+    public boolean matches(@NonNull CharSequence input, long maxSteps, long maxNanos) {
+        if (this.linearPattern != null) {
+            return this.linearPattern.matches(input);
+        }
+        return matches(this.pattern, input, maxSteps, maxNanos);
+    }
+
+    /**
+     * 在预算内用JDK正则匹配整个输入
+     * @param pattern 正则模式
+     * @param input 输入
+     * @param maxSteps 最大步数（读取字符的次数）
+     * @param maxNanos 最长时间（纳秒）
+     * @return 是否匹配
+     * @throws RegexBudgetExceededException 超出预算
+     */
+    public static boolean matches(@NonNull Pattern pattern, @NonNull CharSequence input, long maxSteps, long maxNanos) {
+        return pattern.matcher(new BudgetCharSequence(input, maxSteps, maxNanos)).matches();
+    }
+
+    /**
+     * 是否使用线性时间匹配
+     * @return 是否线性时间
+     */
+    public boolean isLinear() {
+        return this.linearPattern != null;
+    }
+
+    /**
+     * 获取JDK正则模式
+     * @return 正则模式
+     */
+    public Pattern getPattern() {
+        return this.pattern;
+    }
+
+    @Override
+    public String toString() {
+        return this.pattern.pattern();
+    }
+
+    /**
+     * 统计字符读取次数的字符序列，JDK正则的回溯体现为反复读取字符
+     */
+    private static final class BudgetCharSequence implements CharSequence {
+
+        private final CharSequence text;
+
+        private final long maxSteps;
+
+        private final long deadline;
+
+        private long steps;
+
+        BudgetCharSequence(CharSequence text, long maxSteps, long maxNanos) {
+            this.text = text;
+            this.maxSteps = maxSteps;
+            this.deadline = System.nanoTime() + maxNanos;
+        }
+
+        @Override
+        public char charAt(int index) {
+            long step = ++this.steps;
+            if (step > this.maxSteps) {
+                throw new RegexBudgetExceededException("regex step budget exceeded");
+            }
+            if (step % TIME_CHECK_INTERVAL == 0 && System.nanoTime() - this.deadline > 0) {
+                throw new RegexBudgetExceededException("regex time budget exceeded");
+            }
+            return this.text.charAt(index);
+        }
+
+        @Override
+        public int length() {
+            return this.text.length();
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return this.text.subSequence(start, end);
+        }
+
+        @Override
+        public String toString() {
+            return this.text.toString();
+        }
+    }
+
+}
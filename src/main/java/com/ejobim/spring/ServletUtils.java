@@ -3,6 +3,9 @@ package com.ejobim.spring;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.util.Enumeration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
 import javax.servlet.http.HttpServletRequest;
 
 /**
@@ -10,79 +13,235 @@ import javax.servlet.http.HttpServletRequest;
  * @author zch
  */
 public class ServletUtils {
-    
+
+    /**
+     * 依次查找客户端IP的请求头
+     */
+    private static final String[] IP_HEADERS = {
+        "X-Forwarded-For", "Proxy-Client-IP", "WL-Proxy-Client-IP", "HTTP_CLIENT_IP", "HTTP_X_FORWARDED_FOR"
+    };
+
+    /**
+     * 本机地址刷新间隔（秒）
+     */
+    private static final long LOCAL_ADDRESS_REFRESH_SECONDS = 300;
+
+    /**
+     * 可信代理网段，为空时保持原有行为，信任请求头中的地址
+     * 初始值来自系统属性ejobim.servlet.trustedProxies（逗号分隔的CIDR网段）
+     */
+    private static volatile IpPrefixTrie trustedProxies = IpPrefixTrie.of(System.getProperty("ejobim.servlet.trustedProxies", "").split(","));
+
+    private static volatile String localAddress = null;
+
+    /**
+     * 本机地址下次刷新的时间（System.nanoTime），首次遇到回环地址时解析
+     */
+    private static volatile long localAddressRefreshAt = System.nanoTime();
+
+    private static final AtomicBoolean REFRESHING = new AtomicBoolean();
+
+    /**
+     * 设置可信代理网段
+     * 只有来自可信代理的请求才使用X-Forwarded-For等请求头，并从右向左跳过可信代理取第一个不可信的地址
+     * @param cidrs 网段，如10.0.0.0/8、fd00::/8，为空时信任所有请求头
+     * @throws IllegalArgumentException 网段格式不正确
+     */
+    public static void setTrustedProxies(String... cidrs) {
+        trustedProxies = IpPrefixTrie.of(cidrs);
+    }
+
+    /**
+     * 是否设置了可信代理网段
+     * @return 未设置时请求头中的地址可以由客户端任意伪造
+     */
+    public static boolean hasTrustedProxies() {
+        return !trustedProxies.isEmpty();
+    }
+
     /**
      * 获取实际IP
+     * 未设置可信代理时依次取各请求头中的地址；
+     * 设置可信代理时，直接连接方不是可信代理则返回直接连接方地址，否则从右向左取X-Forwarded-For中第一个不是可信代理的地址
+     * 本机回环地址替换为缓存的本机地址，本机地址尚未解析完成时返回回环地址；不会在调用线程中解析，可以在事件循环线程中调用
      * @param request servlet请求
      * @return 
      */
     public static String getRealIP(HttpServletRequest request) {
-        String ip = request.getHeader("X-Forwarded-For");
-        if (ip == null || ip.length() == 0 || "unknown".equalsIgnoreCase(ip)) {
-            ip = request.getHeader("Proxy-Client-IP");
+        return getRealIP(request.getRemoteAddr(), request::getHeader);
+    }
+
+    /**
+     * 获取实际IP，规则与getRealIP(HttpServletRequest)相同，供非Servlet环境（如WebFlux）使用
+     * @param remoteAddress 直接连接方地址
+     * @param headers 按名称读取请求头，没有时返回null
+     * @return 
+     */
+    public static String getRealIP(String remoteAddress, Function<String, String> headers) {
+        IpPrefixTrie proxies = trustedProxies;
+        String ip;
+        if (proxies.isEmpty()) {
+            ip = getHeaderIP(remoteAddress, headers, 0);
+        } else {
+            ip = remoteAddress;
+            if (ip != null && proxies.contains(ip)) {
+                String forwarded = headers.apply(IP_HEADERS[0]);
+                if (forwarded != null && forwarded.length() > 0 && !"unknown".equalsIgnoreCase(forwarded)) {
+                    ip = getForwardedIP(forwarded, proxies, ip);
+                } else {
+                    String header = getHeaderIP(remoteAddress, headers, 1);
+                    if (header != null) {
+                        ip = header;
+                    }
+                }
+            }
         }
-        if (ip == null || ip.length() == 0 || "unknown".equalsIgnoreCase(ip)) {
-            ip = request.getHeader("WL-Proxy-Client-IP");
+        if ("127.0.0.1".equals(ip) || "0:0:0:0:0:0:0:1".equals(ip)) {
+            String local = getLocalAddress();
+            if (local != null) {
+                ip = local;
+            }
         }
-        if (ip == null || ip.length() == 0 || "unknown".equalsIgnoreCase(ip)) {
-            ip = request.getHeader("HTTP_CLIENT_IP");
+        return ip;
+    }
+
+    /**
+     * 依次取请求头中的地址，都没有时取直接连接方地址
+     */
+    private static String getHeaderIP(String remoteAddress, Function<String, String> headers, int from) {
+        for (int i = from; i < IP_HEADERS.length; i++) {
+            String ip = headers.apply(IP_HEADERS[i]);
+            if (ip != null && ip.length() > 0 && !"unknown".equalsIgnoreCase(ip)) {
+                return ip;
+            }
         }
-        if (ip == null || ip.length() == 0 || "unknown".equalsIgnoreCase(ip)) {
-            ip = request.getHeader("HTTP_X_FORWARDED_FOR");
+        return from == 0 ? remoteAddress : null;
+    }
+
+    /**
+     * 从右向左取X-Forwarded-For中第一个不是可信代理的地址，都是可信代理时取最左边的地址，没有地址时取直接连接方地址
+     */
+    private static String getForwardedIP(String forwarded, IpPrefixTrie proxies, String remoteAddress) {
+        int end = forwarded.length();
+        int start = end;
+        int to = end;
+        while (end > 0) {
+            int comma = forwarded.lastIndexOf(',', end - 1);
+            int from = comma + 1;
+            to = end;
+            while (from < to && forwarded.charAt(from) <= ' ') {
+                from++;
+            }
+            while (to > from && forwarded.charAt(to - 1) <= ' ') {
+                to--;
+            }
+            start = from;
+            if (from < to && !proxies.contains(forwarded, from, to)) {
+                break;
+            }
+            end = comma < 0 ? 0 : comma;
         }
-        if (ip == null || ip.length() == 0 || "unknown".equalsIgnoreCase(ip)) {
-            ip = request.getRemoteAddr();
+        if (start >= to) {
+            return remoteAddress;
         }
-        if ("127.0.0.1".equals(ip) || "0:0:0:0:0:0:0:1".equals(ip)) {
+        return start == 0 && to == forwarded.length() ? forwarded : forwarded.substring(start, to);
+    }
+
+    /**
+     * 获取缓存的本机地址，到期时由一个请求线程启动一次性的后台线程解析，所有线程立即返回旧值（首次解析完成前为null）
+     * 解析可能因DNS阻塞数秒，不能在请求线程或事件循环线程中进行；不使用常驻的后台线程，不会在应用重新部署后残留
+     */
+    private static String getLocalAddress() {
+        if (System.nanoTime() - localAddressRefreshAt >= 0 && REFRESHING.compareAndSet(false, true)) {
             try {
-                ip = InetAddress.getLocalHost().getHostAddress();
-            } catch (UnknownHostException ex) {
+                Thread resolver = new Thread(ServletUtils::refreshLocalAddress, "ejobim-local-address");
+                resolver.setDaemon(true);
+                resolver.start();
+            } catch (RuntimeException | Error ex) {
+                scheduleLocalAddressRefresh();
             }
         }
-        return ip;
+        return localAddress;
     }
-    
+
+    private static void refreshLocalAddress() {
+        try {
+            localAddress = InetAddress.getLocalHost().getHostAddress();
+        } catch (UnknownHostException ex) {
+        } finally {
+            // 解析失败时同样等待下一个间隔，避免每个请求都重试
+            scheduleLocalAddressRefresh();
+        }
+    }
+
+    private static void scheduleLocalAddressRefresh() {
+        localAddressRefreshAt = System.nanoTime() + TimeUnit.SECONDS.toNanos(LOCAL_ADDRESS_REFRESH_SECONDS);
+        REFRESHING.set(false);
+    }
+
     /**
      * 获取格式化请求信息
      * @param request Servlet请求
      * @return 
      */
     public static String getInfo(HttpServletRequest request) {
+        return getInfo(request, Integer.MAX_VALUE);
+    }
+
+    /**
+     * 获取格式化请求信息，参数部分和请求头部分分别在超出长度上限时截断
+     * @param request Servlet请求
+     * @param maxLength 参数部分（含URL、METHOD）和请求头部分各自的长度上限，达到后截断当前的值并不再追加，以...结尾
+     * @return 
+     */
+    public static String getInfo(HttpServletRequest request, int maxLength) {
         StringBuilder buffer = new StringBuilder();
         buffer.append("URL:");
-        buffer.append(request.getRequestURL());
+        boolean fits = appendLimited(buffer, request.getRequestURL(), maxLength);
         buffer.append("\nMETHOD:");
-        buffer.append(request.getMethod());
+        fits = fits && appendLimited(buffer, request.getMethod(), maxLength);
         buffer.append("\nPARAM:");
         Enumeration<String> names = request.getParameterNames();
-        for (int i = 0; names.hasMoreElements(); i++) {
-            if (i > 0) {
-                buffer.append("&");
-            }
+        for (int i = 0; fits && names.hasMoreElements(); i++) {
             String name = names.nextElement();
-            buffer.append(name);
-            buffer.append("=");
+            fits = (i == 0 || appendLimited(buffer, "&", maxLength)) && appendLimited(buffer, name, maxLength) && appendLimited(buffer, "=", maxLength);
             String[] values = request.getParameterValues(name);
-            for (int j = 0; j < values.length; j++) {
-                if (j > 0) {
-                    buffer.append(",");
-                }
-                buffer.append(values[j]);
+            for (int j = 0; fits && values != null && j < values.length; j++) {
+                fits = (j == 0 || appendLimited(buffer, ",", maxLength)) && appendLimited(buffer, values[j], maxLength);
             }
         }
         buffer.append("\nHEADER:");
+        long limit = (long) buffer.length() + maxLength;
+        fits = true;
         Enumeration<String> keys = request.getHeaderNames();
-        for (int i = 0; keys.hasMoreElements(); i++) {
-            if (i > 0) {
-                buffer.append("&");
-            }
+        for (int i = 0; fits && keys.hasMoreElements(); i++) {
             String key = keys.nextElement();
-            String value = request.getHeader(key);
-            buffer.append(key).append("=").append(value);
+            fits = (i == 0 || appendLimited(buffer, "&", limit)) && appendLimited(buffer, key, limit) && appendLimited(buffer, "=", limit)
+                    && appendLimited(buffer, request.getHeader(key), limit);
         }
         buffer.append("\nIP:");
         buffer.append(getRealIP(request));
         return buffer.toString();
     }
+
+    /**
+     * 在不超过长度上限的范围内追加，超出时截断该值并以...结尾
+     * @param buffer 缓冲区
+     * @param value 值，null按"null"追加
+     * @param limit 缓冲区长度上限
+     * @return 是否完整追加，为false时不应继续追加
+     */
+    static boolean appendLimited(StringBuilder buffer, CharSequence value, long limit) {
+        if (value == null) {
+            value = "null";
+        }
+        long remaining = limit - buffer.length();
+        if (value.length() <= remaining) {
+            buffer.append(value);
+            return true;
+        }
+        buffer.append(value, 0, (int) Math.max(0, remaining)).append("...");
+        return false;
+    }
     
 }
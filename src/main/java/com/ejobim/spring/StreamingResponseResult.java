@@ -0,0 +1,96 @@
+package com.ejobim.spring;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import lombok.NonNull;
+
+/**
+ * 流式业务响应结果
+ * 返回对象是逐个产生的元素，由StreamingResponseResultConverter边迭代边写出为JSON数组，不在内存中物化整个列表
+ * 元素只能被迭代一次，写出结束（包括出错）时关闭关联的资源
+ *
+ * @author zch
+ */
+public class StreamingResponseResult<T> extends ResponseResult<Iterator<T>> implements AutoCloseable {
+
+    private final AutoCloseable resource;
+
+    /**
+     * 构造函数
+     * @param elements 元素迭代器
+     * @param resource 写出结束时关闭的资源，可以为null
+     */
+    public StreamingResponseResult(@NonNull Iterator<T> elements, AutoCloseable resource) {
+        super(elements);
+        this.resource = resource;
+    }
+
+    /**
+     * 由迭代器创建
+     * @param <T> 元素类型
+     * @param elements 元素迭代器
+     * @return 流式响应结果
+     */
+    public static <T> StreamingResponseResult<T> of(@NonNull Iterator<T> elements) {
+        return new StreamingResponseResult<>(elements, null);
+    }
+
+    /**
+     * 由Stream创建，写出结束时关闭Stream
+     * @param <T> 元素类型
+     * @param elements 元素流
+     * @return 流式响应结果
+     */
+    public static <T> StreamingResponseResult<T> of(@NonNull Stream<T> elements) {
+        return new StreamingResponseResult<>(elements.iterator(), elements);
+    }
+
+    /**
+     * 由游标创建，游标每次返回下一个元素，返回null表示结束
+     * @param <T> 元素类型
+     * @param cursor 游标
+     * @param resource 写出结束时关闭的资源（如数据库游标），可以为null
+     * @return 流式响应结果
+     */
+    public static <T> StreamingResponseResult<T> of(@NonNull Supplier<T> cursor, AutoCloseable resource) {
+        Iterator<T> elements = new Iterator<T>() {
+
+            private T next = null;
+
+            private boolean fetched = false;
+
+            @Override
+            public boolean hasNext() {
+                if (!this.fetched) {
+                    this.next = cursor.get();
+                    this.fetched = true;
+                }
+                return this.next != null;
+            }
+
+            @Override
+            public T next() {
+                if (!this.hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                this.fetched = false;
+                return this.next;
+            }
+        };
+        return new StreamingResponseResult<>(elements, resource);
+    }
+
+    /**
+     * 关闭关联的资源
+     * @throws Exception 关闭失败
+     */
+    @Override
+    public void close() throws Exception {
+        if (this.resource != null) {
+            this.resource.close();
+        }
+    }
+
+}
@@ -0,0 +1,110 @@
+package com.ejobim.spring;
+
+import com.alibaba.fastjson.JSON;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.stereotype.Component;
+
+/**
+ * 流式业务响应结果转换器
+ * 先写出success、errorType等信封字段，再逐个序列化返回对象的元素，
+ * 每积累一个块就写入响应输出流并刷新，输出流阻塞时迭代随之暂停，内存占用与块大小相当
+ * 元素逐个序列化，除此之外输出与fastjson序列化同样内容的ResponseResult的结果相同：
+ * 不同元素引用同一个对象时该对象在每个元素中完整写出，而fastjson序列化整个列表时会输出$ref引用
+ * 迭代出错时如果已有块写出（响应已提交），无法再改为错误响应，异常继续抛出，由容器中断连接，
+ * 客户端得到不完整的JSON而不是拼接在后面的错误响应
+ * @author zch
+ */
+@Component
+public class StreamingResponseResultConverter extends AbstractHttpMessageConverter<StreamingResponseResult<?>> {
+
+    /**
+     * 默认块大小（字节）
+     */
+    private static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+
+    private static final byte COMMA = ',';
+
+    private final int chunkSize;
+
+    /**
+     * 构造函数
+     */
+    public StreamingResponseResultConverter() {
+        this(DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * 构造函数
+     * @param chunkSize 块大小（字节）
+     */
+    public StreamingResponseResultConverter(int chunkSize) {
+        super(StandardCharsets.UTF_8, MediaType.APPLICATION_JSON, new MediaType("application", "*+json"));
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return StreamingResponseResult.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected StreamingResponseResult<?> readInternal(Class<? extends StreamingResponseResult<?>> clazz, HttpInputMessage inputMessage) throws IOException, HttpMessageNotReadableException {
+        throw new HttpMessageNotReadableException("StreamingResponseResult is write-only");
+    }
+
+    @Override
+    protected void writeInternal(StreamingResponseResult<?> result, HttpOutputMessage outputMessage) throws IOException, HttpMessageNotWritableException {
+        try {
+            this.write(result, outputMessage.getBody());
+        } finally {
+            try {
+                result.close();
+            } catch (Exception ex) {
+                logger.warn("Failed to close streaming result resource", ex);
+            }
+        }
+    }
+
+    private void write(StreamingResponseResult<?> result, OutputStream out) throws IOException {
+        // 不含root的信封按字段名排序，success总在最后，root插在它之前
+        ResponseResult<?> envelope = ResponseResult.error(result.errorType, result.errorCode, result.errorMessage);
+        envelope.success = result.success;
+        String json = JSON.toJSONString(envelope);
+        int successAt = json.lastIndexOf("\"success\"");
+        ByteArrayOutputStream chunk = new ByteArrayOutputStream(Math.min(this.chunkSize, DEFAULT_CHUNK_SIZE) + 1024);
+        chunk.write((json.substring(0, successAt) + "\"root\":[").getBytes(StandardCharsets.UTF_8));
+        Iterator<?> elements = result.root;
+        boolean first = true;
+        while (elements.hasNext()) {
+            if (!first) {
+                chunk.write(COMMA);
+            }
+            first = false;
+            JSON.writeJSONString(chunk, elements.next());
+            if (chunk.size() >= this.chunkSize) {
+                chunk.writeTo(out);
+                out.flush();
+                chunk.reset();
+            }
+        }
+        chunk.write(("]," + json.substring(successAt)).getBytes(StandardCharsets.UTF_8));
+        chunk.writeTo(out);
+        out.flush();
+    }
+
+}
@@ -0,0 +1,270 @@
+package com.ejobim.spring;
+
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.regex.Pattern;
+import lombok.NonNull;
+
+/**
+ * 参数对象验证计划
+ * 由参数对象类字段上的ParameterRules注解编译而成，每个类只编译一次（缓存在ClassValue中），
+ * 验证时通过MethodHandle读取字段并依次执行规则，不再反射；所有失败记录到同一个收集器
+ * 包括父类的字段，父类字段在前；静态字段忽略
+ * @author zch
+ */
+public final class ValidationPlan {
+
+    private static final ClassValue<ValidationPlan> PLANS = new ClassValue<ValidationPlan>() {
+        @Override
+        protected ValidationPlan computeValue(Class<?> type) {
+            return compile(type);
+        }
+    };
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private final Class<?> type;
+
+    private final Step[] steps;
+
+    private ValidationPlan(Class<?> type, Step[] steps) {
+        this.type = type;
+        this.steps = steps;
+    }
+
+    /**
+     * 获取参数对象类的验证计划，首次获取时编译
+     * 可在启动时调用以提前编译并检查注解是否正确
+     * @param type 参数对象类
+     * @return 验证计划
+     * @throws IllegalArgumentException 注解与字段类型不匹配或范围值格式不正确
+     */
+    public static ValidationPlan of(@NonNull Class<?> type) {
+        return PLANS.get(type);
+    }
+
+    /**
+     * 验证参数对象
+     * @param target 参数对象
+     * @param collector 参数验证收集器
+     */
+    public void validate(@NonNull Object target, @NonNull ParameterCollector collector) {
+        if (!this.type.isInstance(target)) {
+            throw new IllegalArgumentException(target.getClass().getName() + " is not a " + this.type.getName());
+        }
+        for (Step step : this.steps) {
+            Object value;
+            try {
+                value = (Object) step.getter.invokeExact(target);
+            } catch (RuntimeException | Error ex) {
+                throw ex;
+            } catch (Throwable ex) {
+                throw new IllegalStateException(ex);
+            }
+            for (Rule rule : step.rules) {
+                rule.check(collector, value);
+            }
+        }
+    }
+
+    /**
+     * 是否没有规则
+     * @return 是否为空
+     */
+    public boolean isEmpty() {
+        return this.steps.length == 0;
+    }
+
+    private static ValidationPlan compile(Class<?> type) {
+        List<Class<?>> hierarchy = new ArrayList<>();
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            hierarchy.add(0, current);
+        }
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        List<Step> steps = new ArrayList<>();
+        for (Class<?> current : hierarchy) {
+            for (Field field : current.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers())) {
+                    continue;
+                }
+                List<Rule> rules = new ArrayList<>();
+                for (Annotation annotation : field.getAnnotations()) {
+                    Rule rule = compileRule(field, annotation);
+                    if (rule != null) {
+                        rules.add(rule);
+                    }
+                }
+                if (rules.isEmpty()) {
+                    continue;
+                }
+                field.setAccessible(true);
+                MethodHandle getter;
+                try {
+                    getter = lookup.unreflectGetter(field).asType(GETTER_TYPE);
+                } catch (IllegalAccessException ex) {
+                    throw new IllegalArgumentException("Cannot access " + field, ex);
+                }
+                steps.add(new Step(getter, rules.toArray(new Rule[0])));
+            }
+        }
+        return new ValidationPlan(type, steps.toArray(new Step[0]));
+    }
+
+    private static Rule compileRule(Field field, Annotation annotation) {
+        String name = field.getName();
+        Class<?> fieldType = field.getType();
+        if (annotation instanceof ParameterRules.Required) {
+            String desc = ((ParameterRules.Required) annotation).desc();
+            return (collector, value) -> collector.required(name, value, desc);
+        }
+        if (annotation instanceof ParameterRules.NotEmpty) {
+            String desc = ((ParameterRules.NotEmpty) annotation).desc();
+            if (Collection.class.isAssignableFrom(fieldType)) {
+                return (collector, value) -> collector.notEmpty(name, (Collection<?>) value, desc);
+            }
+            requireString(field, annotation);
+            return (collector, value) -> collector.notEmpty(name, (String) value, desc);
+        }
+        if (annotation instanceof ParameterRules.NotBlank) {
+            requireString(field, annotation);
+            String desc = ((ParameterRules.NotBlank) annotation).desc();
+            return (collector, value) -> collector.notBlank(name, (String) value, desc);
+        }
+        if (annotation instanceof ParameterRules.LengthInRange) {
+            requireString(field, annotation);
+            ParameterRules.LengthInRange rule = (ParameterRules.LengthInRange) annotation;
+            Integer min = rule.min() < 0 ? null : rule.min();
+            Integer max = rule.max() < 0 ? null : rule.max();
+            String desc = rule.desc();
+            return (collector, value) -> collector.lengthInRange(name, (String) value, min, max, desc);
+        }
+        if (annotation instanceof ParameterRules.Matched) {
+            requireString(field, annotation);
+            ParameterRules.Matched rule = (ParameterRules.Matched) annotation;
+            // 编译时检查正则表达式，验证时使用验证器的模式缓存（可走线性时间匹配）
+            Pattern.compile(rule.pattern());
+            String pattern = rule.pattern();
+            String desc = rule.desc();
+            return (collector, value) -> collector.matched(name, (String) value, pattern, desc);
+        }
+        if (annotation instanceof ParameterRules.Email) {
+            requireString(field, annotation);
+            String desc = ((ParameterRules.Email) annotation).desc();
+            return (collector, value) -> collector.isEmail(name, (String) value, desc);
+        }
+        if (annotation instanceof ParameterRules.IPv4) {
+            requireString(field, annotation);
+            String desc = ((ParameterRules.IPv4) annotation).desc();
+            return (collector, value) -> collector.isIPv4(name, (String) value, desc);
+        }
+        if (annotation instanceof ParameterRules.Domain) {
+            requireString(field, annotation);
+            String desc = ((ParameterRules.Domain) annotation).desc();
+            return (collector, value) -> collector.isDomain(name, (String) value, desc);
+        }
+        if (annotation instanceof ParameterRules.Host) {
+            requireString(field, annotation);
+            String desc = ((ParameterRules.Host) annotation).desc();
+            return (collector, value) -> collector.isHost(name, (String) value, desc);
+        }
+        if (annotation instanceof ParameterRules.Mobile) {
+            requireString(field, annotation);
+            String desc = ((ParameterRules.Mobile) annotation).desc();
+            return (collector, value) -> collector.isMobile(name, (String) value, desc);
+        }
+        if (annotation instanceof ParameterRules.HtmlColor) {
+            requireString(field, annotation);
+            String desc = ((ParameterRules.HtmlColor) annotation).desc();
+            return (collector, value) -> collector.isHtmlColor(name, (String) value, desc);
+        }
+        if (annotation instanceof ParameterRules.InRange) {
+            ParameterRules.InRange rule = (ParameterRules.InRange) annotation;
+            Comparable<?> min = parseBound(field, rule.min());
+            Comparable<?> max = parseBound(field, rule.max());
+            String desc = rule.desc();
+            return (collector, value) -> collector.inRange(name, (Comparable<?>) value, min, max, desc);
+        }
+        if (annotation instanceof ParameterRules.Sort) {
+            requireString(field, annotation);
+            String[] properties = ((ParameterRules.Sort) annotation).value();
+            return (collector, value) -> collector.isSort(name, (String) value, properties);
+        }
+        return null;
+    }
+
+    private static void requireString(Field field, Annotation annotation) {
+        if (field.getType() != String.class) {
+            throw new IllegalArgumentException("@" + annotation.annotationType().getSimpleName() + " requires a String field: " + field);
+        }
+    }
+
+    /**
+     * 按字段类型解析范围值
+     */
+    private static Comparable<?> parseBound(Field field, String text) {
+        if (text.isEmpty()) {
+            return null;
+        }
+        Class<?> type = field.getType();
+        try {
+            if (type == int.class || type == Integer.class) {
+                return Integer.valueOf(text);
+            } else if (type == long.class || type == Long.class) {
+                return Long.valueOf(text);
+            } else if (type == short.class || type == Short.class) {
+                return Short.valueOf(text);
+            } else if (type == byte.class || type == Byte.class) {
+                return Byte.valueOf(text);
+            } else if (type == double.class || type == Double.class) {
+                return Double.valueOf(text);
+            } else if (type == float.class || type == Float.class) {
+                return Float.valueOf(text);
+            } else if (type == BigDecimal.class) {
+                return new BigDecimal(text);
+            } else if (type == BigInteger.class) {
+                return new BigInteger(text);
+            } else if (type == String.class) {
+                return text;
+            }
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid @InRange bound " + text + " for " + field, ex);
+        }
+        throw new IllegalArgumentException("@InRange does not support field type: " + field);
+    }
+
+    /**
+     * 单条规则
+     */
+    @FunctionalInterface
+    private interface Rule {
+
+        void check(ParameterCollector collector, Object value);
+
+    }
+
+    /**
+     * 一个字段的读取方法及其规则
+     */
+    private static final class Step {
+
+        private final MethodHandle getter;
+
+        private final Rule[] rules;
+
+        Step(MethodHandle getter, Rule[] rules) {
+            this.getter = getter;
+            this.rules = rules;
+        }
+
+    }
+
+}
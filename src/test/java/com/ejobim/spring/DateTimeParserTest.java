@@ -0,0 +1,72 @@
+package com.ejobim.spring;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import org.junit.Test;
+
+/**
+ * DateTimeParser测试
+ * @author zch
+ */
+public class DateTimeParserTest {
+
+    private static LocalDateTime parse(String pattern, String text) {
+        return DateTimeParser.compile(pattern).parseLocalDateTime(text);
+    }
+
+    @Test
+    public void fixedWidth() {
+        assertEquals(LocalDateTime.of(2020, 1, 1, 5, 30), parse("yyyy-MM-dd HH:mm:ss", "2020-01-01 05:30:00"));
+        assertEquals(LocalDateTime.of(2020, 2, 29, 0, 0), parse("yyyy-MM-dd", "2020-02-29"));
+        assertNull(parse("yyyy-MM-dd", "2021-02-29"));
+        assertNull(parse("yyyy-MM-dd HH:mm:ss", "2020-01-01 24:00:00"));
+    }
+
+    @Test
+    public void clockHourWithAmPm() {
+        assertEquals(LocalDateTime.of(2020, 1, 1, 17, 30), parse("yyyy-MM-dd hh:mm:ss a", "2020-01-01 05:30:00 PM"));
+    }
+
+    @Test
+    public void clockHourWithoutAmPmFails() {
+        // 没有上下午标记时无法确定时间，不能用00:00代替
+        assertNull(parse("yyyy-MM-dd hh:mm:ss", "2020-01-01 05:30:00"));
+    }
+
+    @Test
+    public void patternWithoutYearDefaultsYear() {
+        assertEquals(LocalDateTime.of(1970, 2, 3, 0, 0), parse("M/d", "2/3"));
+        assertEquals(LocalDateTime.of(1970, 12, 31, 0, 0), parse("MM-dd", "12-31"));
+        assertNull(parse("M/d", "2/30"));
+    }
+
+    @Test
+    public void patternWithoutDateOrTime() {
+        assertEquals(LocalDateTime.of(1970, 1, 1, 8, 15), parse("HH:mm", "08:15"));
+        assertEquals(LocalDateTime.of(2020, 1, 1, 0, 0), parse("yyyy", "2020"));
+        assertEquals(LocalDateTime.of(2020, 3, 1, 0, 0), parse("yyyy-MM", "2020-03"));
+    }
+
+    @Test
+    public void quotedLettersAreIgnored() {
+        assertEquals(LocalDateTime.of(2020, 1, 2, 3, 4, 5), parse("yyyy-MM-dd'T'HH:mm:ss", "2020-01-02T03:04:05"));
+        assertEquals(LocalDate.of(2020, 1, 2), DateTimeParser.compile("'day' yyyy/M/d").parseLocalDate("day 2020/1/2"));
+    }
+
+    @Test
+    public void fractionOfSecond() {
+        // DateTimeFormatter语法中S是秒的小数部分，不是毫秒数
+        assertEquals(LocalDateTime.of(2020, 1, 1, 0, 0, 1, 5_000_000), parse("yyyy-MM-dd HH:mm:ss.SSS", "2020-01-01 00:00:01.005"));
+        assertEquals(LocalDateTime.of(2020, 1, 1, 0, 0, 1, 500_000_000), parse("yyyy-MM-dd HH:mm:ss.S", "2020-01-01 00:00:01.5"));
+    }
+
+    @Test
+    public void invalidText() {
+        assertNull(parse("yyyy-MM-dd", "2020-1-1x"));
+        assertNull(parse("yyyy-MM-dd", ""));
+    }
+
+}
@@ -0,0 +1,133 @@
+package com.ejobim.spring;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.CharBuffer;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Random;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+/**
+ * FormatScanner测试
+ * 每种格式的扫描结果与ParameterValidator中对应正则的完整匹配结果比较
+ * @author zch
+ */
+@RunWith(Parameterized.class)
+public class FormatScannerTest {
+
+    private static final int RANDOM_INPUTS = 20000;
+
+    private static final int MAX_RANDOM_LENGTH = 16;
+
+    @Parameters(name = "{0}")
+    public static Collection<Object[]> formats() {
+        return Arrays.asList(new Object[][] {
+            {"email", (Predicate<CharSequence>) FormatScanner::isEmail, matcher(ParameterValidator.EMAIL_PATTERN), "ab_Z9.-+@",
+                new String[] {
+                    "a@b.c", "user.name+tag@example.com", "a_b@x-y.z", "1@2.3", "a@b.c.d", "a-b@c.d-e", "a@b-c.d", "a@b.c-d",
+                    "", "@", "a@", "@b.c", "a@b", "a@b-c", "a@@b.c", "a.@b.c", ".a@b.c", "a+@b.c", "a..b@c.d", "a@b..c", "a@.b.c",
+                    "a@b.c.", "a@b-.c", "a@b.c-", "a b@c.d", "a@b_c", "ä@b.c", "a@b.c\n", "a@b.c@d.e",
+                    repeat("a.", 200) + "a@b.c", repeat("a.", 200) + "@", "a@" + repeat("b-", 200) + "c.d"
+                }},
+            {"ipv4", (Predicate<CharSequence>) FormatScanner::isIPv4, matcher(ParameterValidator.IPV4_PATTERN), "0125.9a",
+                new String[] {
+                    "0.0.0.0", "255.255.255.255", "1.2.3.4", "10.0.0.1", "192.168.1.1", "249.250.199.100",
+                    "", "256.0.0.1", "01.2.3.4", "00.0.0.0", "1.2.3.04", "1.2.3", "1.2.3.4.5", "1..2.3", "1.2.3.4.", ".1.2.3.4",
+                    "a.b.c.d", "1234.1.1.1", "1.2.3.-1", " 1.2.3.4", "1.2.3.4 ", "300.1.1.1", "1.2.3.４", repeat("1.", 100) + "1"
+                }},
+            {"domain", (Predicate<CharSequence>) FormatScanner::isDomain, matcher(ParameterValidator.DOMAIN_PATTERN), "aZ9-._",
+                new String[] {
+                    "example.com", "www.example.com.", "a.b", "a-b.c", "1.2", "a-.com", "a.b-", "a--b.c",
+                    repeat("x", 63) + ".com", "a." + repeat("y", 63),
+                    "", ".", "com", "com.", repeat("x", 64) + ".com", "a." + repeat("y", 64), "-a.com", "a..com", ".a.com",
+                    "a.com..", "a_b.com", "a.-b", "a b.com", "ä.com", repeat(repeat("a", 63) + ".", 50) + "-"
+                }},
+            {"host", (Predicate<CharSequence>) FormatScanner::isHost,
+                (Predicate<CharSequence>) value -> ParameterValidator.IPV4_PATTERN.matcher(value).matches()
+                        || ParameterValidator.DOMAIN_PATTERN.matcher(value).matches(), "019a-._",
+                new String[] {
+                    "1.2.3.4", "256.1.1.1", "01.2.3.4", "api.example.com", "localhost.", "1.2.3",
+                    "", "localhost", "1234", "bad_host!", "-a.b", repeat("9", 200)
+                }},
+            {"mobile", (Predicate<CharSequence>) FormatScanner::isMobile, matcher(ParameterValidator.MOBILE_PATTERN), "0134569a",
+                new String[] {
+                    "13812345678", "14000000000", "15999999999", "17000000000", "18000000000", "19912345678",
+                    "", "12345678901", "10012345678", "16012345678", "1381234567", "138123456789", "1381234567a",
+                    "1381234567０", " 13812345678", "23812345678", repeat("1", 200)
+                }},
+            {"htmlColor", (Predicate<CharSequence>) FormatScanner::isHtmlColor, matcher(ParameterValidator.HTML_COLOR_PATTERN), "#09afAFgG",
+                new String[] {
+                    "#a1B2c3", "#000000", "#FFFFFF", "#abcdef",
+                    "", "#", "#abcde", "#abcdefg", "a1b2c3", "#ghijkl", "##abcde", "#abcde０", "#" + repeat("a", 200)
+                }}
+        });
+    }
+
+    private final String format;
+
+    private final Predicate<CharSequence> scanner;
+
+    private final Predicate<CharSequence> regex;
+
+    private final String alphabet;
+
+    private final String[] inputs;
+
+    public FormatScannerTest(String format, Predicate<CharSequence> scanner, Predicate<CharSequence> regex, String alphabet, String[] inputs) {
+        this.format = format;
+        this.scanner = scanner;
+        this.regex = regex;
+        this.alphabet = alphabet;
+        this.inputs = inputs;
+    }
+
+    @Test
+    public void selectedInputs() {
+        for (String input : this.inputs) {
+            assertEquals(this.format + " \"" + input + "\"", this.regex.test(input), this.scanner.test(input));
+        }
+    }
+
+    @Test
+    public void randomInputs() {
+        // 固定种子，失败时可以重现
+        Random random = new Random(this.format.hashCode());
+        char[] chars = new char[MAX_RANDOM_LENGTH];
+        for (int i = 0; i < RANDOM_INPUTS; i++) {
+            int length = random.nextInt(MAX_RANDOM_LENGTH + 1);
+            for (int j = 0; j < length; j++) {
+                chars[j] = this.alphabet.charAt(random.nextInt(this.alphabet.length()));
+            }
+            String input = new String(chars, 0, length);
+            assertEquals(this.format + " \"" + input + "\"", this.regex.test(input), this.scanner.test(input));
+        }
+    }
+
+    @Test
+    public void subSequenceOfLongerText() {
+        // 非String的CharSequence，且位于更长文本的中间，前后内容不影响结果
+        for (String input : this.inputs) {
+            CharSequence value = CharBuffer.wrap("<" + input + ">", 1, input.length() + 1);
+            assertEquals(this.format + " \"" + input + "\"", this.regex.test(input), this.scanner.test(value));
+        }
+    }
+
+    private static Predicate<CharSequence> matcher(Pattern pattern) {
+        return value -> pattern.matcher(value).matches();
+    }
+
+    private static String repeat(String text, int count) {
+        StringBuilder buffer = new StringBuilder(text.length() * count);
+        for (int i = 0; i < count; i++) {
+            buffer.append(text);
+        }
+        return buffer.toString();
+    }
+
+}
@@ -0,0 +1,180 @@
+package com.ejobim.spring;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+import java.util.regex.Pattern;
+import org.junit.Test;
+
+/**
+ * LinearPattern测试
+ * 与java.util.regex的Matcher.matches()结果比较
+ * @author zch
+ */
+public class LinearPatternTest {
+
+    private static final int RANDOM_PATTERNS = 20000;
+
+    private static final int INPUTS_PER_PATTERN = 40;
+
+    private static final int MAX_INPUT_LENGTH = 6;
+
+    private static final String INPUT_ALPHABET = "ab1\n\r";
+
+    private static void assertSameAsJdk(String regex, String input) {
+        LinearPattern linear = LinearPattern.tryCompile(regex);
+        assertNotNull(regex, linear);
+        assertEquals(regex + " on \"" + input + "\"", Pattern.compile(regex).matcher(input).matches(), linear.matches(input));
+    }
+
+    @Test
+    public void supportedSyntax() {
+        assertSameAsJdk("[a-z]+\\d*", "abc123");
+        assertSameAsJdk("[a-z]+\\d*", "ABC");
+        assertSameAsJdk("(?:ab|a)*?b{2,3}", "aabbb");
+        assertSameAsJdk("^a.c$", "abc");
+        assertSameAsJdk("^a.c$", "abc\n");
+        assertSameAsJdk("a$", "a\r\n");
+        assertSameAsJdk("[^\\s]{2}", "a b");
+        assertSameAsJdk("\\x41\\u0042", "AB");
+    }
+
+    @Test
+    public void unsupportedSyntax() {
+        assertNull(LinearPattern.tryCompile("(a)\\1"));
+        assertNull(LinearPattern.tryCompile("a(?=b)b"));
+        assertNull(LinearPattern.tryCompile("a*+"));
+        assertNull(LinearPattern.tryCompile("(?i)a"));
+        assertNull(LinearPattern.tryCompile("\\ba"));
+        assertNull(LinearPattern.tryCompile("[a&&b]"));
+    }
+
+    @Test
+    public void anchorInsideRepetitionIsUnsupported() {
+        // JDK对重复中的锚点（尤其是空迭代）有特殊处理，NFA模拟的结果与之不同
+        assertTrue(!Pattern.compile("[ab]{1,3}|(^|.+?[^a]{2,}){2}").matcher("a1b").matches());
+        assertNull(LinearPattern.tryCompile("[ab]{1,3}|(^|.+?[^a]{2,}){2}"));
+        assertNull(LinearPattern.tryCompile("(^a)*"));
+        assertNull(LinearPattern.tryCompile("(?:a|b$)+"));
+        assertNull(LinearPattern.tryCompile("((a|^)b)?"));
+        assertNotNull(LinearPattern.tryCompile("^(ab)*$"));
+    }
+
+    @Test
+    public void randomPatternsMatchJdk() {
+        // 固定种子，失败时可以重现
+        Random random = new Random(20201017L);
+        StringBuilder regex = new StringBuilder();
+        char[] chars = new char[MAX_INPUT_LENGTH];
+        int compiled = 0;
+        for (int i = 0; i < RANDOM_PATTERNS; i++) {
+            regex.setLength(0);
+            appendAlternation(regex, random, 3);
+            LinearPattern linear = LinearPattern.tryCompile(regex.toString());
+            if (linear == null) {
+                continue;
+            }
+            compiled++;
+            Pattern pattern = Pattern.compile(regex.toString());
+            for (int j = 0; j < INPUTS_PER_PATTERN; j++) {
+                int length = random.nextInt(MAX_INPUT_LENGTH + 1);
+                for (int k = 0; k < length; k++) {
+                    chars[k] = INPUT_ALPHABET.charAt(random.nextInt(INPUT_ALPHABET.length()));
+                }
+                String input = new String(chars, 0, length);
+                assertEquals(regex + " on \"" + input + "\"", pattern.matcher(input).matches(), linear.matches(input));
+            }
+        }
+        // 大部分随机模式应在支持的子集内，否则比较没有意义
+        assertTrue("compiled " + compiled, compiled > RANDOM_PATTERNS / 2);
+    }
+
+    private static void appendAlternation(StringBuilder regex, Random random, int depth) {
+        int alternatives = random.nextInt(4) == 0 ? 2 : 1;
+        for (int i = 0; i < alternatives; i++) {
+            if (i > 0) {
+                regex.append('|');
+            }
+            int items = 1 + random.nextInt(3);
+            for (int j = 0; j < items; j++) {
+                appendRepetition(regex, random, depth);
+            }
+        }
+    }
+
+    private static void appendRepetition(StringBuilder regex, Random random, int depth) {
+        int start = regex.length();
+        boolean assertion = appendAtom(regex, random, depth);
+        if (assertion || random.nextInt(3) != 0) {
+            return;
+        }
+        switch (random.nextInt(6)) {
+            case 0:
+                regex.append('*');
+                break;
+            case 1:
+                regex.append('+');
+                break;
+            case 2:
+                regex.append('?');
+                break;
+            case 3:
+                regex.append('{').append(random.nextInt(3)).append('}');
+                break;
+            case 4:
+                regex.append('{').append(random.nextInt(2)).append(',').append(2 + random.nextInt(2)).append('}');
+                break;
+            default:
+                regex.append('{').append(random.nextInt(3)).append(",}");
+                break;
+        }
+        if (random.nextInt(4) == 0) {
+            regex.append('?');
+        }
+        if (regex.length() == start) {
+            throw new IllegalStateException();
+        }
+    }
+
+    /**
+     * @return 是否锚点（锚点不能直接加量词）
+     */
+    private static boolean appendAtom(StringBuilder regex, Random random, int depth) {
+        int choice = random.nextInt(depth > 0 ? 10 : 8);
+        switch (choice) {
+            case 0:
+                regex.append('a');
+                return false;
+            case 1:
+                regex.append('b');
+                return false;
+            case 2:
+                regex.append('.');
+                return false;
+            case 3:
+                regex.append("[ab]");
+                return false;
+            case 4:
+                regex.append("[^a]");
+                return false;
+            case 5:
+                regex.append("\\d");
+                return false;
+            case 6:
+                regex.append(random.nextBoolean() ? '^' : '$');
+                return true;
+            case 7:
+                regex.append("\\n");
+                return false;
+            default:
+                regex.append(random.nextBoolean() ? "(" : "(?:");
+                appendAlternation(regex, random, depth - 1);
+                regex.append(')');
+                return false;
+        }
+    }
+
+}